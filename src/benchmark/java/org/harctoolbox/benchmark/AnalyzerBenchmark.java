@@ -0,0 +1,77 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+
+package org.harctoolbox.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.harctoolbox.analyze.Analyzer;
+import org.harctoolbox.analyze.NoDecoderMatchException;
+import org.harctoolbox.ircore.InvalidArgumentException;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.irp.IrpDatabase;
+import org.harctoolbox.irp.Protocol;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link Analyzer#searchBestProtocol(Analyzer.AnalyzerParams)}, cycling through the corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyzerBenchmark {
+
+    private List<IrSignal> signals;
+    private Analyzer.AnalyzerParams analyzerParams;
+    private int index;
+
+    @Setup
+    public void setup() throws Exception {
+        IrpDatabase irpDatabase = new IrpDatabase((String) null);
+        List<IrSignal> all = Corpus.renderedSignals(irpDatabase);
+        analyzerParams = new Analyzer.AnalyzerParams();
+        signals = new ArrayList<>(all.size());
+        for (IrSignal irSignal : all) {
+            try {
+                new Analyzer(irSignal).searchBestProtocol(analyzerParams);
+                signals.add(irSignal);
+            } catch (InvalidArgumentException | NoDecoderMatchException ex) {
+                // not analyzable, skip
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Protocol> searchBestProtocol() throws InvalidArgumentException, NoDecoderMatchException {
+        index = (index + 1) % signals.size();
+        return new Analyzer(signals.get(index)).searchBestProtocol(analyzerParams);
+    }
+}
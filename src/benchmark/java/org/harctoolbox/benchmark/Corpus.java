@@ -0,0 +1,130 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.harctoolbox.ircore.InvalidArgumentException;
+import org.harctoolbox.ircore.IrSequence;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.ModulatedIrSequence;
+import org.harctoolbox.irp.IrpDatabase;
+import org.harctoolbox.irp.IrpException;
+import org.harctoolbox.irp.NamedProtocol;
+
+/**
+ * Reproducible test data for the benchmarks: signals rendered from all protocols in IrpProtocols.xml,
+ * noisy versions of these, and long captures, consisting of several concatenated signals.
+ */
+public final class Corpus {
+
+    private static final Logger logger = Logger.getLogger(Corpus.class.getName());
+
+    private static final long SEED = 4711L;
+    private static final double NOISE = 60.0;
+    private static final int SIGNALS_PER_CAPTURE = 10;
+
+    /**
+     * Renders one signal from each renderable protocol in the data base, with random parameters.
+     * @param irpDatabase
+     * @return
+     */
+    public static List<IrSignal> renderedSignals(IrpDatabase irpDatabase) {
+        Random random = new Random(SEED);
+        List<IrSignal> result = new ArrayList<>(irpDatabase.size());
+        for (NamedProtocol protocol : protocols(irpDatabase)) {
+            try {
+                result.add(protocol.toIrSignal(protocol.randomParameters(random)));
+            } catch (IrpException | InvalidArgumentException ex) {
+                logger.log(Level.FINE, "{0}: {1}", new Object[]{protocol.getName(), ex.getMessage()});
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Versions of the signals in the argument with (reproducible) noise added.
+     * @param irSignals
+     * @return
+     */
+    public static List<IrSignal> noisySignals(List<IrSignal> irSignals) {
+        IrSequence.initRandom(SEED);
+        List<IrSignal> result = new ArrayList<>(irSignals.size());
+        irSignals.forEach((irSignal) -> {
+            result.add(new IrSignal(irSignal.getIntroSequence().addNoise(NOISE), irSignal.getRepeatSequence().addNoise(NOISE),
+                    irSignal.getEndingSequence().addNoise(NOISE), irSignal.getFrequency(), irSignal.getDutyCycle()));
+        });
+        return result;
+    }
+
+    /**
+     * Long captures, each consisting of several signals in the argument, rendered with two repeats,
+     * concatenated.
+     * @param irSignals
+     * @return
+     */
+    public static List<ModulatedIrSequence> captures(List<IrSignal> irSignals) {
+        Random random = new Random(SEED);
+        List<IrSignal> shuffled = new ArrayList<>(irSignals);
+        Collections.shuffle(shuffled, random);
+        List<ModulatedIrSequence> result = new ArrayList<>(shuffled.size() / SIGNALS_PER_CAPTURE + 1);
+        for (int start = 0; start < shuffled.size(); start += SIGNALS_PER_CAPTURE) {
+            List<IrSequence> parts = new ArrayList<>(SIGNALS_PER_CAPTURE);
+            for (IrSignal irSignal : shuffled.subList(start, Math.min(start + SIGNALS_PER_CAPTURE, shuffled.size())))
+                parts.add(irSignal.toModulatedIrSequence(true, 2, true));
+            result.add(new ModulatedIrSequence(IrSequence.concatenate(parts), ModulatedIrSequence.DEFAULT_FREQUENCY));
+        }
+        return result;
+    }
+
+    /**
+     * Parameter sets for the rendering benchmark, one for each protocol.
+     * @param irpDatabase
+     * @return
+     */
+    public static List<Map<String, Long>> parameters(IrpDatabase irpDatabase) {
+        Random random = new Random(SEED);
+        List<Map<String, Long>> result = new ArrayList<>(irpDatabase.size());
+        protocols(irpDatabase).forEach((protocol) -> {
+            result.add(protocol.randomParameters(random));
+        });
+        return result;
+    }
+
+    public static List<NamedProtocol> protocols(IrpDatabase irpDatabase) {
+        List<NamedProtocol> result = new ArrayList<>(irpDatabase.size());
+        for (String name : irpDatabase.getKeys()) {
+            try {
+                NamedProtocol protocol = irpDatabase.getNamedProtocol(name);
+                if (protocol.isDecodeable())
+                    result.add(protocol);
+            } catch (IrpException ex) {
+                logger.log(Level.FINE, "{0}: {1}", new Object[]{name, ex.getMessage()});
+            }
+        }
+        return result;
+    }
+
+    private Corpus() {
+    }
+}
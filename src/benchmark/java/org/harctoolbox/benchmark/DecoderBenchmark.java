@@ -0,0 +1,122 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+
+package org.harctoolbox.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.ModulatedIrSequence;
+import org.harctoolbox.irp.Decoder;
+import org.harctoolbox.irp.IrpDatabase;
+import org.harctoolbox.irp.IrpParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+/**
+ * Benchmarks for the {@link Decoder}. Each invocation decodes the next signal of the corpus,
+ * so that the result is an average over all protocols.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecoderBenchmark {
+
+    private static final Logger logger = Logger.getLogger(DecoderBenchmark.class.getName());
+
+    private Decoder decoder;
+    private Decoder.DecoderParameters parameters;
+    private Decoder.DecoderParameters recursiveParameters;
+    private List<IrSignal> signals;
+    private List<IrSignal> noisySignals;
+    private List<ModulatedIrSequence> captures;
+    private int signalIndex;
+    private int noisyIndex;
+    private int captureIndex;
+
+    @Setup
+    public void setup() throws IOException, IrpParseException, SAXException {
+        IrpDatabase irpDatabase = new IrpDatabase((String) null);
+        decoder = new Decoder(irpDatabase);
+        parameters = new Decoder.DecoderParameters();
+        recursiveParameters = new Decoder.DecoderParameters();
+        recursiveParameters.setRecursive(true);
+        List<IrSignal> all = Corpus.renderedSignals(irpDatabase);
+        signals = decodable(all);
+        noisySignals = decodable(Corpus.noisySignals(all));
+        captures = new ArrayList<>(0);
+        for (ModulatedIrSequence capture : Corpus.captures(all)) {
+            try {
+                decoder.decode(capture, recursiveParameters);
+                captures.add(capture);
+            } catch (RuntimeException ex) {
+                logger.log(Level.WARNING, "Capture not decodable, skipped: {0}", ex.toString());
+            }
+        }
+    }
+
+    /**
+     * Sorts out the signals that make the decoder throw an exception, since they would abort the benchmark.
+     */
+    private List<IrSignal> decodable(List<IrSignal> irSignals) {
+        List<IrSignal> result = new ArrayList<>(irSignals.size());
+        for (IrSignal irSignal : irSignals) {
+            try {
+                decoder.decodeIrSignal(irSignal, parameters);
+                result.add(irSignal);
+            } catch (RuntimeException ex) {
+                logger.log(Level.WARNING, "Signal not decodable, skipped: {0}", ex.toString());
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Decoder.SimpleDecodesSet decodeIrSignal() {
+        signalIndex = (signalIndex + 1) % signals.size();
+        return decoder.decodeIrSignal(signals.get(signalIndex), parameters);
+    }
+
+    @Benchmark
+    public Decoder.SimpleDecodesSet decodeNoisyIrSignal() {
+        noisyIndex = (noisyIndex + 1) % noisySignals.size();
+        return decoder.decodeIrSignal(noisySignals.get(noisyIndex), parameters);
+    }
+
+    @Benchmark
+    public Decoder.DecodeTree decodeCapture() {
+        captureIndex = (captureIndex + 1) % captures.size();
+        return decoder.decode(captures.get(captureIndex), recursiveParameters);
+    }
+}
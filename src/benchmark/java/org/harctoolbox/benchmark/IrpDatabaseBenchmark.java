@@ -0,0 +1,55 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+
+package org.harctoolbox.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.harctoolbox.irp.Decoder;
+import org.harctoolbox.irp.IrpDatabase;
+import org.harctoolbox.irp.IrpParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+/**
+ * Benchmarks for the loading of the protocol data base, and the setup of a Decoder.
+ * Single shot in several forks, since the start up time of short lived processes is of interest.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class IrpDatabaseBenchmark {
+
+    @Benchmark
+    public IrpDatabase loadIrpDatabase() throws IOException, IrpParseException, SAXException {
+        return new IrpDatabase((String) null);
+    }
+
+    @Benchmark
+    public Decoder newDecoder() throws IOException, IrpParseException, SAXException {
+        return new Decoder(new IrpDatabase((String) null));
+    }
+}
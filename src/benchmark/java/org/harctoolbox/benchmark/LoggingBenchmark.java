@@ -0,0 +1,118 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.harctoolbox.ircore.InvalidArgumentException;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.irp.Decoder;
+import org.harctoolbox.irp.IrpDatabase;
+import org.harctoolbox.irp.IrpException;
+import org.harctoolbox.irp.IrpParseException;
+import org.harctoolbox.irp.NamedProtocol;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+/**
+ * Measures decoding and rendering with the org.harctoolbox loggers on INFO and OFF.
+ * With the gc profiler (-prof gc), gc.alloc.rate.norm gives the bytes allocated per operation.
+ * The difference between the two levels is the cost of the messages on INFO and above;
+ * on the noisy corpus, these are WARNINGs, which are really logged.
+ * Messages below INFO cost the same on both levels, so this benchmark does not prove that they allocate nothing;
+ * for that, compare the figures on INFO with a build without the isLoggable guards.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final Logger logger = Logger.getLogger(LoggingBenchmark.class.getName());
+
+    @Param({"INFO", "OFF"})
+    private String logLevel;
+
+    private Decoder decoder;
+    private Decoder.DecoderParameters parameters;
+    private List<IrSignal> noisySignals;
+    private List<NamedProtocol> protocols;
+    private List<Map<String, Long>> protocolParameters;
+    private int noisyIndex;
+    private int protocolIndex;
+
+    @Setup
+    public void setup() throws IOException, IrpParseException, SAXException {
+        Logger.getLogger("org.harctoolbox").setLevel(Level.parse(logLevel));
+        IrpDatabase irpDatabase = new IrpDatabase((String) null);
+        decoder = new Decoder(irpDatabase);
+        parameters = new Decoder.DecoderParameters();
+        noisySignals = new ArrayList<>(irpDatabase.size());
+        for (IrSignal irSignal : Corpus.noisySignals(Corpus.renderedSignals(irpDatabase))) {
+            try {
+                decoder.decodeIrSignal(irSignal, parameters);
+                noisySignals.add(irSignal);
+            } catch (RuntimeException ex) {
+                logger.log(Level.WARNING, "Signal not decodable, skipped: {0}", ex.toString());
+            }
+        }
+
+        List<NamedProtocol> allProtocols = Corpus.protocols(irpDatabase);
+        List<Map<String, Long>> allParameters = Corpus.parameters(irpDatabase);
+        protocols = new ArrayList<>(allProtocols.size());
+        protocolParameters = new ArrayList<>(allProtocols.size());
+        for (int i = 0; i < allProtocols.size(); i++) {
+            try {
+                allProtocols.get(i).toIrSignal(allParameters.get(i));
+                protocols.add(allProtocols.get(i));
+                protocolParameters.add(allParameters.get(i));
+            } catch (IrpException | InvalidArgumentException ex) {
+                // not renderable with these parameters, skip
+            }
+        }
+    }
+
+    @Benchmark
+    public Decoder.SimpleDecodesSet decodeNoisyIrSignal() {
+        noisyIndex = (noisyIndex + 1) % noisySignals.size();
+        return decoder.decodeIrSignal(noisySignals.get(noisyIndex), parameters);
+    }
+
+    @Benchmark
+    public IrSignal render() throws IrpException, InvalidArgumentException {
+        protocolIndex = (protocolIndex + 1) % protocols.size();
+        return protocols.get(protocolIndex).toIrSignal(protocolParameters.get(protocolIndex));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+
+package org.harctoolbox.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.OddSequenceLengthException;
+import org.harctoolbox.irp.DomainViolationException;
+import org.harctoolbox.irp.InvalidNameException;
+import org.harctoolbox.irp.IrpDatabase;
+import org.harctoolbox.irp.IrpInvalidArgumentException;
+import org.harctoolbox.irp.NameUnassignedException;
+import org.harctoolbox.irp.NamedProtocol;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link NamedProtocol#toIrSignal(Map)}, cycling through all protocols.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+
+    private List<NamedProtocol> protocols;
+    private List<Map<String, Long>> parameters;
+    private NamedProtocol nec1;
+    private Map<String, Long> nec1Parameters;
+    private int index;
+
+    @Setup
+    public void setup() throws Exception {
+        IrpDatabase irpDatabase = new IrpDatabase((String) null);
+        List<NamedProtocol> allProtocols = Corpus.protocols(irpDatabase);
+        List<Map<String, Long>> allParameters = Corpus.parameters(irpDatabase);
+        protocols = new ArrayList<>(allProtocols.size());
+        parameters = new ArrayList<>(allProtocols.size());
+        for (int i = 0; i < allProtocols.size(); i++) {
+            try {
+                allProtocols.get(i).toIrSignal(allParameters.get(i));
+                protocols.add(allProtocols.get(i));
+                parameters.add(allParameters.get(i));
+            } catch (DomainViolationException | NameUnassignedException | IrpInvalidArgumentException | InvalidNameException | OddSequenceLengthException ex) {
+                // not renderable with these parameters, skip
+            }
+        }
+
+        nec1 = irpDatabase.getNamedProtocol("NEC1");
+        nec1Parameters = new HashMap<>(3);
+        nec1Parameters.put("D", 12L);
+        nec1Parameters.put("S", 34L);
+        nec1Parameters.put("F", 56L);
+    }
+
+    @Benchmark
+    public IrSignal renderAll() throws DomainViolationException, NameUnassignedException, IrpInvalidArgumentException, InvalidNameException, OddSequenceLengthException {
+        index = (index + 1) % protocols.size();
+        return protocols.get(index).toIrSignal(parameters.get(index));
+    }
+
+    @Benchmark
+    public IrSignal renderNec1() throws DomainViolationException, NameUnassignedException, IrpInvalidArgumentException, InvalidNameException, OddSequenceLengthException {
+        return nec1.toIrSignal(nec1Parameters);
+    }
+}
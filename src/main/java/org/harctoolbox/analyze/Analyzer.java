@@ -24,9 +24,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -45,6 +48,24 @@ public final class Analyzer extends Cleaner {
 
     private static final Logger logger = Logger.getLogger(Analyzer.class.getName());
 
+    /**
+     * The constructors of the decoders, looked up once.
+     */
+    private static final Map<Class<?>, Constructor<?>> decoderConstructors = mkDecoderConstructors();
+
+    private static Map<Class<?>, Constructor<?>> mkDecoderConstructors() {
+        Map<Class<?>, Constructor<?>> map = new HashMap<>(AbstractDecoder.NUMBERDECODERS);
+        for (Class<?> decoderClass : AbstractDecoder.decoders) {
+            try {
+                map.put(decoderClass, decoderClass.getConstructor(Analyzer.class, AnalyzerParams.class));
+            } catch (NoSuchMethodException | SecurityException ex) {
+                // consider this as programming error
+                throw new ThisCannotHappenException(ex);
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
     public static int[] mkIndices(Collection<? extends IrSequence> irSequenceList) {
         int[] indices = new int[irSequenceList.size()];
         int i = 0;
@@ -87,7 +108,7 @@ public final class Analyzer extends Cleaner {
 
     private Analyzer(Collection<? extends IrSequence> irSequenceList, int[] indices, boolean signalMode, Double frequency, boolean invokeRepeatFinder, Double absoluteTolerance, Double relativeTolerance) throws InvalidArgumentException {
         super(IrSequence.toInts(irSequenceList), indices, signalMode, absoluteTolerance, relativeTolerance);
-        if (frequency == null)
+        if (frequency == null && logger.isLoggable(Level.FINE))
             logger.log(Level.FINE, String.format(Locale.US, "No frequency given, assuming default frequency = %d Hz", (int) ModulatedIrSequence.DEFAULT_FREQUENCY));
         this.frequency = frequency;
         repeatFinderData = new RepeatFinder.RepeatFinderData[irSequenceList.size()];
@@ -221,21 +242,55 @@ public final class Analyzer extends Cleaner {
         List<Class<?>> decoderClasses = selectDecoderClasses(decoderPattern, regexp);
         List<AbstractDecoder> decoders = new ArrayList<>(AbstractDecoder.NUMBERDECODERS);
         decoderClasses.forEach((decoderClass) -> {
-            try {
-                Constructor<?> constructor = decoderClass.getConstructor(Analyzer.class, AnalyzerParams.class);
-                AbstractDecoder decoder = (AbstractDecoder) constructor.newInstance(this, params);
+            AbstractDecoder decoder = newDecoder(decoderClass, params);
+            if (decoder != null)
                 decoders.add(decoder);
-            } catch (NoSuchMethodException | SecurityException | IllegalAccessException | IllegalArgumentException | InstantiationException ex) {
-                // consider this as programming error
-                throw new ThisCannotHappenException(ex);
-            } catch (InvocationTargetException ex) {
-                // Likely not a fatal problem, the decoder just did not accept the data.
-                logger.log(Level.FINE, String.format("Decoder %1$s failed: %2$s(%3$s)", decoderClass.getSimpleName(), ex.getTargetException().getClass().getSimpleName(), ex.getTargetException().getMessage()));
-            }
         });
         return decoders;
     }
 
+    private AbstractDecoder newDecoder(Class<?> decoderClass, Analyzer.AnalyzerParams params) {
+        try {
+            return (AbstractDecoder) decoderConstructors.get(decoderClass).newInstance(this, params);
+        } catch (IllegalAccessException | IllegalArgumentException | InstantiationException ex) {
+            // consider this as programming error
+            throw new ThisCannotHappenException(ex);
+        } catch (InvocationTargetException ex) {
+            // Likely not a fatal problem, the decoder just did not accept the data.
+            if (logger.isLoggable(Level.FINE))
+                logger.log(Level.FINE, String.format("Decoder %1$s failed: %2$s(%3$s)", decoderClass.getSimpleName(), ex.getTargetException().getClass().getSimpleName(), ex.getTargetException().getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Runs the decoders in the argument on all sequences, in parallel.
+     * Since the decoders are not thread safe, every task uses its own instances.
+     * The work is split both over the decoders and over the sequences.
+     * @return Array of protocols, indexed by sequence number and decoder number; null for failures.
+     */
+    private Protocol[][] parseParallel(List<Class<?>> decoderClasses, Analyzer.AnalyzerParams params, ForkJoinPool forkJoinPool) {
+        int noSequences = getNoSequences();
+        Protocol[][] protocols = new Protocol[noSequences][decoderClasses.size()];
+        int chunkSize = Math.max(1, (noSequences + forkJoinPool.getParallelism() - 1) / forkJoinPool.getParallelism());
+        List<Runnable> tasks = new ArrayList<>(decoderClasses.size() * (noSequences / chunkSize + 1));
+        for (int d = 0; d < decoderClasses.size(); d++) {
+            int decoderNumber = d;
+            for (int start = 0; start < noSequences; start += chunkSize) {
+                int first = start;
+                int last = Math.min(start + chunkSize, noSequences);
+                tasks.add(() -> {
+                    AbstractDecoder decoder = newDecoder(decoderClasses.get(decoderNumber), params);
+                    if (decoder != null)
+                        for (int number = first; number < last; number++)
+                            protocols[number][decoderNumber] = parse(decoder, number);
+                });
+            }
+        }
+        forkJoinPool.submit(() -> tasks.parallelStream().forEach(Runnable::run)).join();
+        return protocols;
+    }
+
 //    /**
 //     * @return the timebase
 //     */
@@ -262,6 +317,50 @@ public final class Analyzer extends Cleaner {
         return frequency;
     }
 
+    /**
+     * Parallel version of {@link #searchAllProtocols(AnalyzerParams, String, boolean)}, giving the same result.
+     * @param params
+     * @param decoderPattern
+     * @param regexp
+     * @param forkJoinPool If non-null, decoders and sequences are processed in parallel, using this pool. Otherwise sequentially.
+     * @return
+     * @throws NoDecoderMatchException
+     */
+    public List<List<Protocol>> searchAllProtocols(AnalyzerParams params, String decoderPattern, boolean regexp, ForkJoinPool forkJoinPool) throws NoDecoderMatchException {
+        if (forkJoinPool == null)
+            return searchAllProtocols(params, decoderPattern, regexp);
+
+        Protocol[][] protocols = parseParallel(selectDecoderClasses(decoderPattern, regexp), params, forkJoinPool);
+        List<List<Protocol>> result = new ArrayList<>(getNoSequences());
+        for (Protocol[] array : protocols) {
+            List<Protocol> list = new ArrayList<>(array.length);
+            for (Protocol protocol : array)
+                if (protocol != null)
+                    list.add(protocol);
+            result.add(list);
+        }
+        return result;
+    }
+
+    /**
+     * Parallel version of {@link #searchBestProtocol(AnalyzerParams, String, boolean)}, giving the same result.
+     * @param params
+     * @param decoderPattern
+     * @param regexp
+     * @param forkJoinPool If non-null, decoders and sequences are processed in parallel, using this pool. Otherwise sequentially.
+     * @return
+     * @throws NoDecoderMatchException
+     */
+    public List<Protocol> searchBestProtocol(AnalyzerParams params, String decoderPattern, boolean regexp, ForkJoinPool forkJoinPool) throws NoDecoderMatchException {
+        if (forkJoinPool == null)
+            return searchBestProtocol(params, decoderPattern, regexp);
+
+        List<List<Protocol>> protocols = searchAllProtocols(params, decoderPattern, regexp, forkJoinPool);
+        List<Protocol> result = new ArrayList<>(getNoSequences());
+        protocols.stream().map(Analyzer::selectBestProtocol).filter(Objects::nonNull).forEachOrdered(result::add);
+        return result;
+    }
+
     public List<List<Protocol>> searchAllProtocols(AnalyzerParams params, String decoderPattern, boolean regexp) throws NoDecoderMatchException {
         List<AbstractDecoder> decoders = setupDecoders(params, decoderPattern, regexp);
         List<List<Protocol>> result = new ArrayList<>(getNoSequences());
@@ -290,19 +389,28 @@ public final class Analyzer extends Cleaner {
     public List<Protocol> searchProtocols(List<AbstractDecoder> decoders, int number) {
         List<Protocol> protocols = new ArrayList<>(decoders.size());
         decoders.forEach((decoder) -> {
-            try {
-                Protocol protocol = decoder.parse(number, isSignalMode());
+            Protocol protocol = parse(decoder, number);
+            if (protocol != null)
                 protocols.add(protocol);
-                logger.log(Level.FINE, "{0}: {1} w = {2}", new Object[]{decoder.name(), protocol.toIrpString(10), protocol.weight()});
-            } catch (DecodeException ex) {
-                logger.log(Level.FINE, "{0}: {1}", new Object[]{decoder.name(), ex.getMessage()});
-            } catch (AnalyzerParams.TooFewParameterNamesException ex) {
-                logger.log(Level.FINE, "{0}: Too few parameter names", new Object[]{decoder.name()});
-            }
         });
         return protocols;
     }
 
+    private Protocol parse(AbstractDecoder decoder, int number) {
+        try {
+            Protocol protocol = decoder.parse(number, isSignalMode());
+            if (logger.isLoggable(Level.FINE))
+                logger.log(Level.FINE, "{0}: {1} w = {2}", new Object[]{decoder.name(), protocol.toIrpString(10), protocol.weight()});
+            return protocol;
+        } catch (DecodeException ex) {
+            if (logger.isLoggable(Level.FINE))
+                logger.log(Level.FINE, "{0}: {1}", new Object[]{decoder.name(), ex.getMessage()});
+        } catch (AnalyzerParams.TooFewParameterNamesException ex) {
+            logger.log(Level.FINE, "{0}: Too few parameter names", new Object[]{decoder.name()});
+        }
+        return null;
+    }
+
     public Protocol searchBestProtocol(List<AbstractDecoder> decoders, int number) {
         List<Protocol> protocols = searchProtocols(decoders, number);
         return selectBestProtocol(protocols);
@@ -38,7 +38,6 @@ public class Cleaner {
 
     private final static Logger logger = Logger.getLogger(Cleaner.class.getName());
 
-    private final static int NUMBEROFINITIALTIMINGSCAPACITY = 20;
     private static final int NO_LETTERS = 26;
     private static final int MAXSPAN = 4;
 
@@ -76,11 +75,14 @@ public class Cleaner {
 
     private int rawData[];
     protected List<Integer> timings;
-    private HashMap<Integer, HistoPair> rawHistogram;
-    private HashMap<Integer, HistoPair> cleanedHistogram;
+    private int[] timingValues; // same as timings, ascending
+    private int[] cleanedFlashes; // number of flashes, indexed as timings
+    private int[] cleanedGaps;    // number of gaps, indexed as timings
     protected int indexData[];
-    private int[] sorted;
-    private HashMap<Integer, Integer> lookDownTable;
+    private int[] distinct;       // the different durations in rawData, ascending
+    private int[] distinctFlashes; // number of flashes, indexed as distinct
+    private int[] distinctGaps;    // number of gaps, indexed as distinct
+    private int[] distinctIndex;   // index into timings, indexed as distinct
     private List<Integer> gapsSortedAfterFrequency;
     private List<Integer> flashesSortedAfterFrequency;
     private int[] indices; // ending indicies
@@ -105,7 +107,7 @@ public class Cleaner {
         createRawHistogram();
         double relTol = IrCoreUtils.getRelativeTolerance(relativeTolerance);
         double absTol = IrCoreUtils.getAbsoluteTolerance(absoluteTolerance);
-        List<Integer> dumbTimings = createDumbTimings(absTol, relTol);
+        int[] dumbTimings = createDumbTimings(absTol, relTol);
         improveTimingsTable(dumbTimings, absTol, relTol);
         createCookedData();
         createCleanHistogram();
@@ -119,78 +121,95 @@ public class Cleaner {
         return signalMode;
     }
 
+    /**
+     * Sets up the histogram of the raw data, as arrays indexed by the different durations.
+     */
     private void createRawHistogram() {
-        rawHistogram = new HashMap<>(NUMBEROFINITIALTIMINGSCAPACITY);
+        int[] sorted = rawData.clone();
+        Arrays.sort(sorted);
+        int noDistinct = 0;
+        for (int i = 0; i < sorted.length; i++)
+            if (i == 0 || sorted[i] != sorted[i - 1])
+                sorted[noDistinct++] = sorted[i];
+        distinct = Arrays.copyOf(sorted, noDistinct);
+
+        distinctFlashes = new int[noDistinct];
+        distinctGaps = new int[noDistinct];
         for (int i = 0; i < rawData.length; i++) {
-            boolean isFlash = i % 2 == 0;
-            int duration = rawData[i];
-            if (!rawHistogram.containsKey(duration))
-                rawHistogram.put(duration, new HistoPair());
-            rawHistogram.get(duration).increment(isFlash);
+            int index = Arrays.binarySearch(distinct, rawData[i]);
+            if (i % 2 == 0)
+                distinctFlashes[index]++;
+            else
+                distinctGaps[index]++;
         }
     }
 
-    private ArrayList<Integer> createDumbTimings(double absoluteTolerance, double relativeTolerance) {
-        ArrayList<Integer> dumbTimings = new ArrayList<>(rawData.length);
-        sorted = rawData.clone();
-        Arrays.sort(sorted);
+    private int[] createDumbTimings(double absoluteTolerance, double relativeTolerance) {
+        int[] dumbTimings = new int[distinct.length];
+        int noDumbTimings = 0;
         int last = -99999;
-        for (int d : sorted) {
+        for (int d : distinct) {
             if (!IrCoreUtils.approximatelyEquals(d, last, (int) absoluteTolerance, relativeTolerance)) {
                 int representative = d /*+ (int) absoluteTolerance*/;
-                dumbTimings.add(representative);
+                dumbTimings[noDumbTimings++] = representative;
                 last = representative;
             }
         }
-        return dumbTimings;
+        return Arrays.copyOf(dumbTimings, noDumbTimings);
     }
 
-    private void improveTimingsTable(List<Integer> dumbTimings, double absoluteTolerance, double relativeTolerance) {
-        lookDownTable = new HashMap<>(NUMBEROFINITIALTIMINGSCAPACITY);
-        timings = new ArrayList<>(NUMBEROFINITIALTIMINGSCAPACITY);
-        int indexInSortedTimings = 0;
-        for (int timingsIndex = 0; timingsIndex < dumbTimings.size(); timingsIndex++) {
-            int dumbTiming = dumbTimings.get(timingsIndex);
+    private void improveTimingsTable(int[] dumbTimings, double absoluteTolerance, double relativeTolerance) {
+        distinctIndex = new int[distinct.length];
+        timingValues = new int[dumbTimings.length];
+        int indexInDistinct = 0;
+        for (int timingsIndex = 0; timingsIndex < dumbTimings.length; timingsIndex++) {
+            int dumbTiming = dumbTimings[timingsIndex];
             long sum = 0;
             int terms = 0;
-            int lastDuration = -1;
-            while (indexInSortedTimings < sorted.length
-                    && IrCoreUtils.approximatelyEquals(dumbTiming, sorted[indexInSortedTimings], (int) absoluteTolerance, relativeTolerance)) {
-                int duration = sorted[indexInSortedTimings];
-                indexInSortedTimings++;
-                if (duration == lastDuration)
-                    continue;
-                lastDuration = duration;
-                int noHits = rawHistogram.get(duration).total();
+            while (indexInDistinct < distinct.length
+                    && IrCoreUtils.approximatelyEquals(dumbTiming, distinct[indexInDistinct], (int) absoluteTolerance, relativeTolerance)) {
+                int duration = distinct[indexInDistinct];
+                int noHits = distinctFlashes[indexInDistinct] + distinctGaps[indexInDistinct];
                 long term = noHits * duration;
                 sum += term;
                 if (term < 0 || sum < 0)
                     throw new ThisCannotHappenException("Internal overflow error!!! Please report.");
                 terms += noHits;
-                lookDownTable.put(duration, timingsIndex);
+                distinctIndex[indexInDistinct] = timingsIndex;
+                indexInDistinct++;
             }
             int average = (int) Math.round(sum/(double)terms);
-            timings.add(average);
-            lookDownTable.put(average, timingsIndex);
+            timingValues[timingsIndex] = average;
         }
+        List<Integer> list = new ArrayList<>(timingValues.length);
+        for (int timing : timingValues)
+            list.add(timing);
+        timings = Collections.unmodifiableList(list);
     }
 
     private void createCookedData() {
         indexData = new int[rawData.length];
         for (int i = 0; i < rawData.length; i++)
-            indexData[i] = lookDownTable.get(rawData[i]);
+            indexData[i] = distinctIndex[Arrays.binarySearch(distinct, rawData[i])];
     }
 
     private void createCleanHistogram() {
-        cleanedHistogram = new LinkedHashMap<>(NUMBEROFINITIALTIMINGSCAPACITY);
-        timings.stream().forEach((duration) -> {
-            cleanedHistogram.put(duration, new HistoPair());
-        });
-        rawHistogram.entrySet().stream().forEach((kvp) -> {
-            int index = lookDownTable.get(kvp.getKey());
-            Integer cleanedDuration = timings.get(index);
-            cleanedHistogram.get(cleanedDuration).add(kvp.getValue());
-        });
+        cleanedFlashes = new int[timingValues.length];
+        cleanedGaps = new int[timingValues.length];
+        for (int i = 0; i < distinct.length; i++) {
+            cleanedFlashes[distinctIndex[i]] += distinctFlashes[i];
+            cleanedGaps[distinctIndex[i]] += distinctGaps[i];
+        }
+    }
+
+    /**
+     * Returns the index in timings of a cleaned duration.
+     */
+    private int timingsIndex(int duration) {
+        int index = Arrays.binarySearch(timingValues, duration);
+        if (index < 0)
+            throw new IllegalArgumentException("Not a cleaned duration: " + duration);
+        return index;
     }
 
     public String getName(int duration) {
@@ -212,7 +231,7 @@ public class Cleaner {
     protected int[] toDurations(int beg, int length) {
         int[] data = new int[length];
         for (int i = 0; i < length; i++)
-            data[i] = timings.get(indexData[beg + i]);
+            data[i] = timingValues[indexData[beg + i]];
         return data;
     }
 
@@ -234,23 +253,33 @@ public class Cleaner {
     protected int getTotalDuration(int beg, int length) {
         int sum = 0;
         for (int i = beg; i < beg + length; i++)
-            sum += timings.get(indexData[i]);
+            sum += timingValues[indexData[i]];
         return sum;
     }
 
     public int getTiming(int index) {
-        return  timings.get(index);
+        return timingValues[index];
     }
 
+    /**
+     * Returns the index in the timings table of a duration, either a raw one or a cleaned one.
+     * @param duration
+     * @return index, or null if the duration is unknown.
+     */
     public Integer getIndex(int duration) {
-        return lookDownTable.get(duration);
+        int index = Arrays.binarySearch(distinct, duration);
+        if (index >= 0)
+            return distinctIndex[index];
+        index = Arrays.binarySearch(timingValues, duration);
+        return index >= 0 ? index : null;
     }
 
     private List<Integer> getFalshesOrGaps(boolean isFlash) {
-        List<Integer> list = new ArrayList<>(timings.size());
-        timings.stream().filter((d) -> (cleanedHistogram.get(d).get(isFlash) > 0)).forEach((d) -> {
-            list.add(d);
-        });
+        int[] counts = isFlash ? cleanedFlashes : cleanedGaps;
+        List<Integer> list = new ArrayList<>(timingValues.length);
+        for (int i = 0; i < timingValues.length; i++)
+            if (counts[i] > 0)
+                list.add(timingValues[i]);
         return list;
     }
 
@@ -266,19 +295,18 @@ public class Cleaner {
      * @return the cleanedHistogram
      */
     public HashMap<Integer, Integer> getCleanedHistogram() {
-        HashMap<Integer, Integer> result = new LinkedHashMap<>(cleanedHistogram.size());
-        cleanedHistogram.entrySet().stream().forEach((kvp) -> {
-            result.put(kvp.getKey(), kvp.getValue().total());
-        });
+        HashMap<Integer, Integer> result = new LinkedHashMap<>(timingValues.length);
+        for (int i = 0; i < timingValues.length; i++)
+            result.put(timingValues[i], cleanedFlashes[i] + cleanedGaps[i]);
         return result;
     }
 
     public int getNumberGaps(int duration) {
-        return cleanedHistogram.get(duration).numberGaps;
+        return cleanedGaps[timingsIndex(duration)];
     }
 
     public int getNumberFlashes(int duration) {
-        return cleanedHistogram.get(duration).numberFlashes;
+        return cleanedFlashes[timingsIndex(duration)];
     }
 
     public int getNumberPairs(int flash, int gap) {
@@ -297,9 +325,9 @@ public class Cleaner {
 
     private void createSortedGapsAndFlashes() {
         gapsSortedAfterFrequency = getFalshesOrGaps(false);
-        Collections.sort(gapsSortedAfterFrequency,    (a, b) -> cleanedHistogram.get(b).numberGaps    - cleanedHistogram.get(a).numberGaps);
+        Collections.sort(gapsSortedAfterFrequency,    (a, b) -> getNumberGaps(b)    - getNumberGaps(a));
         flashesSortedAfterFrequency = getFalshesOrGaps(true);
-        Collections.sort(flashesSortedAfterFrequency, (a, b) -> cleanedHistogram.get(b).numberFlashes - cleanedHistogram.get(a).numberFlashes);
+        Collections.sort(flashesSortedAfterFrequency, (a, b) -> getNumberFlashes(b) - getNumberFlashes(a));
     }
 
     public int getGapsSortedAfterFrequency(int i) {
@@ -350,7 +378,7 @@ public class Cleaner {
     }
 
     public int getCleanedTime(int i) {
-        return timings.get(indexData[i]);
+        return timingValues[indexData[i]];
     }
 
     public int getNoSequences() {
@@ -358,61 +386,28 @@ public class Cleaner {
     }
 
     protected int getTimeBaseFromData(double relativeTolerance) {
-        Integer min = timings.get(0);
+        int min = timingValues[0];
         if (min == 0)
             throw new ThisCannotHappenException("min == 0");
-        List<Integer> list = new ArrayList<>(timings.size());
-        StringBuilder str = new StringBuilder(5*timings.size());
-        timings.forEach((time) -> {
-            int numberOccurances = cleanedHistogram.get(time).total();
+        List<Integer> list = new ArrayList<>(timingValues.length);
+        StringBuilder str = logger.isLoggable(Level.FINER) ? new StringBuilder(5*timingValues.length) : null;
+        for (int i = 0; i < timingValues.length; i++) {
+            int time = timingValues[i];
+            int numberOccurances = cleanedFlashes[i] + cleanedGaps[i];
             int span = time/min;
             if (numberOccurances > 1 && span <= MAXSPAN) {
                 list.add(time);
-                str.append(" ").append(time);
+                if (str != null)
+                    str.append(" ").append(time);
             }
-        });
+        }
         if (list.isEmpty()) {
             logger.log(Level.FINE, "Cannot find a sensible time base");
             return 1;
         }
         int gcd = IrCoreUtils.approximateGreatestCommonDivider(list, relativeTolerance);
-        logger.log(Level.FINER, "Computing GCD of {0} to {1}", new Object[]{str.toString(), gcd});
+        if (str != null)
+            logger.log(Level.FINER, "Computing GCD of {0} to {1}", new Object[]{str.toString(), gcd});
         return gcd;
     }
-
-    private static class HistoPair {
-
-        int numberGaps;
-        int numberFlashes;
-
-        HistoPair() {
-            numberGaps = 0;
-            numberFlashes = 0;
-        }
-
-        int get(boolean isFlash) {
-            return isFlash ? numberFlashes : numberGaps;
-        }
-
-        void increment(boolean isFlash) {
-            if (isFlash)
-                numberFlashes++;
-            else
-                numberGaps++;
-        }
-
-        int total() {
-            return numberFlashes + numberGaps;
-        }
-
-        @Override
-        public String toString() {
-            return total() + "=" + numberGaps + "+" + numberFlashes;
-        }
-
-        private void add(HistoPair op) {
-            numberGaps += op.numberGaps;
-            numberFlashes += op.numberFlashes;
-        }
-    }
 }
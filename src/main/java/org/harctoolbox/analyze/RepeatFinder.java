@@ -118,10 +118,30 @@ public final class RepeatFinder {
         this(new IrSequence(data), defaultAbsoluteTolerance, defaultRelativeTolerance);
     }
 
+    /**
+     * Tries all (beginning, length) combinations, with decreasing length, and increasing beginning,
+     * and keeps the last candidate with the largest repeatsDuration.
+     * Combinations that cannot possibly be accepted are skipped without comparing durations:
+     * those not ending with a long enough gap, and those where the duration of the entire rest of the sequence
+     * is shorter than the repeatsDuration of the current candidate.
+     */
     private void analyze() {
-        RepeatFinderData candidate = new RepeatFinderData(irSequence.getLength());
-        for (int length = irSequence.getLength() / 4; length >= 2; length--) {
-            for (int beginning = 0; beginning < irSequence.getLength() / 2 - length; beginning++) {
+        int noDurations = irSequence.getLength();
+        // restDuration[i] = total duration from i to the end.
+        double[] restDuration = new double[noDurations + 1];
+        for (int i = noDurations - 1; i >= 0; i--)
+            restDuration[i] = restDuration[i + 1] + Math.abs(irSequence.get(i));
+
+        RepeatFinderData candidate = new RepeatFinderData(noDurations);
+        for (int length = noDurations / 4; length >= 2; length--) {
+            for (int beginning = 0; beginning < noDurations / 2 - length; beginning++) {
+                // The rest duration is decreasing in beginning, so give up this length.
+                // The margin of 1 (instead of 0.1) takes care of rounding in different summation orders.
+                if (restDuration[2*beginning] < candidate.repeatsDuration - 1)
+                    break;
+                if (Math.abs(irSequence.get(2*beginning + 2*length - 1)) < minRepeatLastGap)
+                    continue; // would be rejected anyhow
+
                 RepeatFinderData newCandidate;
                 try {
                     newCandidate = countRepeats(2*beginning, 2*length);
@@ -75,10 +75,22 @@ public abstract class CmdLineProgram {
     }
 
     public ProgramExitStatus run(String[] args) {
+        return run(args, true);
+    }
+
+    /**
+     * Runs the program with the arguments given.
+     * @param args
+     * @param setupLoggers If false, leave the logger configuration, which is global to the JVM, alone,
+     * and ignore the logging options.
+     * @return
+     */
+    public ProgramExitStatus run(String[] args, boolean setupLoggers) {
         try {
             try {
                 parseArgs(args);
-                setupLoggers();
+                if (setupLoggers)
+                    setupLoggers();
             } catch (UnsupportedEncodingException | UsageException | FileNotFoundException | ParameterException ex) {
                 // Exceptions likely from silly user input, just print the exception
                 return new ProgramExitStatus(progName, ProgramExitStatus.EXIT_USAGE_ERROR, ex.getLocalizedMessage());
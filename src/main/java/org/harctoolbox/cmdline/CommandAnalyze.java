@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.xml.transform.TransformerException;
@@ -34,6 +35,7 @@ import org.harctoolbox.analyze.AbstractDecoder;
 import org.harctoolbox.analyze.Analyzer;
 import org.harctoolbox.analyze.Burst;
 import org.harctoolbox.analyze.NoDecoderMatchException;
+import org.harctoolbox.ircore.BinarySignalFile;
 import org.harctoolbox.ircore.InvalidArgumentException;
 import org.harctoolbox.ircore.IrCoreException;
 import org.harctoolbox.ircore.IrCoreUtils;
@@ -158,6 +160,9 @@ public class CommandAnalyze extends AbstractCommand {
     @Parameter(names = {"-t", "--timebase"}, description = "Force time unit , in microseconds (no suffix), or in periods (with suffix \"p\").")
     private String timeBase = null;
 
+    @Parameter(names = {"--threads"}, description = "Run the decoders on this number of threads.")
+    private Integer threads = null;
+
     @Parameter(names = {"--timings"}, description = "Print the total timings of the compute IRP form.")
     private boolean timings = false;
 
@@ -188,6 +193,8 @@ public class CommandAnalyze extends AbstractCommand {
                 + "\n\n"
                 + "Using the option --input, instead the content of a file can be taken as input, containing sequences to be analyzed, "
                 + "one per line, blank lines ignored. "
+                + "Alternatively, the file can be a binary signal file, at most 2GB, as generated by the \"convert\" command. "
+                + "Also for these, --frequency overrides the frequency of the signals. "
                 + "Using the option --namedinput, the sequences may have names, immediately preceeding the signal. "
                 + "\n\n"
                 + "Input sequences can be pre-processed using the options --chop, --clean, and --repeatfinder. "
@@ -202,7 +209,10 @@ public class CommandAnalyze extends AbstractCommand {
                 + "The options --statistics and --dump-repeatfinder (the latter forces the repeatfinder to be on) can be used to print extra information. "
                 + "The common options --absolutetolerance, --relativetolerance, --minrepeatgap determine how the repeat finder breaks the input data. "
                 + "The options --extent, --invert, --lsb, --maxmicroseconds, --maxparameterwidth, --maxroundingerror, --maxunits, --parameterwidths, "
-                + "--radix, and --timebase determine how the computed IRP is displayed.";
+                + "--radix, and --timebase determine how the computed IRP is displayed."
+                + "\n\n"
+                + "Using the option --threads, the decoders are run in parallel on the given number of threads, "
+                + "over the decoders as well as over the input sequences. This does not change the result.";
     }
 
     @Override
@@ -251,6 +261,8 @@ public class CommandAnalyze extends AbstractCommand {
 
             if (IrCoreUtils.numberTrue(input != null, namedInput != null, girrInput != null, args != null) != 1)
                 throw new UsageException("Must use exactly one of --input, --namedinput, --girrinput and non-empty arguments");
+            if (threads != null && threads < 1)
+                throw new UsageException("--threads must be positive.");
 
             if (maxParameterWidth > FiniteBitField.MAXWIDTH) {
                 logger.log(Level.WARNING, "The given value of --maxparameterwidth ({0}) is larger than {1}. This is using unspecified behavior, and the correct execution is not guaranteed.",
@@ -261,14 +273,24 @@ public class CommandAnalyze extends AbstractCommand {
             if (input != null) {
                 if (validate)
                     throw new UsageException("Cannot use --validate with --input.");
-                ThingsLineParser<ModulatedIrSequence> irSignalParser = new ThingsLineParser<>(
-                        (List<String> line) -> {
-                            return (MultiParser.newIrCoreParser(line)).toModulatedIrSequence(frequency, trailingGap);
-                        }, commandLineArgs.commentStart
-                );
-                List<ModulatedIrSequence> modSeqs = xslt == null
-                        ? irSignalParser.readThings(input, commandLineArgs.inputEncoding, false)
-                        : irSignalParser.readThings(input, xslt, commandLineArgs.inputEncoding, false);
+                List<ModulatedIrSequence> modSeqs;
+                if (BinarySignalFile.isBinarySignalFile(input)) {
+                    if (xslt != null)
+                        throw new UsageException("--xslt cannot be used with a binary signal file.");
+                    BinarySignalFile binarySignalFile = BinarySignalFile.open(input);
+                    modSeqs = new ArrayList<>(binarySignalFile.size());
+                    for (IrSignal irSignal : binarySignalFile.getIrSignals(ModulatedIrSequence.DEFAULT_FREQUENCY))
+                        modSeqs.add(frequency != null ? new IrSignal(irSignal, frequency).toModulatedIrSequence() : irSignal.toModulatedIrSequence());
+                } else {
+                    ThingsLineParser<ModulatedIrSequence> irSignalParser = new ThingsLineParser<>(
+                            (List<String> line) -> {
+                                return (MultiParser.newIrCoreParser(line)).toModulatedIrSequence(frequency, trailingGap);
+                            }, commandLineArgs.commentStart
+                    );
+                    modSeqs = xslt == null
+                            ? irSignalParser.readThings(input, commandLineArgs.inputEncoding, false)
+                            : irSignalParser.readThings(input, xslt, commandLineArgs.inputEncoding, false);
+                }
                 analyze(modSeqs, ModulatedIrSequence.frequencyAverage(modSeqs));
             } else if (namedInput != null) {
                 if (validate)
@@ -415,7 +437,7 @@ public class CommandAnalyze extends AbstractCommand {
             }
 
             if (allDecodes) {
-                List<List<Protocol>> protocols = analyzer.searchAllProtocols(params, decoder, commandLineArgs.regexp);
+                List<List<Protocol>> protocols = searchAllProtocols(analyzer, params);
                 int noSignal = 0;
                 for (List<Protocol> protocolList : protocols) {
                     if (protocols.size() > 1)
@@ -436,7 +458,7 @@ public class CommandAnalyze extends AbstractCommand {
                     noSignal++;
                 }
             } else {
-                List<Protocol> protocols = analyzer.searchBestProtocol(params, decoder, commandLineArgs.regexp);
+                List<Protocol> protocols = searchBestProtocol(analyzer, params);
                 if (parameterSpecs || girr || fatgirr)
                     protocols.forEach(protocol -> {
                         protocol.createParameterSpecsIfPossible();
@@ -543,6 +565,30 @@ public class CommandAnalyze extends AbstractCommand {
             }
         }
 
+        private List<List<Protocol>> searchAllProtocols(Analyzer analyzer, Analyzer.AnalyzerParams params) throws NoDecoderMatchException {
+            if (threads == null)
+                return analyzer.searchAllProtocols(params, decoder, commandLineArgs.regexp);
+
+            ForkJoinPool forkJoinPool = new ForkJoinPool(threads);
+            try {
+                return analyzer.searchAllProtocols(params, decoder, commandLineArgs.regexp, forkJoinPool);
+            } finally {
+                forkJoinPool.shutdown();
+            }
+        }
+
+        private List<Protocol> searchBestProtocol(Analyzer analyzer, Analyzer.AnalyzerParams params) throws NoDecoderMatchException {
+            if (threads == null)
+                return analyzer.searchBestProtocol(params, decoder, commandLineArgs.regexp);
+
+            ForkJoinPool forkJoinPool = new ForkJoinPool(threads);
+            try {
+                return analyzer.searchBestProtocol(params, decoder, commandLineArgs.regexp, forkJoinPool);
+            } finally {
+                forkJoinPool.shutdown();
+            }
+        }
+
         private boolean validate(Protocol protocol, IrSignal inputSignal) throws IrpException, IrCoreException {
             IrSignal rendered = protocol.toIrSignal(new NameEngine());
             boolean success = rendered.approximatelyEquals(inputSignal);
@@ -0,0 +1,94 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.cmdline;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.List;
+import javax.xml.transform.TransformerException;
+import org.harctoolbox.ircore.BinarySignalFile;
+import org.harctoolbox.ircore.IrCoreUtils;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.MultiParser;
+import org.harctoolbox.ircore.ThingsLineParser;
+import org.harctoolbox.ircore.ThisCannotHappenException;
+import org.harctoolbox.xml.XmlUtils;
+import org.xml.sax.SAXException;
+
+@Parameters(commandNames = {"convert"}, commandDescription = "Convert a file of signals to a binary signal file.")
+public class CommandConvert extends AbstractCommand {
+
+    @Parameter(names = {"-f", "--frequency"}, converter = FrequencyParser.class, description = "Set modulation frequency of raw signals.")
+    private Double frequency = null;
+
+    @Parameter(names = {"-i", "--input"}, required = true, description = "File/URL from which to take inputs, one per line.")
+    private String input = null;
+
+    @Parameter(names = {"-T", "--trailinggap"}, description = "Trailing gap (in micro seconds) added to sequences of odd length.")
+    private Double trailingGap = null;
+
+    @Parameter(names = {"--xslt"}, description = "File/URL name of XSLT transformation that will be applied to --input argument")
+    private String xslt = null;
+
+    @Override
+    public String description() {
+        return "The \"convert\" command reads the signals in the file given by the --input option, "
+                + "in the same format as the --input option of the \"decode\" command, "
+                + "and writes them as a binary signal file to the output (use --output to give a file name). "
+                + "Binary signal files can be given as --input to the \"decode\" and \"analyze\" commands, "
+                + "which memory maps them, avoiding the parsing of the text. "
+                + "This is intended for large collections of signals, that are processed repeatedly. "
+                + "The signals are written while being read, so the size of the input is not limited by the memory. "
+                + "However, binary signal files larger than 2GB are not supported by \"decode\" and \"analyze\". "
+                + "\n\n"
+                + "Durations are stored as integers (micro seconds), frequency and duty cycle as given. "
+                + "For raw signals, the modulation frequency can be given with the --frequency option; "
+                + "otherwise it is left unspecified. "
+                + "\n\n"
+                + "This command cannot be used within \"serve\".";
+    }
+
+    public void convert(PrintStream out, CommandCommonOptions commandLineArgs) throws IOException, UsageException, SAXException, TransformerException {
+        if (BinarySignalFile.isBinarySignalFile(input))
+            throw new UsageException("Input is already a binary signal file.");
+
+        ThingsLineParser<IrSignal> irSignalParser = new ThingsLineParser<>((List<String> line) -> {
+            return (MultiParser.newIrCoreParser(line)).toIrSignal(frequency, trailingGap);
+        }, commandLineArgs.commentStart);
+        BinarySignalFile.Writer writer = new BinarySignalFile.Writer(out);
+        try (Reader reader = xslt == null
+                ? IrCoreUtils.getInputReader(input, commandLineArgs.inputEncoding)
+                : XmlUtils.mkReaderXml(input, xslt, commandLineArgs.inputEncoding)) {
+            irSignalParser.readThings(reader, false, (IrSignal irSignal) -> {
+                try {
+                    writer.write(irSignal);
+                } catch (IOException ex) {
+                    // out is a PrintStream, which does not throw, but records errors
+                    throw new ThisCannotHappenException(ex);
+                }
+                return !out.checkError();
+            });
+        }
+        writer.flush();
+        if (out.checkError())
+            throw new IOException("Error writing binary signal file");
+    }
+}
@@ -18,26 +18,35 @@ package org.harctoolbox.cmdline;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.PrintStream;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.xml.transform.TransformerException;
 import org.harctoolbox.analyze.Cleaner;
 import org.harctoolbox.analyze.RepeatFinder;
+import org.harctoolbox.ircore.BinarySignalFile;
 import org.harctoolbox.ircore.InvalidArgumentException;
 import org.harctoolbox.ircore.IrCoreUtils;
 import org.harctoolbox.ircore.IrSignal;
 import org.harctoolbox.ircore.ModulatedIrSequence;
 import org.harctoolbox.ircore.MultiParser;
 import org.harctoolbox.ircore.ThingsLineParser;
+import org.harctoolbox.ircore.ThisCannotHappenException;
 import org.harctoolbox.irp.Decoder;
+import org.harctoolbox.irp.DecoderMetrics;
 import org.harctoolbox.irp.ElementaryDecode;
 import org.harctoolbox.irp.IrpDatabase;
 import org.harctoolbox.irp.IrpParseException;
@@ -53,6 +62,11 @@ public class CommandDecode extends AbstractCommand {
 
     private static final Logger logger = Logger.getLogger(CommandDecode.class.getName());
 
+    /**
+     * Number of signals per thread that are read ahead, or wait for their decodes to be printed, with --threads.
+     */
+    private static final int PIPELINE_CAPACITY_PER_THREAD = 4;
+
     @Parameter(names = {"-a", "--all", "--no-prefer-over"}, description = "Output all decodes; ignore prefer-over.")
     private boolean noPreferOver = false;
 
@@ -84,6 +98,9 @@ public class CommandDecode extends AbstractCommand {
     @Parameter(names = {"-k", "--keep-defaulted"}, description = "In output, do not remove parameters that are equal to their defaults.")
     private boolean keepDefaultedParameters = false;
 
+    @Parameter(names = {"--metrics"}, description = "After decoding, print per-protocol statistics of the decoder.")
+    private boolean metrics = false;
+
     @Parameter(names = {"-n", "--namedinput"}, description = "File/URL from which to take inputs, one line name, data one line.")
     private String namedInput = null;
 
@@ -108,6 +125,9 @@ public class CommandDecode extends AbstractCommand {
     @Parameter(names = {"-T", "--trailinggap"}, description = "Trailing gap (in micro seconds) added to sequences of odd length.")
     private Double trailingGap = null;
 
+    @Parameter(names = {"--threads"}, description = "Decode the signals of --input, --namedinput, or --girrinput while reading, using this number of threads.")
+    private Integer threads = null;
+
     @Parameter(names = {"--xslt"}, description = "File/URL name of XSLT transformation that will be applied to --input or --namedinput argument")
     private String xslt = null;
 
@@ -127,15 +147,54 @@ public class CommandDecode extends AbstractCommand {
                 + "\n\n"
                 + "Using the option --input, instead the content of a file can be taken as input, containing sequences to be analyzed, "
                 + "one per line, blank lines ignored. "
+                + "Alternatively, the file can be a binary signal file, at most 2GB, as generated by the \"convert\" command. "
+                + "Also for these, --frequency overrides the frequency of the signals. "
                 + "Using the option --namedinput, the sequences may have names, immediately preceeding the signal. "
                 + "\n\n"
                 + "Input sequences can be pre-processed using the options --clean, and --repeatfinder. "
                 + "\n\n"
-                + "The common options --absolutetolerance --relativetolerance, --minrepeatgap determine how the repeat finder breaks the input data. ";
+                + "Using the option --threads, the signals of --input, --namedinput, or --girrinput are decoded while the file is being read, "
+                + "by the given number of threads, and printed in the order of the input, as soon as they are available. "
+                + "Only a limited number of signals are kept in memory, so this is suited for very large files. "
+                + "In this mode, the names of --namedinput and --girrinput are not aligned, "
+                + "and all signals are decoded and printed, also if their names occur several times; "
+                + "otherwise, only the last signal with a particular name is, at the position of its first occurrence. "
+                + "\n\n"
+                + "The common options --absolutetolerance --relativetolerance, --minrepeatgap determine how the repeat finder breaks the input data. "
+                + "\n\n"
+                + "Using the option --metrics, the number of attempts, matches, rejections, and prefer-over removals, "
+                + "as well as the time used, are printed for every protocol tried, together with some summary statistics. "
+                + "This can be used to select the protocols to use with --protocol.";
+    }
+
+    /**
+     * Returns true if options have been given that affect the whole JVM, not only the current invocation.
+     * @return
+     */
+    public boolean hasGlobalOptions() {
+        return debugPattern != null;
+    }
+
+    /**
+     * Applies the options that affect the whole JVM.
+     */
+    public void setupGlobals() {
+        Decoder.setDebugProtocolRegExp(debugPattern);
     }
 
     public void decode(PrintStream out, CommandCommonOptions commandLineArgs, IrpDatabase irpDatabase) throws UsageException, IrpParseException, IOException, InvalidArgumentException, SAXException, TransformerException {
-        DecodeClass decodeClass = new DecodeClass(out, commandLineArgs, irpDatabase);
+        decode(out, commandLineArgs, irpDatabase, null);
+    }
+
+    /**
+     * @param out
+     * @param commandLineArgs
+     * @param irpDatabase
+     * @param allProtocolsDecoder If non-null, a Decoder for all protocols in irpDatabase, used instead of creating a new one
+     * when no --protocol has been given.
+     */
+    public void decode(PrintStream out, CommandCommonOptions commandLineArgs, IrpDatabase irpDatabase, Decoder allProtocolsDecoder) throws UsageException, IrpParseException, IOException, InvalidArgumentException, SAXException, TransformerException {
+        DecodeClass decodeClass = new DecodeClass(out, commandLineArgs, irpDatabase, allProtocolsDecoder);
         decodeClass.decode();
     }
 
@@ -147,11 +206,12 @@ public class CommandDecode extends AbstractCommand {
         private final Decoder.DecoderParameters decoderParams;
         private Decoder decoder;
 
-        DecodeClass(PrintStream out, CommandCommonOptions commandLineArgs, IrpDatabase irpDatabase) {
+        DecodeClass(PrintStream out, CommandCommonOptions commandLineArgs, IrpDatabase irpDatabase, Decoder allProtocolsDecoder) {
             this.out = out;
             this.commandLineArgs = commandLineArgs;
             this.irpDatabase = irpDatabase;
             this.decoderParams = newDecoderParameters();
+            this.decoder = allProtocolsDecoder;
         }
 
         private void decode() throws UsageException, IrpParseException, IOException, InvalidArgumentException, SAXException, TransformerException {
@@ -161,38 +221,86 @@ public class CommandDecode extends AbstractCommand {
                 throw new UsageException("Must use exactly one of --input, --namedinput, --girrinput and non-empty arguments");
             if (ignoreLeadingGarbage && strict)
                 throw new UsageException("--strict and --ignoreleadinggarbage may not be used together.");
+            if (metrics && girr)
+                throw new UsageException("--metrics and --girroutput may not be used together.");
+            if (threads != null && threads < 1)
+                throw new UsageException("--threads must be positive.");
+            if (threads != null && args != null)
+                throw new UsageException("--threads can only be used with --input, --namedinput, or --girrinput.");
 
-            Decoder.setDebugProtocolRegExp(debugPattern);
             List<String> protocolNamePatterns = protocol == null ? null : Arrays.asList(protocol.split(","));
             List<String> protocolsNames = irpDatabase.evaluateProtocols(protocolNamePatterns, commandLineArgs.sort, commandLineArgs.regexp, commandLineArgs.urlDecode);
             if (protocolsNames.isEmpty())
                 throw new UsageException("No protocol given or matched.");
 
-            decoder = new Decoder(irpDatabase, protocolsNames);
-            if (input != null) {
-                ThingsLineParser<IrSignal> irSignalParser = new ThingsLineParser<>((List<String> line) -> {
-                    return (MultiParser.newIrCoreParser(line)).toIrSignal(frequency, trailingGap);
-                }, commandLineArgs.commentStart);
-                List<IrSignal> signals = xslt == null
-                        ? irSignalParser.readThings(input, commandLineArgs.inputEncoding, false)
-                        : irSignalParser.readThings(input, xslt, commandLineArgs.inputEncoding, false);
-                decode(signals);
+            // A shared decoder may be used by others simultaneously, so do not attach metrics to it.
+            if (decoder == null || protocol != null || metrics)
+                decoder = new Decoder(irpDatabase, protocolsNames);
+            DecoderMetrics decoderMetrics = null;
+            if (metrics) {
+                decoderMetrics = new DecoderMetrics();
+                decoder.setListener(decoderMetrics);
+            }
+            ThingsLineParser<IrSignal> irSignalParser = new ThingsLineParser<>((List<String> line) -> {
+                return (MultiParser.newIrCoreParser(line)).toIrSignal(frequency, trailingGap);
+            }, commandLineArgs.commentStart);
+            if (input != null && BinarySignalFile.isBinarySignalFile(input)) {
+                if (xslt != null)
+                    throw new UsageException("--xslt cannot be used with a binary signal file.");
+                // --frequency, if given, is applied by prepare(), also to signals having a frequency.
+                BinarySignalFile binarySignalFile = BinarySignalFile.open(input);
+                if (threads != null)
+                    // Create the IrSignals one at a time, just before submitting them, instead of all up front.
+                    decodePipelined((OrderedPipeline<NamedSignal, Decoded> pipeline) -> {
+                        for (int i = 0; i < binarySignalFile.size(); i++)
+                            if (!pipeline.submit(new NamedSignal(null, binarySignalFile.getIrSignal(i))))
+                                break;
+                    });
+                else
+                    decode(binarySignalFile.getIrSignals(null));
+            } else if (input != null) {
+                if (threads != null)
+                    decodePipelined((OrderedPipeline<NamedSignal, Decoded> pipeline) -> {
+                        try (Reader reader = xslt == null
+                                ? IrCoreUtils.getInputReader(input, commandLineArgs.inputEncoding)
+                                : XmlUtils.mkReaderXml(input, xslt, commandLineArgs.inputEncoding)) {
+                            irSignalParser.readThings(reader, false, (IrSignal irSignal) -> pipeline.submit(new NamedSignal(null, irSignal)));
+                        }
+                    });
+                else {
+                    List<IrSignal> signals = xslt == null
+                            ? irSignalParser.readThings(input, commandLineArgs.inputEncoding, false)
+                            : irSignalParser.readThings(input, xslt, commandLineArgs.inputEncoding, false);
+                    decode(signals);
+                }
             } else if (namedInput != null) {
-                ThingsLineParser<IrSignal> irSignalParser = new ThingsLineParser<>((List<String> line) -> {
-                    return (MultiParser.newIrCoreParser(line)).toIrSignal(frequency, trailingGap);
-                }, commandLineArgs.commentStart);
-                Map<String, IrSignal> signals = xslt == null
-                        ? irSignalParser.readNamedThings(namedInput, commandLineArgs.inputEncoding)
-                        : irSignalParser.readNamedThings(namedInput, xslt, commandLineArgs.inputEncoding);
-                decode(signals);
+                if (threads != null)
+                    decodePipelined((OrderedPipeline<NamedSignal, Decoded> pipeline) -> {
+                        try (Reader reader = xslt == null
+                                ? IrCoreUtils.getInputReader(namedInput, commandLineArgs.inputEncoding)
+                                : XmlUtils.mkReaderXml(namedInput, xslt, commandLineArgs.inputEncoding)) {
+                            irSignalParser.readNamedThings(reader, (String name, IrSignal irSignal) -> pipeline.submit(new NamedSignal(name, irSignal)));
+                        }
+                    });
+                else {
+                    Map<String, IrSignal> signals = xslt == null
+                            ? irSignalParser.readNamedThings(namedInput, commandLineArgs.inputEncoding)
+                            : irSignalParser.readNamedThings(namedInput, xslt, commandLineArgs.inputEncoding);
+                    decode(signals);
+                }
             } else if (girrInput != null) {
-                ThingsLineParser<IrSignal> irSignalParser = new ThingsLineParser<>((List<String> line) -> {
-                    return (MultiParser.newIrCoreParser(line)).toIrSignal(frequency, trailingGap);
-                }, commandLineArgs.commentStart);
                 InputStream xsltStream = CommandAnalyze.class.getResourceAsStream(CommandAnalyze.RAWGIRR2NAMEINPUT);
                 Document xsltDoc = XmlUtils.openXmlStream(xsltStream, null, true, true);
-                Map<String, IrSignal> signals = irSignalParser.readNamedThings(girrInput, xsltDoc, commandLineArgs.inputEncoding);
-                decode(signals);
+                if (threads != null)
+                    decodePipelined((OrderedPipeline<NamedSignal, Decoded> pipeline) -> {
+                        try (Reader reader = XmlUtils.mkReaderXml(girrInput, xsltDoc, commandLineArgs.inputEncoding)) {
+                            irSignalParser.readNamedThings(reader, (String name, IrSignal irSignal) -> pipeline.submit(new NamedSignal(name, irSignal)));
+                        }
+                    });
+                else {
+                    Map<String, IrSignal> signals = irSignalParser.readNamedThings(girrInput, xsltDoc, commandLineArgs.inputEncoding);
+                    decode(signals);
+                }
             } else {
                 MultiParser prontoRawParser = MultiParser.newIrCoreParser(args);
                 IrSignal irSignal = prontoRawParser.toIrSignal(frequency, trailingGap);
@@ -200,39 +308,56 @@ public class CommandDecode extends AbstractCommand {
                     throw new UsageException("Could not parse as IrSignal: " + String.join(" ", args));
                 decode(irSignal, null, 0);
             }
+            if (decoderMetrics != null)
+                decoderMetrics.print(out);
         }
 
         private void decode(List<IrSignal> signals) throws InvalidArgumentException, UnsupportedEncodingException {
+            if (repeatFinder && !girr) {
+                // Keep the repeat finder dump of each signal next to its decode.
+                for (IrSignal irSignal : signals)
+                    decode(irSignal, null, 0);
+                return;
+            }
+
+            List<Decoder.AbstractDecodesCollection<? extends ElementaryDecode>> decodesList = mkDecodes(signals);
             if (girr) {
                 ProtocolListDomFactory factory = new ProtocolListDomFactory(radix);
-                for (IrSignal irSignal : signals) {
-                    Decoder.AbstractDecodesCollection<? extends ElementaryDecode> decodes = mkDecodes(irSignal);
+                decodesList.forEach((decodes) -> {
                     factory.add(decodes);
-                }
+                });
                 printAsGirr(factory);
             } else {
-                for (IrSignal irSignal : signals)
-                    decode(irSignal, null, 0);
+                decodesList.forEach((decodes) -> {
+                    printDecodes(decodes, null, 0);
+                });
             }
         }
 
         private void decode(Map<String, IrSignal> signals) throws InvalidArgumentException, UnsupportedEncodingException {
+            if (repeatFinder && !girr) {
+                int maxNameLength = IrCoreUtils.maxLength(signals.keySet());
+                for (Map.Entry<String, IrSignal> kvp : signals.entrySet())
+                    decode(kvp.getValue(), kvp.getKey(), maxNameLength);
+                return;
+            }
+
+            List<String> names = new ArrayList<>(signals.keySet());
+            List<Decoder.AbstractDecodesCollection<? extends ElementaryDecode>> decodesList = mkDecodes(signals.values());
             if (girr) {
                 ProtocolListDomFactory factory = new ProtocolListDomFactory(radix);
-                for (Map.Entry<String, IrSignal> kvp : signals.entrySet()) {
-                    Decoder.AbstractDecodesCollection<? extends ElementaryDecode> decodes = mkDecodes(kvp.getValue());
-                    factory.add(decodes, kvp.getKey());
-                }
+                for (int i = 0; i < names.size(); i++)
+                    factory.add(decodesList.get(i), names.get(i));
                 printAsGirr(factory);
             } else {
                 int maxNameLength = IrCoreUtils.maxLength(signals.keySet());
-                for (Map.Entry<String, IrSignal> kvp : signals.entrySet())
-                    decode(kvp.getValue(), kvp.getKey(), maxNameLength);
+                for (int i = 0; i < names.size(); i++)
+                    printDecodes(decodesList.get(i), names.get(i), maxNameLength);
             }
         }
 
         private void decode(IrSignal irSig, String name, int maxNameLength) throws InvalidArgumentException, UnsupportedEncodingException {
-            Decoder.AbstractDecodesCollection<? extends ElementaryDecode> decodes = mkDecodes(irSig);
+            Decoder.AbstractDecodesCollection<? extends ElementaryDecode> decodes = mkDecodes(irSig, out);
             if (girr) {
                 ProtocolListDomFactory factory = new ProtocolListDomFactory(radix);
                 factory.add(decodes);
@@ -242,15 +367,96 @@ public class CommandDecode extends AbstractCommand {
             }
         }
 
-        private Decoder.AbstractDecodesCollection<? extends ElementaryDecode> mkDecodes(IrSignal irSig) throws InvalidArgumentException {
+        /**
+         * Decodes the signals submitted by the reader in an OrderedPipeline,
+         * printing the decodes in the order of the signals.
+         */
+        private void decodePipelined(SignalReader signalReader) throws IOException, SAXException, TransformerException, InvalidArgumentException {
+            ProtocolListDomFactory factory = girr ? new ProtocolListDomFactory(radix) : null;
+            OrderedPipeline<NamedSignal, Decoded> pipeline = new OrderedPipeline<>(threads, PIPELINE_CAPACITY_PER_THREAD * threads,
+                    this::mkDecoded, (Decoded decoded) -> {
+                        if (factory == null) {
+                            out.print(decoded.dump);
+                            printDecodes(decoded.decodes, decoded.name, decoded.name != null ? decoded.name.length() : 0);
+                        } else if (decoded.name != null)
+                            factory.add(decoded.decodes, decoded.name);
+                        else
+                            factory.add(decoded.decodes);
+                    });
+            try {
+                signalReader.read(pipeline);
+            } finally {
+                finish(pipeline);
+            }
+            if (factory != null)
+                printAsGirr(factory);
+        }
+
+        private void finish(OrderedPipeline<NamedSignal, Decoded> pipeline) throws IOException, InvalidArgumentException {
+            try {
+                pipeline.finish();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof InvalidArgumentException)
+                    throw (InvalidArgumentException) cause;
+                if (cause instanceof IOException)
+                    throw (IOException) cause;
+                if (cause instanceof RuntimeException)
+                    throw (RuntimeException) cause;
+                if (cause instanceof Error)
+                    throw (Error) cause;
+                if (cause instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+                throw new ThisCannotHappenException(cause);
+            }
+        }
+
+        private Decoded mkDecoded(NamedSignal namedSignal) throws InvalidArgumentException, UnsupportedEncodingException {
+            ByteArrayOutputStream dump = new ByteArrayOutputStream();
+            Decoder.AbstractDecodesCollection<? extends ElementaryDecode> decodes;
+            try (PrintStream dumpStream = new PrintStream(dump, false, commandLineArgs.outputEncoding)) {
+                decodes = mkDecodes(namedSignal.irSignal, dumpStream);
+            }
+            return new Decoded(namedSignal.name, decodes, dump.toString(commandLineArgs.outputEncoding));
+        }
+
+        /**
+         * Decodes several signals. Without repeat finder, they are decoded as a batch,
+         * sharing the preparations of the decoder. With repeat finder, the dumps are printed before returning.
+         */
+        private List<Decoder.AbstractDecodesCollection<? extends ElementaryDecode>> mkDecodes(Collection<IrSignal> irSignals) throws InvalidArgumentException {
+            List<Decoder.AbstractDecodesCollection<? extends ElementaryDecode>> result = new ArrayList<>(irSignals.size());
+            if (repeatFinder) {
+                for (IrSignal irSignal : irSignals)
+                    result.add(mkDecodes(irSignal, out));
+                return result;
+            }
+
+            List<IrSignal> prepared = new ArrayList<>(irSignals.size());
+            for (IrSignal irSignal : irSignals)
+                prepared.add(prepare(irSignal));
+            return decoder.decodeLooseBatch(prepared, decoderParams);
+        }
+
+        private IrSignal prepare(IrSignal irSig) throws InvalidArgumentException {
             Objects.requireNonNull(irSig, "irSignal must be non-null");
             IrSignal irSignal = frequency != null ? new IrSignal(irSig, frequency) : irSig;
-            Decoder.AbstractDecodesCollection<? extends ElementaryDecode> decodes;
 
             if (cleaner) {
                 irSignal = Cleaner.clean(irSignal, commandLineArgs.absoluteTolerance, commandLineArgs.relativeTolerance);
                 logger.log(Level.INFO, "Cleansed signal: {0}", irSignal.toString(true));
             }
+            return irSignal;
+        }
+
+        private Decoder.AbstractDecodesCollection<? extends ElementaryDecode> mkDecodes(IrSignal irSig, PrintStream dumpStream) throws InvalidArgumentException {
+            IrSignal irSignal = prepare(irSig);
+            Decoder.AbstractDecodesCollection<? extends ElementaryDecode> decodes;
 
             if (repeatFinder) {
                 ModulatedIrSequence sequence = irSignal.toModulatedIrSequence();
@@ -258,8 +464,8 @@ public class CommandDecode extends AbstractCommand {
 
                 IrSignal fixedIrSignal = repeatFinder.toIrSignalClean(sequence);
                 if (dumpRepeatfinder) {
-                    out.println("RepeatReduced: " + fixedIrSignal);
-                    out.println("RepeatData: " + repeatFinder.getRepeatFinderData());
+                    dumpStream.println("RepeatReduced: " + fixedIrSignal);
+                    dumpStream.println("RepeatData: " + repeatFinder.getRepeatFinderData());
                 }
                 decodes = decoder.decodeIrSignal(fixedIrSignal, decoderParams);
             } else
@@ -285,4 +491,35 @@ public class CommandDecode extends AbstractCommand {
             XmlUtils.printDOM(out, doc, commandLineArgs.outputEncoding, "");
         }
     }
+
+    private interface SignalReader {
+        /**
+         * Reads signals, submitting them to the pipeline, until end of input, or the pipeline fails.
+         */
+        void read(OrderedPipeline<NamedSignal, Decoded> pipeline) throws IOException, SAXException, TransformerException;
+    }
+
+    private static class NamedSignal {
+
+        private final String name;
+        private final IrSignal irSignal;
+
+        NamedSignal(String name, IrSignal irSignal) {
+            this.name = name;
+            this.irSignal = irSignal;
+        }
+    }
+
+    private static class Decoded {
+
+        private final String name;
+        private final Decoder.AbstractDecodesCollection<? extends ElementaryDecode> decodes;
+        private final String dump;
+
+        Decoded(String name, Decoder.AbstractDecodesCollection<? extends ElementaryDecode> decodes, String dump) {
+            this.name = name;
+            this.decodes = decodes;
+            this.dump = dump;
+        }
+    }
 }
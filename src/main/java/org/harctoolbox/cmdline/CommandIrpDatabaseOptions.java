@@ -21,6 +21,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import org.harctoolbox.irp.IrpDatabase;
+import org.harctoolbox.irp.IrpDatabaseSnapshot;
 import org.harctoolbox.irp.IrpParseException;
 import org.harctoolbox.irp.UnknownProtocolException;
 import org.xml.sax.SAXException;
@@ -38,16 +39,44 @@ public class CommandIrpDatabaseOptions extends CommandBasicOptions {
     @Parameter(names = {"-i", "--irp"}, description = "Explicit IRP string to use as protocol definition.")
     public String irp = null;
 
+    @Parameter(names = {"--snapshot"}, description = "Pathname of a binary snapshot of the IRP database, containing the parsed protocols, for faster startup. "
+            + "Created, or recreated, if missing or out of date.")
+    public File snapshot = null;
+
     @Parameter(names = {"--validate"}, description = "Validate IRP database files against the schema, abort if not valid.")
     public boolean validate = false;
 
-   public IrpDatabase setupDatabase() throws UsageException, IrpParseException, IOException, UnknownProtocolException, SAXException {
-        if (configFiles != null && irp != null)
-            throw new UsageException("At most one of --configfile and --irp can be specified");
+    /**
+     * Returns true if any of the options selecting or modifying the data base has been given.
+     * @return
+     */
+    public boolean hasDatabaseOptions() {
+        return blackList != null || configFiles != null || irp != null || snapshot != null || validate;
+    }
 
+    public IrpDatabase setupDatabase() throws UsageException, IrpParseException, IOException, UnknownProtocolException, SAXException {
         IrpDatabase.setValidating(validate);
+        return setupDatabaseLocally();
+    }
+
+    /**
+     * Like {@link #setupDatabase()}, but leaves the validation setting of IrpDatabase, which is global to the JVM, alone.
+     * To be used when several requests are executed concurrently, where --validate is not allowed.
+     * @return
+     * @throws UsageException
+     * @throws IrpParseException
+     * @throws IOException
+     * @throws UnknownProtocolException
+     * @throws SAXException
+     */
+    public IrpDatabase setupDatabaseLocally() throws UsageException, IrpParseException, IOException, UnknownProtocolException, SAXException {
+        if (configFiles != null && irp != null)
+            throw new UsageException("At most one of --configfile and --irp can be specified");
+        if (snapshot != null && irp != null)
+            throw new UsageException("At most one of --snapshot and --irp can be specified");
 
         IrpDatabase irpDatabase = irp != null ? IrpDatabase.parseIrp("user_protocol", irp, "Protocol entered on the command line")
+                : snapshot != null && !validate ? IrpDatabaseSnapshot.loadOrCreate(configFiles, snapshot)
                 : configFiles != null ? new IrpDatabase(configFiles)
                 : new IrpDatabase((String) null);
         irpDatabase.remove(blackList);
@@ -0,0 +1,286 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+ */
+
+package org.harctoolbox.cmdline;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.harctoolbox.ircore.IrCoreUtils;
+import org.harctoolbox.ircore.ThisCannotHappenException;
+import org.harctoolbox.irp.Decoder;
+import org.harctoolbox.irp.IrpDatabase;
+import org.harctoolbox.irp.IrpParseException;
+
+@SuppressWarnings("FieldMayBeFinal")
+
+@Parameters(commandNames = {"serve"}, commandDescription = "Keep the data base resident, and execute commands read from stdin or a local socket")
+public class CommandServe extends AbstractCommand {
+
+    private static final Logger logger = Logger.getLogger(CommandServe.class.getName());
+
+    public static final String QUIT = "quit";
+
+    private static final Future<String> END_OF_SESSION = CompletableFuture.completedFuture(null);
+
+    /**
+     * Maximal number of requests per thread and session, executing or waiting to be written,
+     * before the reading of requests is suspended.
+     */
+    private static final int SESSION_CAPACITY_PER_THREAD = 4;
+
+    @Parameter(names = {"--adaptive"}, description = "Decode signals adaptively, trying the most frequently matching protocols first.")
+    private boolean adaptive = false;
+
+    @Parameter(names = {"--connections"}, description = "Maximal number of simultaneous connections, with --port.")
+    private int connections = 16;
+
+    @Parameter(names = {"-p", "--port"}, description = "Listen on this TCP port of the loopback interface, instead of reading stdin. 0 for any free port.")
+    private Integer port = null;
+
+    @Parameter(names = {"--threads"}, description = "Number of requests executed concurrently. Default: the number of processors.")
+    private Integer threads = null;
+
+    @Override
+    public String description() {
+        return "The \"serve\" command reads the IRP data base once, parses all its protocols, and then reads requests, "
+                + "one per line, either from the standard input, or, using the --port option, from TCP connections to the loopback interface. "
+                + "A request consists of arguments to the program, exactly as on the command line, for example "
+                + "\"decode 0000 006C 0022 0002 ...\" or \"render -p -n D=12,F=34 nec1\". "
+                + "The requests are executed concurrently, but the responses are delivered in the order of the requests; "
+                + "if the requests arrive faster than they are executed, the reading of further requests waits. "
+                + "Every response consists of the output of the command, with lines starting with \".\" prefixed by another \".\", "
+                + "followed by a line consisting of \".\", the exit status, and, if present, the error message. "
+                + "\n\n"
+                + "Requests using the options for selecting or modifying the data base (like --configfiles or --irp) set up a data base of their own; "
+                + "all other requests use the resident data base. "
+                + "The logging options are ignored in requests. "
+                + "The commands \"serve\" and \"convert\", and the options affecting the entire program, like --seed and --validate, are rejected. "
+                + "The line \"" + QUIT + "\" ends the session, as does end of file. "
+                + "Using --port, at most --connections connections are served at the same time; further connections wait until one of them ends. "
+                + "\n\n"
+                + "With --adaptive, the resident decoder tries the protocols in the order of their recent matches, and stops "
+                + "as soon as the preferred decode is determined, i.e., cannot be changed by the remaining protocols. "
+                + "This is considerably faster if the traffic is dominated by a few protocols, "
+                + "but alternative decodes (not subject to prefer-over) may be missed.";
+    }
+
+    public void serve(PrintStream out, CommandCommonOptions commandLineArgs, IrpDatabase irpDatabase, ProgramFactory programFactory) throws UsageException, IOException, IrpParseException {
+        int numberThreads = threads != null ? threads : Runtime.getRuntime().availableProcessors();
+        if (numberThreads < 1)
+            throw new UsageException("--threads must be positive.");
+        if (connections < 1)
+            throw new UsageException("--connections must be positive.");
+
+        irpDatabase.precompile();
+        Decoder decoder = new Decoder(irpDatabase);
+        decoder.setAdaptive(adaptive);
+        ExecutorService executor = Executors.newFixedThreadPool(numberThreads);
+        try {
+            Server server = new Server(executor, SESSION_CAPACITY_PER_THREAD * numberThreads, connections, programFactory, irpDatabase, decoder, commandLineArgs);
+            if (port != null)
+                server.listen(port, out);
+            else
+                server.session(new BufferedReader(new InputStreamReader(System.in, commandLineArgs.inputEncoding)), out);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Creates the program instances executing the requests.
+     */
+    public interface ProgramFactory {
+
+        /**
+         * Returns a new instance, writing to the argument PrintStream,
+         * and using the resident data base and decoder.
+         * @param out
+         * @param irpDatabase
+         * @param decoder Decoder for all protocols in irpDatabase.
+         * @return
+         */
+        CmdLineProgram newProgram(PrintStream out, IrpDatabase irpDatabase, Decoder decoder);
+    }
+
+    private static class Server {
+
+        private final ExecutorService executor;
+        private final int sessionCapacity;
+        private final Semaphore connections;
+        private final ProgramFactory programFactory;
+        private final IrpDatabase irpDatabase;
+        private final Decoder decoder;
+        private final CommandCommonOptions commandLineArgs;
+
+        Server(ExecutorService executor, int sessionCapacity, int connections, ProgramFactory programFactory, IrpDatabase irpDatabase, Decoder decoder, CommandCommonOptions commandLineArgs) {
+            this.executor = executor;
+            this.sessionCapacity = sessionCapacity;
+            this.connections = new Semaphore(connections);
+            this.programFactory = programFactory;
+            this.irpDatabase = irpDatabase;
+            this.decoder = decoder;
+            this.commandLineArgs = commandLineArgs;
+        }
+
+        @SuppressWarnings("InfiniteLoopStatement")
+        private void listen(int port, PrintStream out) throws IOException {
+            try (ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+                out.println("Listening on port " + serverSocket.getLocalPort());
+                out.flush();
+                while (true) {
+                    // Do not accept more connections than allowed; the further ones wait in the backlog of the socket.
+                    connections.acquireUninterruptibly();
+                    Socket socket;
+                    try {
+                        socket = serverSocket.accept();
+                    } catch (IOException ex) {
+                        connections.release();
+                        throw ex;
+                    }
+                    Thread thread = new Thread(() -> {
+                        try {
+                            connection(socket);
+                        } finally {
+                            connections.release();
+                        }
+                    }, "serve-" + socket.getPort());
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+            }
+        }
+
+        private void connection(Socket socket) {
+            logger.log(Level.FINE, "Connection from {0}", socket.getRemoteSocketAddress());
+            try (Socket s = socket;
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(s.getInputStream(), commandLineArgs.inputEncoding));
+                    PrintStream printStream = new PrintStream(s.getOutputStream(), false, commandLineArgs.outputEncoding)) {
+                session(reader, printStream);
+            } catch (IOException ex) {
+                logger.log(Level.WARNING, "Connection from {0}: {1}", new Object[]{socket.getRemoteSocketAddress(), ex.getMessage()});
+            }
+        }
+
+        /**
+         * Reads requests from the reader until end of file or {@link #QUIT}, executes them on the executor,
+         * and writes the responses to out, in the order of the requests.
+         * If sessionCapacity requests are executing or waiting to be written, the reading waits,
+         * so a fast client cannot exhaust the memory.
+         */
+        private void session(BufferedReader reader, PrintStream out) throws IOException {
+            BlockingQueue<Future<String>> responses = new ArrayBlockingQueue<>(sessionCapacity);
+            Thread writer = new Thread(() -> {
+                write(responses, out);
+            }, Thread.currentThread().getName() + "-writer");
+            writer.start();
+            try {
+                while (true) {
+                    String line = reader.readLine();
+                    if (line == null)
+                        break;
+                    String request = line.trim();
+                    if (request.isEmpty())
+                        continue;
+                    if (request.equals(QUIT))
+                        break;
+                    responses.put(executor.submit(() -> execute(request)));
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                try {
+                    responses.put(END_OF_SESSION);
+                    writer.join();
+                } catch (InterruptedException ex) {
+                    writer.interrupt();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private void write(BlockingQueue<Future<String>> responses, PrintStream out) {
+            try {
+                while (true) {
+                    Future<String> response = responses.take();
+                    if (response == END_OF_SESSION)
+                        break;
+                    try {
+                        out.print(response.get());
+                    } catch (ExecutionException ex) {
+                        out.print(format("", ProgramExitStatus.EXIT_INTERNAL_FAILURE, ex.getCause().toString()));
+                    }
+                    out.flush();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private String execute(String request) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ProgramExitStatus status;
+            try (PrintStream printStream = new PrintStream(bytes, false, IrCoreUtils.UTF8_NAME)) {
+                CmdLineProgram program = programFactory.newProgram(printStream, irpDatabase, decoder);
+                status = program.run(CmdUtils.shellSplit(request), false);
+            } catch (UnsupportedEncodingException ex) {
+                throw new ThisCannotHappenException(ex);
+            } catch (RuntimeException ex) {
+                logger.log(Level.WARNING, "Request \"" + request + "\" failed", ex);
+                status = new ProgramExitStatus(null, ProgramExitStatus.EXIT_INTERNAL_FAILURE, ex.toString());
+            }
+            return format(new String(bytes.toByteArray(), IrCoreUtils.UTF8), status.getExitStatus(), status.getMessage());
+        }
+
+        private static String format(String output, int exitStatus, String message) {
+            StringBuilder sb = new StringBuilder(output.length() + 100);
+            if (!output.isEmpty()) {
+                for (String line : output.split("\\R", -1)) {
+                    if (line.startsWith("."))
+                        sb.append('.');
+                    sb.append(line).append(System.lineSeparator());
+                }
+                // the output (normally) ends with a line separator, giving an empty last line, remove
+                if (output.endsWith("\n") || output.endsWith("\r"))
+                    sb.setLength(sb.length() - System.lineSeparator().length());
+            }
+            sb.append('.').append(exitStatus);
+            if (message != null && !message.isEmpty())
+                sb.append(' ').append(message.replaceAll("\\s*\\R\\s*", " "));
+            sb.append(System.lineSeparator());
+            return sb.toString();
+        }
+    }
+}
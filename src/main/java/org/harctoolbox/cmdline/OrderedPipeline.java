@@ -0,0 +1,130 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.cmdline;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Processes a stream of items on a number of worker threads, delivering the results to a writer
+ * in the order of the items. The items are submitted by the reading thread, which is blocked
+ * as long as the number of items not yet written exceeds the capacity, so a fast reader cannot exhaust the memory.
+ * The writer is called from a thread of its own.
+ *
+ * <p>After the first failure, of a worker or the writer, the remaining items are discarded,
+ * and {@link #finish()} throws the failure.</p>
+ * @param <T> type of the items
+ * @param <R> type of the results
+ */
+final class OrderedPipeline<T, R> {
+
+    private final ExecutorService executor;
+    private final BlockingQueue<Future<R>> results;
+    private final Future<R> endOfInput = CompletableFuture.completedFuture(null);
+    private final Worker<T, R> worker;
+    private final Consumer<R> writer;
+    private final Thread writerThread;
+    private volatile Throwable failure;
+
+    /**
+     * @param threads number of worker threads, positive.
+     * @param capacity maximal number of items processed or waiting to be written, positive.
+     * @param worker
+     * @param writer
+     */
+    OrderedPipeline(int threads, int capacity, Worker<T, R> worker, Consumer<R> writer) {
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.results = new ArrayBlockingQueue<>(capacity);
+        this.worker = worker;
+        this.writer = writer;
+        this.failure = null;
+        this.writerThread = new Thread(this::write, Thread.currentThread().getName() + "-writer");
+        writerThread.start();
+    }
+
+    /**
+     * Submits an item for processing, waiting if the capacity is exhausted.
+     * @param item
+     * @return false if the pipeline has failed, and no further items should be submitted.
+     */
+    boolean submit(T item) {
+        if (failure != null)
+            return false;
+        try {
+            results.put(executor.submit(() -> worker.process(item)));
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failure = ex;
+            return false;
+        }
+    }
+
+    /**
+     * Waits until all submitted items have been written, and stops the threads.
+     * @throws ExecutionException if a worker or the writer has failed; its cause is the original exception.
+     * @throws InterruptedException
+     */
+    void finish() throws ExecutionException, InterruptedException {
+        try {
+            results.put(endOfInput);
+            writerThread.join();
+        } catch (InterruptedException ex) {
+            writerThread.interrupt();
+            throw ex;
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure != null)
+            throw new ExecutionException(failure);
+    }
+
+    private void write() {
+        try {
+            while (true) {
+                Future<R> result = results.take();
+                if (result == endOfInput)
+                    break;
+                if (failure != null) {
+                    // keep taking, so that the reader is not blocked
+                    result.cancel(true);
+                    continue;
+                }
+                try {
+                    writer.accept(result.get());
+                } catch (ExecutionException ex) {
+                    failure = ex.getCause();
+                } catch (RuntimeException ex) {
+                    failure = ex;
+                }
+            }
+        } catch (InterruptedException ex) {
+            failure = ex;
+        }
+    }
+
+    interface Worker<T, R> {
+        R process(T item) throws Exception;
+    }
+}
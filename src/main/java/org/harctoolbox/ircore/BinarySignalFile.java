@@ -0,0 +1,289 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.ircore;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary container for large numbers of IrSignals, like corpora of captured signals.
+ * Reading is done by memory mapping the file; the durations of the signals are accessible as IntBuffers,
+ * being views into the file, without copying. IrSignals and IrSequences are created on demand.
+ *
+ * <p>The format is as follows (all numbers big endian):</p>
+ * <pre>
+ * file   := header record*
+ * header := magic ("IRSB", 4 bytes) version (int32, = 1)
+ * record := frequency (float64, NaN if unknown) dutyCycle (float64, NaN if unknown)
+ *           introLength repeatLength endingLength (int32, number of durations, even)
+ *           durations (int32 each, micro seconds)
+ * </pre>
+ * Durations are stored as integers, so they are rounded as by {@link IrSequence#toInts()}.
+ *
+ * <p>Files larger than 2GB are not supported. Instances are immutable, and may be used by several threads simultaneously.</p>
+ */
+public final class BinarySignalFile {
+
+    public static final int VERSION = 1;
+    public static final String DEFAULT_EXTENSION = "irsb";
+
+    private static final byte[] MAGIC = "IRSB".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_SIZE = MAGIC.length + Integer.BYTES;
+    private static final int RECORD_HEADER_SIZE = 2 * Double.BYTES + 3 * Integer.BYTES;
+    private static final IrSignal.Pass[] PASSES = {IrSignal.Pass.intro, IrSignal.Pass.repeat, IrSignal.Pass.ending};
+
+    /**
+     * Checks if the argument is the name of a (local) file in binary signal file format, by checking its first bytes.
+     * @param filename
+     * @return
+     */
+    public static boolean isBinarySignalFile(String filename) {
+        File file = new File(filename);
+        if (!file.isFile())
+            return false;
+
+        byte[] start = new byte[MAGIC.length];
+        try (InputStream inputStream = new FileInputStream(file)) {
+            return inputStream.read(start) == start.length && Arrays.equals(start, MAGIC);
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens the file given as argument, by memory mapping it.
+     * @param file
+     * @return
+     * @throws IOException if the file cannot be read, or is not a valid binary signal file.
+     */
+    public static BinarySignalFile open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Binary signal files larger than 2GB are not supported");
+            // The mapping stays valid after the channel has been closed.
+            return new BinarySignalFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static BinarySignalFile open(String filename) throws IOException {
+        return open(new File(filename));
+    }
+
+    /**
+     * Reads the binary signal file format from the buffer given as argument, without copying.
+     * The content is taken from the position of the buffer up to its limit; the position of the buffer is not changed.
+     * @param byteBuffer
+     * @return
+     * @throws IOException if the content is not a valid binary signal file.
+     */
+    public static BinarySignalFile wrap(ByteBuffer byteBuffer) throws IOException {
+        return new BinarySignalFile(byteBuffer.slice().asReadOnlyBuffer());
+    }
+
+    /**
+     * Writes the IrSignals given as argument in binary signal file format.
+     * @param irSignals
+     * @param outputStream
+     * @throws IOException
+     */
+    public static void write(Iterable<IrSignal> irSignals, OutputStream outputStream) throws IOException {
+        Writer writer = new Writer(outputStream);
+        for (IrSignal irSignal : irSignals)
+            writer.write(irSignal);
+        writer.flush();
+    }
+
+    private static Double toDouble(double x) {
+        return Double.isNaN(x) ? null : x;
+    }
+
+    private final ByteBuffer buffer;
+    private final int[] positions;
+
+    private BinarySignalFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        byte[] magic = new byte[MAGIC.length];
+        if (buffer.limit() < HEADER_SIZE)
+            throw new IOException("Not a binary signal file");
+        for (int i = 0; i < magic.length; i++)
+            magic[i] = buffer.get(i);
+        if (!Arrays.equals(magic, MAGIC))
+            throw new IOException("Not a binary signal file");
+        int version = buffer.getInt(MAGIC.length);
+        if (version != VERSION)
+            throw new IOException("Unsupported binary signal file version " + version);
+
+        // Index the records; this reads only their headers.
+        int[] array = new int[1024];
+        int size = 0;
+        long position = HEADER_SIZE;
+        while (position < buffer.limit()) {
+            if (position + RECORD_HEADER_SIZE > buffer.limit())
+                throw new IOException("Truncated binary signal file");
+            long durations = 0;
+            for (int pass = 0; pass < PASSES.length; pass++) {
+                int length = buffer.getInt((int) position + 2 * Double.BYTES + pass * Integer.BYTES);
+                if (length < 0 || length % 2 != 0)
+                    throw new IOException("Invalid sequence length " + length + " in binary signal file");
+                durations += length;
+            }
+            if (size == array.length)
+                array = Arrays.copyOf(array, 2 * size);
+            array[size++] = (int) position;
+            position += RECORD_HEADER_SIZE + Integer.BYTES * durations;
+        }
+        if (position != buffer.limit())
+            throw new IOException("Truncated binary signal file");
+        positions = Arrays.copyOf(array, size);
+    }
+
+    /**
+     * Number of signals in the file.
+     * @return
+     */
+    public int size() {
+        return positions.length;
+    }
+
+    public Double getFrequency(int index) {
+        return toDouble(buffer.getDouble(positions[index]));
+    }
+
+    public Double getDutyCycle(int index) {
+        return toDouble(buffer.getDouble(positions[index] + Double.BYTES));
+    }
+
+    public int getLength(int index, IrSignal.Pass pass) {
+        return buffer.getInt(positions[index] + 2 * Double.BYTES + pass.ordinal() * Integer.BYTES);
+    }
+
+    /**
+     * Returns the durations of a sequence of a signal, as a view into the file, without copying.
+     * @param index number of the signal
+     * @param pass intro, repeat, or ending
+     * @return read-only IntBuffer of durations in micro seconds.
+     */
+    public IntBuffer getDurations(int index, IrSignal.Pass pass) {
+        int start = positions[index] + RECORD_HEADER_SIZE;
+        for (int p = 0; p < pass.ordinal(); p++)
+            start += Integer.BYTES * getLength(index, PASSES[p]);
+        ByteBuffer view = buffer.duplicate();
+        view.position(start);
+        view.limit(start + Integer.BYTES * getLength(index, pass));
+        return view.slice().asIntBuffer();
+    }
+
+    public IrSequence getIrSequence(int index, IrSignal.Pass pass) {
+        IntBuffer durations = getDurations(index, pass);
+        int[] data = new int[durations.remaining()];
+        durations.get(data);
+        try {
+            return new IrSequence(data);
+        } catch (OddSequenceLengthException ex) {
+            // checked when opening
+            throw new ThisCannotHappenException(ex);
+        }
+    }
+
+    public IrSignal getIrSignal(int index) {
+        return getIrSignal(index, null);
+    }
+
+    /**
+     * Returns the signal with the index given as argument.
+     * @param index
+     * @param fallbackFrequency frequency to use if the signal has none; may be null.
+     * @return
+     */
+    public IrSignal getIrSignal(int index, Double fallbackFrequency) {
+        Double frequency = getFrequency(index);
+        return new IrSignal(getIrSequence(index, IrSignal.Pass.intro), getIrSequence(index, IrSignal.Pass.repeat),
+                getIrSequence(index, IrSignal.Pass.ending), frequency != null ? frequency : fallbackFrequency, getDutyCycle(index));
+    }
+
+    /**
+     * Returns the signals of the file as a List; the IrSignals are created when accessed.
+     * @param fallbackFrequency frequency to use for signals without one; may be null.
+     * @return
+     */
+    public List<IrSignal> getIrSignals(Double fallbackFrequency) {
+        return new AbstractList<IrSignal>() {
+            @Override
+            public IrSignal get(int index) {
+                return getIrSignal(index, fallbackFrequency);
+            }
+
+            @Override
+            public int size() {
+                return BinarySignalFile.this.size();
+            }
+        };
+    }
+
+    /**
+     * Writes IrSignals in the binary signal file format.
+     */
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream outputStream;
+
+        /**
+         * Writes the header of the file.
+         * @param outputStream
+         * @throws IOException
+         */
+        public Writer(OutputStream outputStream) throws IOException {
+            this.outputStream = new DataOutputStream(new BufferedOutputStream(outputStream));
+            this.outputStream.write(MAGIC);
+            this.outputStream.writeInt(VERSION);
+        }
+
+        public void write(IrSignal irSignal) throws IOException {
+            outputStream.writeDouble(irSignal.getFrequency() != null ? irSignal.getFrequency() : Double.NaN);
+            outputStream.writeDouble(irSignal.getDutyCycle() != null ? irSignal.getDutyCycle() : Double.NaN);
+            for (IrSignal.Pass pass : PASSES)
+                outputStream.writeInt(irSignal.getLength(pass));
+            for (IrSignal.Pass pass : PASSES)
+                for (int i = 0; i < irSignal.getLength(pass); i++)
+                    outputStream.writeInt((int) Math.round(irSignal.getDouble(pass, i)));
+        }
+
+        public void flush() throws IOException {
+            outputStream.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            outputStream.close();
+        }
+    }
+}
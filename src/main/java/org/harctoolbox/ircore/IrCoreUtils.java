@@ -616,6 +616,21 @@ public final class IrCoreUtils {
         if (x == null || y == null)
             return false;
 
+        return withinTolerance(x, y, absoluteTolerance, relativeTolerance);
+    }
+
+    /**
+     * Tests for approximate equality.
+     * Version of {@link #approximatelyEquals(Double, Double, double, double)} for primitive arguments,
+     * not requiring boxing. (Not an overload, since that would make calls with mixed arguments ambiguous.)
+     *
+     * @param x first argument
+     * @param y second argument
+     * @param absoluteTolerance
+     * @param relativeTolerance
+     * @return true if either absolute or relative requirement is satisfied.
+     */
+    public static boolean withinTolerance(double x, double y, double absoluteTolerance, double relativeTolerance) {
         double absDiff = Math.abs(x - y);
         boolean absoluteOk = absDiff <= absoluteTolerance;
         if (absoluteOk)
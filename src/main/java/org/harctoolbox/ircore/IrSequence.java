@@ -607,13 +607,13 @@ public class IrSequence implements Cloneable, Serializable {
     public boolean approximatelyEquals(int beginning, int compareStart, int length, double absoluteTolerance, double relativeTolerance, double lastLimit) {
         boolean specialTreatment = compareStart + length == data.length && lastLimit > 0;
         for (int i = 0; i < (specialTreatment ? length - 1 : length); i++) {
-            if (!IrCoreUtils.approximatelyEquals(data[beginning+i], data[compareStart+i], absoluteTolerance, relativeTolerance))
+            if (!IrCoreUtils.withinTolerance(data[beginning+i], data[compareStart+i], absoluteTolerance, relativeTolerance))
                 return false;
         }
 
         if (specialTreatment) {
             if (!(
-                    IrCoreUtils.approximatelyEquals(data[beginning+length-1], data[compareStart+length-1], absoluteTolerance, relativeTolerance)
+                    IrCoreUtils.withinTolerance(data[beginning+length-1], data[compareStart+length-1], absoluteTolerance, relativeTolerance)
                     || (data[beginning+length-1] >= lastLimit && data[compareStart+length-1] >= lastLimit)))
                 return false;
         }
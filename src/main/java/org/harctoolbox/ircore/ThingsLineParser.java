@@ -27,6 +27,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.xml.transform.TransformerException;
@@ -67,19 +69,29 @@ public class ThingsLineParser<T> {
     }
 
     public List<T> readThings(Reader reader, boolean multiLines) throws IOException {
-        BufferedReader in = new BufferedReader(reader);
         List<T> list = new ArrayList<>(4);
+        readThings(reader, multiLines, list::add);
+        return list;
+    }
+
+    /**
+     * Reads Ts from the reader, and passes them, one at a time, to the handler, without collecting them.
+     * @param reader
+     * @param multiLines if true, successive lines are considered to belong to the same object, unless separated by empty lines.
+     * @param handler called with every T read; returning false stops the reading.
+     * @throws IOException
+     */
+    public void readThings(Reader reader, boolean multiLines, Predicate<T> handler) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
         while (true) {
             try {
                 T thing = parseThing(in, multiLines);
-                if (thing == null)
+                if (thing == null || !handler.test(thing))
                     break;
-                list.add(thing);
             } catch (IOException | InvalidArgumentException ex) {
                 logger.log(Level.FINE, "{0}", ex.getMessage());
             }
         }
-        return list;
     }
 
     public Map<String, T> readNamedThings(String urlOrFilename, String charSetName) throws IOException {
@@ -103,8 +115,22 @@ public class ThingsLineParser<T> {
     }
 
     public Map<String, T> readNamedThings(Reader reader) throws IOException {
-        BufferedReader in = new BufferedReader(reader);
         Map<String, T> map = new LinkedHashMap<>(4);
+        readNamedThings(reader, (String name, T thing) -> {
+            map.put(name, thing);
+            return true;
+        });
+        return map;
+    }
+
+    /**
+     * Reads named Ts from the reader, and passes them, one at a time, to the handler, without collecting them.
+     * @param reader
+     * @param handler called with every name and T read; returning false stops the reading.
+     * @throws IOException
+     */
+    public void readNamedThings(Reader reader, BiPredicate<String, T> handler) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
         while (true) {
             String line = in.readLine();
             if (line == null)
@@ -115,13 +141,12 @@ public class ThingsLineParser<T> {
             String name = line;
             try {
                 T thing = parseThing(in, true);
-                if (thing != null)
-                   map.put(name, thing);
+                if (thing != null && !handler.test(name, thing))
+                    break;
             } catch (NumberFormatException | InvalidArgumentException ex) {
                 logger.log(Level.WARNING, "{0}", ex.getMessage());
             }
         }
-        return map;
     }
 
     @SuppressWarnings("unchecked")
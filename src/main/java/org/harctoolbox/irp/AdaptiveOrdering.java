@@ -0,0 +1,246 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Support for the adaptive mode of the {@link Decoder}, see {@link Decoder#setAdaptive(boolean)}.
+ * The protocols are tried in the order of their number of recent matches, and the trying stops as soon as there is a decode,
+ * the winner, that cannot be removed by prefer-over by the other decodes, provided that none of the remaining protocols
+ * precedes the winner in the order of the candidates, nor can remove any of the decodes found.
+ * The reduced result thus has the same preferred decode as in the normal mode, and, if all protocols had to be tried,
+ * is identical to it.
+ * To get there quickly, after a match the remaining protocols that can remove a decode are tried first,
+ * then the ones preceding the decodes.
+ * Only matches not possibly removed by other matches are counted.
+ *
+ * Whether a protocol can remove another by prefer-over is determined statically, and conservatively,
+ * from the prefer-over names of the protocols, transitively, ignoring the conditions, and case.
+ *
+ * Instances are thread safe.
+ */
+final class AdaptiveOrdering {
+
+    /**
+     * Number of decodes between the updates of the order.
+     */
+    static final int UPDATE_INTERVAL = 64;
+
+    /**
+     * Number of updates of the order between halving the counts of matches, thus making old matches less important.
+     */
+    private static final int DECAY_INTERVAL = 16;
+
+    private static final int MAX_PREFER_OVER_NESTING = 10;
+
+    private final String[] names;
+    private final List<Set<String>> potentialRemovees;
+    private final AtomicLongArray matches;
+    private final AtomicInteger decodes;
+    private volatile int[] rank;
+
+    /**
+     * @param parsedProtocols protocols of the Decoder, in the order of the prefilter, with lower case names as keys.
+     */
+    AdaptiveOrdering(Map<String, NamedProtocol> parsedProtocols) {
+        int size = parsedProtocols.size();
+        names = new String[size];
+        potentialRemovees = new ArrayList<>(size);
+        int i = 0;
+        for (NamedProtocol protocol : parsedProtocols.values()) {
+            names[i++] = protocol.getName().toLowerCase(Locale.US);
+            Set<String> removees = new HashSet<>(4);
+            addPotentialRemovees(removees, protocol, parsedProtocols, 0);
+            potentialRemovees.add(removees);
+        }
+        matches = new AtomicLongArray(size);
+        decodes = new AtomicInteger();
+        rank = new int[size];
+        for (i = 0; i < size; i++)
+            rank[i] = i;
+    }
+
+    private static void addPotentialRemovees(Set<String> removees, HasPreferOvers protocol, Map<String, NamedProtocol> parsedProtocols, int level) {
+        if (level > MAX_PREFER_OVER_NESTING)
+            return;
+
+        for (String name : protocol.getPreferOverNames()) {
+            String lowerCaseName = name.toLowerCase(Locale.US);
+            if (removees.add(lowerCaseName)) {
+                NamedProtocol removee = parsedProtocols.get(lowerCaseName);
+                if (removee != null)
+                    addPotentialRemovees(removees, removee, parsedProtocols, level + 1);
+            }
+        }
+    }
+
+    /**
+     * Applies the function to the candidates, in the order of recent matches, until the result is determined.
+     * @param candidates
+     * @param function recognizer, returning null for non-matches.
+     * @return Non-null results, in the order of the argument.
+     */
+    <T> List<T> tryProtocols(List<ProtocolPrefilter.Candidate> candidates, Function<ProtocolPrefilter.Candidate, T> function) {
+        int size = candidates.size();
+        int[] order = order(candidates);
+        @SuppressWarnings("unchecked")
+        T[] found = (T[]) new Object[size];
+        List<Integer> matched = new ArrayList<>(4);
+        for (int k = 0; k < size; k++) {
+            int i = order[k];
+            T result = function.apply(candidates.get(i));
+            if (result != null) {
+                found[i] = result;
+                matched.add(i);
+            }
+            if (matched.isEmpty() || k == size - 1)
+                continue;
+
+            if (isDetermined(candidates, matched, order, k + 1))
+                break;
+            if (result != null)
+                promote(candidates, matched, order, k + 1);
+        }
+
+        for (int i : matched)
+            if (!isPotentiallyRemovedBy(names[candidates.get(i).getIndex()], candidates, matched, i))
+                matches.incrementAndGet(candidates.get(i).getIndex());
+
+        int count = decodes.incrementAndGet();
+        if (count % UPDATE_INTERVAL == 0)
+            update(count % (UPDATE_INTERVAL * DECAY_INTERVAL) == 0);
+
+        List<T> results = new ArrayList<>(matched.size());
+        for (T result : found)
+            if (result != null)
+                results.add(result);
+        return results;
+    }
+
+    /**
+     * Returns the positions of the candidates in the order to try them.
+     */
+    private int[] order(List<ProtocolPrefilter.Candidate> candidates) {
+        int[] currentRank = rank;
+        Integer[] order = new Integer[candidates.size()];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(currentRank[candidates.get(a).getIndex()], currentRank[candidates.get(b).getIndex()]));
+        int[] result = new int[order.length];
+        for (int i = 0; i < order.length; i++)
+            result[i] = order[i];
+        return result;
+    }
+
+    /**
+     * Returns true if none of the untried candidates can remove a matched one by prefer-over,
+     * and there is a matched candidate, not removable by the other matched ones, preceding all untried candidates.
+     */
+    private boolean isDetermined(List<ProtocolPrefilter.Candidate> candidates, Collection<Integer> matched, int[] order, int firstUntried) {
+        int firstUntriedPosition = Integer.MAX_VALUE;
+        for (int k = firstUntried; k < order.length; k++) {
+            if (isPotentialRemover(candidates, order[k], matched))
+                return false;
+            firstUntriedPosition = Math.min(firstUntriedPosition, order[k]);
+        }
+        for (int w : matched)
+            if (w < firstUntriedPosition && !isPotentiallyRemovedBy(names[candidates.get(w).getIndex()], candidates, matched, w))
+                return true;
+        return false;
+    }
+
+    /**
+     * Moves the untried candidates that can remove a matched one first, then the ones preceding all matched ones,
+     * keeping the order otherwise.
+     */
+    private void promote(List<ProtocolPrefilter.Candidate> candidates, Collection<Integer> matched, int[] order, int firstUntried) {
+        int firstMatched = Collections.min(matched);
+        int[] rest = Arrays.copyOfRange(order, firstUntried, order.length);
+        int next = firstUntried;
+        for (int pass = 0; pass < 3; pass++) {
+            for (int position : rest) {
+                int priority = isPotentialRemover(candidates, position, matched) ? 0
+                        : position < firstMatched ? 1
+                        : 2;
+                if (priority == pass)
+                    order[next++] = position;
+            }
+        }
+    }
+
+    private boolean isPotentialRemover(List<ProtocolPrefilter.Candidate> candidates, int position, Collection<Integer> matched) {
+        Set<String> removees = potentialRemovees.get(candidates.get(position).getIndex());
+        for (int m : matched)
+            if (removees.contains(names[candidates.get(m).getIndex()]))
+                return true;
+        return false;
+    }
+
+    private boolean isPotentiallyRemovedBy(String name, List<ProtocolPrefilter.Candidate> candidates, Collection<Integer> positions, int exception) {
+        for (int position : positions)
+            if (position != exception && potentialRemovees.get(candidates.get(position).getIndex()).contains(name))
+                return true;
+        return false;
+    }
+
+    /**
+     * Computes a new order, most matches first, and occasionally halves the number of matches.
+     */
+    private void update(boolean decay) {
+        int size = matches.length();
+        long[] counts = new long[size];
+        Integer[] byMatches = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            counts[i] = matches.get(i);
+            byMatches[i] = i;
+        }
+        Arrays.sort(byMatches, (a, b) -> Long.compare(counts[b], counts[a]));
+        int[] newRank = new int[size];
+        for (int r = 0; r < size; r++)
+            newRank[byMatches[r]] = r;
+        rank = newRank;
+
+        if (decay)
+            for (int i = 0; i < size; i++)
+                matches.getAndUpdate(i, (count) -> count / 2);
+    }
+
+    /**
+     * For testing.
+     * @return the names of the protocols, lower case, in the order they are presently tried.
+     */
+    List<String> getOrder() {
+        int[] currentRank = rank;
+        String[] result = new String[currentRank.length];
+        for (int i = 0; i < currentRank.length; i++)
+            result[currentRank[i]] = names[i];
+        return Arrays.asList(result);
+    }
+}
@@ -122,7 +122,13 @@ public final class Assignment extends IrpObject implements IrStreamItem, Numeric
 
     @Override
     public void render(RenderData renderData, List<BitSpec> bitSpecs) throws NameUnassignedException {
-        NameEngine nameEngine = renderData.getNameEngine();
+        assign(renderData.getNameEngine());
+    }
+
+    /**
+     * Evaluates the right hand side, and assigns it to the name, in the NameEngine given as argument.
+     */
+    void assign(NameEngine nameEngine) throws NameUnassignedException {
         long val = value.toLong(nameEngine);
         try {
             nameEngine.define(name.toString(), val);
@@ -161,7 +167,7 @@ public final class Assignment extends IrpObject implements IrStreamItem, Numeric
 
     @Override
     public void decode(RecognizeData recognizeData, List<BitSpec> bitSpecStack, boolean isLast) throws SignalRecognitionException {
-        logger.log(recognizeData.logRecordEnter(this));
+        recognizeData.logEnter(logger, this);
         try {
             String nameString = name.toString();
             BitwiseParameter val = value.toBitwiseParameter(recognizeData);
@@ -169,7 +175,7 @@ public final class Assignment extends IrpObject implements IrStreamItem, Numeric
         } catch (InvalidNameException ex) {
             throw new SignalRecognitionException(ex);
         }
-        logger.log(recognizeData.logRecordExit(this));
+        recognizeData.logExit(logger, this);
     }
 
     @Override
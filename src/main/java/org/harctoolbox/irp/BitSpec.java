@@ -64,6 +64,7 @@ public final class BitSpec extends IrpObject implements AggregateLister {
 
     private List<BareIrStream> bitCodes;
     private Integer numberOfInfiniteRepeatsCached = null; // Assume immutability
+    private Boolean onlyFlashesAndGapsCached = null; // Assume immutability
 
     public BitSpec(String str) {
         this(new ParserDriver(str).getParser().bitspec());
@@ -155,6 +156,17 @@ public final class BitSpec extends IrpObject implements AggregateLister {
         return numberOfInfiniteRepeatsCached;
     }
 
+    /**
+     * Determines if all the bit codes consist of flashes and gaps only.
+     * Decoding such a bit code affects nothing but the position in the IrSequence.
+     * @return
+     */
+    boolean onlyFlashesAndGaps() {
+        if (onlyFlashesAndGapsCached == null)
+            onlyFlashesAndGapsCached = bitCodes.stream().allMatch((bitCode) -> bitCode.getIrStreamItems().stream().allMatch((item) -> item instanceof Flash || item instanceof Gap));
+        return onlyFlashesAndGapsCached;
+    }
+
     public BareIrStream get(int index) {
         if (index >= bitCodes.size())
             throw new ThisCannotHappenException("Cannot encode " + index + " with current bitspec.");
@@ -147,14 +147,14 @@ public final class BitspecIrstream extends IrpObject implements IrStreamItem {
 
     @Override
     public void decode(RecognizeData recognizeData, List<BitSpec> inheritedBitSpecs, boolean isLast) throws SignalRecognitionException {
-        logger.log(recognizeData.logRecordEnterWithIrStream(this));
+        recognizeData.logEnterWithIrStream(logger, this);
         List<BitSpec> stack = new ArrayList<>(inheritedBitSpecs);
         stack.add(bitSpec);
         int currentLevel = recognizeData.getLevel();
         recognizeData.setLevel(currentLevel + 1);
         irStream.decode(recognizeData, stack, isLast);
         recognizeData.setLevel(currentLevel);
-        logger.log(recognizeData.logRecordExit(this));
+        recognizeData.logExit(logger, this);
     }
 
     @Override
@@ -163,9 +163,12 @@ public final class BitspecIrstream extends IrpObject implements IrStreamItem {
         stack.add(bitSpec);
         renderData.push();
         irStream.render(renderData, stack);
-        logger.log(Level.FINE, "renderdata (unreduced): {0}", renderData.getEvaluatedIrStream().toString());
+        boolean loggable = logger.isLoggable(Level.FINE);
+        if (loggable)
+            logger.log(Level.FINE, "renderdata (unreduced): {0}", renderData.getEvaluatedIrStream().toString());
         renderData.reduce(bitSpec);
-        logger.log(Level.FINE, "renderdata (reduced): {0}", renderData.getEvaluatedIrStream().toString());
+        if (loggable)
+            logger.log(Level.FINE, "renderdata (reduced): {0}", renderData.getEvaluatedIrStream().toString());
         renderData.pop();
     }
 
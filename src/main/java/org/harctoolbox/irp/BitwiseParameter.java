@@ -131,7 +131,8 @@ public final class BitwiseParameter {
 
     public void aggregate(BitwiseParameter parameter) {
         parameter.canonicalize();
-        logger.log(Level.FINEST, "Changing {0} to {1}", new Object[] { toString(), toString(value | parameter.value, bitmask | parameter.bitmask)});
+        if (logger.isLoggable(Level.FINEST))
+            logger.log(Level.FINEST, "Changing {0} to {1}", new Object[] { toString(), toString(value | parameter.value, bitmask | parameter.bitmask)});
         value &= ~parameter.bitmask;
         value |= parameter.getValue();
         bitmask |= parameter.bitmask;
@@ -312,8 +313,10 @@ public final class BitwiseParameter {
      * @throws SignalRecognitionException
      */
     public boolean check(long payload, long bitmask) throws SignalRecognitionException {
-        if (!this.isConsistent(payload))
-            throw new SignalRecognitionException("BitwiseParameter " + toString() + " not consistent with previously read data = " + payload);
+        if (!this.isConsistent(payload)) {
+            BitwiseParameter copy = new BitwiseParameter(this);
+            throw new SignalRecognitionException(() -> "BitwiseParameter " + copy + " not consistent with previously read data = " + payload);
+        }
         return covers(bitmask);
     }
 
@@ -0,0 +1,288 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.harctoolbox.ircore.IrCoreUtils;
+
+/**
+ * Flat, precomputed form of the normal form of one pass of a {@link Protocol}, used for recognition.
+ * Constant durations are evaluated, and the bit spec is turned into tables of durations, once and for all,
+ * so that the bits of the signal are read by a tight loop, without the cloning of {@link RecognizeData}
+ * done by the tree walking interpreter.
+ *
+ * The payload of a bit field is handed over to {@link FiniteBitField#recognizePayload(RecognizeData, long)},
+ * so the parameter handling is that of the interpreter. Items that cannot be compiled
+ * (assignments, bit fields with non-constant width, nested bit specs, ...) are delegated to the interpreter,
+ * one at a time. The result of the recognition is identical to the one of the interpreter.
+ *
+ * Instances are immutable, and may be used by several threads simultaneously.
+ */
+final class CompiledRecognizer {
+
+    private static final Logger logger = Logger.getLogger(CompiledRecognizer.class.getName());
+
+    private static final byte FLASH = 0;
+    private static final byte GAP = 1;
+    private static final byte EXTENT = 2;
+    private static final byte BITFIELD = 3;
+    private static final byte INTERPRETED = 4;
+
+    private static volatile boolean enabled = true;
+
+    /**
+     * Determines whether compiled recognizers should be used.
+     * When fine logging is enabled, the interpreter is used, since it produces a detailed trace.
+     * @return
+     */
+    static boolean isEnabled() {
+        return enabled && !logger.isLoggable(Level.FINE);
+    }
+
+    /**
+     * For testing and debugging only.
+     * @param enabled if false, always use the interpreter.
+     */
+    static void setEnabled(boolean enabled) {
+        CompiledRecognizer.enabled = enabled;
+    }
+
+    private static void flatten(BareIrStream bareIrStream, List<IrStreamItem> result) {
+        for (IrStreamItem item : bareIrStream.getIrStreamItems()) {
+            // IrStream.decode ignores the repeat marker, so a nested IrStream can be inlined,
+            // except when it is empty, since it then affects the isLast argument of its predecessor.
+            BareIrStream nested = item instanceof IrStream ? ((IrStream) item).getBareIrStream()
+                    : item instanceof BareIrStream ? (BareIrStream) item
+                    : null;
+            if (nested != null && !nested.getIrStreamItems().isEmpty())
+                flatten(nested, result);
+            else
+                result.add(item);
+        }
+    }
+
+    private final byte[] opcodes;
+    private final IrStreamItem[] items;
+    private final double[] durations;
+    private final int[] widths;
+    private final List<BitSpec> bitSpecStack;
+
+    private final int chunkSize;
+    private final boolean lsb;
+    private final double[][] symbolDurations;
+    private final boolean[][] symbolFlashes;
+    private final long[] symbolValues;
+
+    /**
+     * Compiles a bare IrStream from a normal form.
+     * @param generalSpec GeneralSpec of the protocol.
+     * @param bitSpec the top level BitSpec of the protocol.
+     * @param bareIrStream normal form of a pass of the protocol.
+     */
+    CompiledRecognizer(GeneralSpec generalSpec, BitSpec bitSpec, BareIrStream bareIrStream) {
+        List<IrStreamItem> list = new ArrayList<>(bareIrStream.getIrStreamItems().size());
+        flatten(bareIrStream, list);
+
+        bitSpecStack = Collections.singletonList(bitSpec);
+        chunkSize = bitSpec.getChunkSize();
+        lsb = generalSpec.getBitDirection() == BitDirection.lsb;
+        symbolDurations = new double[bitSpec.size()][];
+        symbolFlashes = new boolean[bitSpec.size()][];
+        symbolValues = new long[bitSpec.size()];
+        boolean bitSpecCompiled = compileBitSpec(generalSpec, bitSpec);
+
+        opcodes = new byte[list.size()];
+        items = list.toArray(new IrStreamItem[list.size()]);
+        durations = new double[list.size()];
+        widths = new int[list.size()];
+        for (int i = 0; i < items.length; i++)
+            opcodes[i] = compileItem(i, generalSpec, bitSpecCompiled);
+    }
+
+    private boolean compileBitSpec(GeneralSpec generalSpec, BitSpec bitSpec) {
+        if (chunkSize <= 0)
+            return false;
+
+        for (int symbol = 0; symbol < bitSpec.size(); symbol++) {
+            List<IrStreamItem> code = bitSpec.get(symbol).getIrStreamItems();
+            symbolDurations[symbol] = new double[code.size()];
+            symbolFlashes[symbol] = new boolean[code.size()];
+            for (int j = 0; j < code.size(); j++) {
+                IrStreamItem item = code.get(j);
+                if (!(item instanceof Flash || item instanceof Gap))
+                    return false;
+                Double duration = constantDuration((Duration) item, generalSpec);
+                if (duration == null)
+                    return false;
+                symbolDurations[symbol][j] = duration;
+                symbolFlashes[symbol][j] = item instanceof Flash;
+            }
+            symbolValues[symbol] = lsb ? IrCoreUtils.reverse(symbol, chunkSize) : symbol;
+        }
+        return true;
+    }
+
+    private byte compileItem(int index, GeneralSpec generalSpec, boolean bitSpecCompiled) {
+        IrStreamItem item = items[index];
+        if (item instanceof Flash || item instanceof Gap) {
+            Double duration = constantDuration((Duration) item, generalSpec);
+            if (duration == null)
+                return INTERPRETED;
+            durations[index] = duration;
+            return item instanceof Flash ? FLASH : GAP;
+        }
+        if (item instanceof Extent) {
+            try {
+                // Same evaluation as in Extent.decode
+                durations[index] = ((Extent) item).toFloat(generalSpec, null);
+                return EXTENT;
+            } catch (IrpInvalidArgumentException | NameUnassignedException | RuntimeException ex) {
+                return INTERPRETED;
+            }
+        }
+        if (item instanceof FiniteBitField && bitSpecCompiled) {
+            try {
+                long width = ((FiniteBitField) item).getWidth(NameEngine.EMPTY);
+                if (width % chunkSize != 0)
+                    return INTERPRETED;
+                widths[index] = (int) width;
+                return BITFIELD;
+            } catch (NameUnassignedException | RuntimeException ex) {
+                return INTERPRETED;
+            }
+        }
+        return INTERPRETED;
+    }
+
+    private static Double constantDuration(Duration duration, GeneralSpec generalSpec) {
+        try {
+            return duration.toFloat(generalSpec, NameEngine.EMPTY);
+        } catch (IrpInvalidArgumentException | NameUnassignedException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Number of items that are delegated to the interpreter.
+     * @return
+     */
+    int numberInterpreted() {
+        int count = 0;
+        for (byte opcode : opcodes)
+            if (opcode == INTERPRETED)
+                count++;
+        return count;
+    }
+
+    /**
+     * Does the same as {@link BitspecIrstream#decode(RecognizeData, List, boolean)} on the normal form with an empty
+     * bit spec stack, and isLast = true.
+     * @param recognizeData
+     * @throws SignalRecognitionException
+     */
+    void recognize(RecognizeData recognizeData) throws SignalRecognitionException {
+        for (int i = 0; i < opcodes.length; i++) {
+            boolean isLast = i == opcodes.length - 1;
+            switch (opcodes[i]) {
+                case FLASH:
+                case GAP:
+                    if (!recognizeData.check(opcodes[i] == FLASH))
+                        throw new SignalRecognitionException("Either end of sequence, or found flash when gap expected, or vice versa");
+                    recognize(recognizeData, recognizeData.get(), durations[i], isLast);
+                    break;
+                case EXTENT:
+                    double elapsed = recognizeData.elapsed();
+                    double physical = recognizeData.get();
+                    recognizeData.markExtentStart();
+                    recognize(recognizeData, physical, durations[i] - elapsed, isLast);
+                    break;
+                case BITFIELD:
+                    if (recognizeData.getDanglingBitFieldData().isEmpty()) {
+                        long payload = collectData(recognizeData, widths[i]);
+                        ((FiniteBitField) items[i]).recognizePayload(recognizeData, payload);
+                    } else
+                        items[i].decode(recognizeData, bitSpecStack, isLast);
+                    break;
+                default:
+                    items[i].decode(recognizeData, bitSpecStack, isLast);
+                    break;
+            }
+        }
+    }
+
+    private static void recognize(RecognizeData recognizeData, double actual, double wanted, boolean isLast) throws SignalRecognitionException {
+        if (!consume(recognizeData, actual, wanted, isLast)) {
+            int position = recognizeData.getPosition();
+            throw new SignalRecognitionException(() -> "Duration does not parse, wanted " + wanted + ", was " + actual + ", position = " + position);
+        }
+    }
+
+    /**
+     * Same logic as {@link Duration#recognize(RecognizeData, double, double, boolean)}, but reporting failure
+     * through the return value.
+     */
+    private static boolean consume(RecognizeData recognizeData, double actual, double wanted, boolean isLast) throws SignalRecognitionException {
+        if (IrCoreUtils.withinTolerance(actual, wanted, recognizeData.getAbsoluteTolerance(), recognizeData.getRelativeTolerance()))
+            recognizeData.consume();
+        else if (actual > wanted && recognizeData.allowChopping())
+            recognizeData.consume(wanted);
+        else if (recognizeData.leadoutOk(isLast))
+            recognizeData.consume();
+        else
+            return false;
+        return true;
+    }
+
+    private long collectData(RecognizeData recognizeData, int width) throws SignalRecognitionException {
+        long payload = 0L;
+        int noChunks = width / chunkSize;
+        for (int chunk = 0; chunk < noChunks; chunk++) {
+            int position = recognizeData.getPosition();
+            double hasConsumed = recognizeData.getHasConsumed();
+            int symbol;
+            for (symbol = 0; symbol < symbolValues.length; symbol++) {
+                if (matchSymbol(recognizeData, symbol))
+                    break;
+
+                recognizeData.setPosition(position);
+                recognizeData.setHasConsumed(hasConsumed);
+            }
+            if (symbol == symbolValues.length)
+                throw new SignalRecognitionException("FiniteBitField did not parse");
+
+            payload = (payload << chunkSize) | symbolValues[symbol];
+        }
+        return lsb ? IrCoreUtils.reverse(payload, width) : payload;
+    }
+
+    private boolean matchSymbol(RecognizeData recognizeData, int symbol) throws SignalRecognitionException {
+        double[] wanted = symbolDurations[symbol];
+        boolean[] flashes = symbolFlashes[symbol];
+        for (int j = 0; j < wanted.length; j++) {
+            if (!recognizeData.check(flashes[j]))
+                return false;
+            if (!consume(recognizeData, recognizeData.get(), wanted[j], false))
+                return false;
+        }
+        return true;
+    }
+}
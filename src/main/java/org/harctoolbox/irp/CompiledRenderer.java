@@ -0,0 +1,377 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.harctoolbox.ircore.IrSequence;
+import org.harctoolbox.ircore.OddSequenceLengthException;
+import org.harctoolbox.ircore.ThisCannotHappenException;
+
+/**
+ * Flat, precomputed form of the normal form of one pass of a {@link Protocol}, used for rendering.
+ * It is a template, consisting of runs of constant durations, and slots, that are filled in from the parameters:
+ * bit fields, that are expanded by tables of the durations of the bit spec, non-constant durations, and assignments.
+ * The values of the slots are computed by the expressions of the protocol, evaluated in the NameEngine,
+ * but there is no traversal of the IRP tree, and no intermediate {@link RenderData},
+ * {@link BitStream}s, or {@link Duration}s are created:
+ * the durations are written straight into a double array.
+ *
+ * Only passes consisting of flashes, gaps, extents, assignments, nested bit spec IrStreams, and finite bit fields
+ * with constant width, using bit specs consisting of constant flashes and gaps only, can be compiled; for others,
+ * {@link #compile(GeneralSpec, BitSpec, BareIrStream)} returns null, and the interpreter is to be used.
+ * The result of the rendering is identical to the one of the interpreter.
+ *
+ * Instances are immutable, and may be used by several threads simultaneously.
+ */
+final class CompiledRenderer {
+
+    private static final Logger logger = Logger.getLogger(CompiledRenderer.class.getName());
+
+    private static final byte DURATION = 0;
+    private static final byte VARIABLE_DURATION = 1;
+    private static final byte EXTENT = 2;
+    private static final byte VARIABLE_EXTENT = 3;
+    private static final byte BITFIELD = 4;
+    private static final byte ASSIGNMENT = 5;
+    private static final byte NOT_COMPILABLE = -1;
+
+    // Durations smaller than this are ignored, as in EvaluatedIrStream.
+    private static final double ZERO_DURATION = 0.0001;
+
+    private static volatile boolean enabled = true;
+
+    /**
+     * Determines whether compiled renderers should be used.
+     * When fine logging is enabled, the interpreter is used, since it produces a detailed trace.
+     * @return
+     */
+    static boolean isEnabled() {
+        return enabled && !logger.isLoggable(Level.FINE);
+    }
+
+    /**
+     * For testing and debugging only.
+     * @param enabled if false, always use the interpreter.
+     */
+    static void setEnabled(boolean enabled) {
+        CompiledRenderer.enabled = enabled;
+    }
+
+    /**
+     * Inlines nested IrStreams, recording the innermost bit spec of each item.
+     * IrStream.render ignores the repeat marker, so a nested IrStream can be inlined.
+     * A nested bit spec IrStream reduces its bit fields with its own bit spec before they are passed
+     * to the enclosing one, so its items can be inlined too, as long as the bit fields use the right bit spec.
+     */
+    private static void flatten(BareIrStream bareIrStream, BitSpec bitSpec, List<IrStreamItem> items, List<BitSpec> bitSpecs) {
+        for (IrStreamItem item : bareIrStream.getIrStreamItems()) {
+            if (item instanceof IrStream)
+                flatten(((IrStream) item).getBareIrStream(), bitSpec, items, bitSpecs);
+            else if (item instanceof BitspecIrstream)
+                flatten(((BitspecIrstream) item).getIrStream().getBareIrStream(), ((BitspecIrstream) item).getBitSpec(), items, bitSpecs);
+            else if (item instanceof BareIrStream)
+                flatten((BareIrStream) item, bitSpec, items, bitSpecs);
+            else {
+                items.add(item);
+                bitSpecs.add(bitSpec);
+            }
+        }
+    }
+
+    /**
+     * Compiles a bare IrStream from a normal form.
+     * @param generalSpec GeneralSpec of the protocol.
+     * @param bitSpec the top level BitSpec of the protocol.
+     * @param bareIrStream normal form of a pass of the protocol.
+     * @return compiled renderer, or null if the pass cannot be compiled.
+     */
+    static CompiledRenderer compile(GeneralSpec generalSpec, BitSpec bitSpec, BareIrStream bareIrStream) {
+        List<IrStreamItem> items = new ArrayList<>(bareIrStream.getIrStreamItems().size());
+        List<BitSpec> bitSpecs = new ArrayList<>(bareIrStream.getIrStreamItems().size());
+        flatten(bareIrStream, bitSpec, items, bitSpecs);
+        CompiledRenderer compiledRenderer = new CompiledRenderer(generalSpec, items);
+        return compiledRenderer.compile(bitSpecs) ? compiledRenderer : null;
+    }
+
+    private static Double constantDuration(Duration duration, GeneralSpec generalSpec) {
+        try {
+            return duration.toFloat(generalSpec, NameEngine.EMPTY);
+        } catch (IrpInvalidArgumentException | NameUnassignedException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private final GeneralSpec generalSpec;
+    private final IrStreamItem[] items;
+    private final byte[] opcodes;
+    private final double[] durations;
+    private final int[] widths;
+    private final Symbols[] symbols;
+    private int maxLength;
+
+    private CompiledRenderer(GeneralSpec generalSpec, List<IrStreamItem> list) {
+        this.generalSpec = generalSpec;
+        items = list.toArray(new IrStreamItem[list.size()]);
+        opcodes = new byte[items.length];
+        durations = new double[items.length];
+        widths = new int[items.length];
+        symbols = new Symbols[items.length];
+        maxLength = 0;
+    }
+
+    private boolean compile(List<BitSpec> bitSpecs) {
+        Map<BitSpec, Symbols> compiledBitSpecs = new IdentityHashMap<>(2);
+        for (int i = 0; i < items.length; i++) {
+            if (items[i] instanceof FiniteBitField)
+                symbols[i] = compiledBitSpecs.computeIfAbsent(bitSpecs.get(i), this::compileBitSpec);
+            opcodes[i] = compileItem(i);
+            if (opcodes[i] == NOT_COMPILABLE) {
+                logger.log(Level.FINER, "Cannot compile {0}, using the interpreter", items[i]);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Turns the bit spec into tables of signed durations, one for each symbol.
+     * @return the tables, or a Symbols without tables if the bit spec cannot be compiled.
+     */
+    private Symbols compileBitSpec(BitSpec bitSpec) {
+        int chunkSize = bitSpec.getChunkSize();
+        if (chunkSize <= 0 || bitSpec.size() != 1 << chunkSize)
+            return new Symbols(chunkSize, null);
+
+        double[][] table = new double[bitSpec.size()][];
+        for (int symbol = 0; symbol < bitSpec.size(); symbol++) {
+            List<IrStreamItem> code = bitSpec.get(symbol).getIrStreamItems();
+            table[symbol] = new double[code.size()];
+            for (int j = 0; j < code.size(); j++) {
+                IrStreamItem item = code.get(j);
+                if (!(item instanceof Flash || item instanceof Gap))
+                    return new Symbols(chunkSize, null);
+                Double duration = constantDuration((Duration) item, generalSpec);
+                if (duration == null)
+                    return new Symbols(chunkSize, null);
+                table[symbol][j] = item instanceof Flash ? duration : -duration;
+            }
+        }
+        return new Symbols(chunkSize, table);
+    }
+
+    private byte compileItem(int index) {
+        IrStreamItem item = items[index];
+        if (item instanceof Flash || item instanceof Gap) {
+            maxLength++;
+            Double duration = constantDuration((Duration) item, generalSpec);
+            if (duration == null)
+                return VARIABLE_DURATION;
+            durations[index] = item instanceof Flash ? duration : -duration;
+            return DURATION;
+        }
+        if (item instanceof Extent) {
+            maxLength++;
+            Double duration = constantDuration((Duration) item, generalSpec);
+            if (duration == null)
+                return VARIABLE_EXTENT;
+            durations[index] = duration;
+            return EXTENT;
+        }
+        if (item instanceof Assignment)
+            return ASSIGNMENT;
+        if (item instanceof FiniteBitField && symbols[index].durations != null) {
+            try {
+                long width = ((FiniteBitField) item).getWidth(NameEngine.EMPTY);
+                int chunkSize = symbols[index].chunkSize;
+                // Wider bit fields may be negative, which the BitStream of the interpreter handles differently.
+                if (width % chunkSize != 0 || width >= FiniteBitField.MAXWIDTH)
+                    return NOT_COMPILABLE;
+                widths[index] = (int) width;
+                maxLength += (int) width / chunkSize * symbols[index].longest;
+                return BITFIELD;
+            } catch (NameUnassignedException | RuntimeException ex) {
+                return NOT_COMPILABLE;
+            }
+        }
+        return NOT_COMPILABLE;
+    }
+
+    /**
+     * Does the same as rendering the pass with the interpreter, i.e. {@link BitspecIrstream#render(RenderData, List)}
+     * followed by {@link RenderData#toIrSequence()}.
+     * @param nameEngine NameEngine containing parameters and definitions; assignments are done in it.
+     * @return
+     * @throws NameUnassignedException
+     * @throws IrpInvalidArgumentException
+     * @throws OddSequenceLengthException
+     */
+    IrSequence render(NameEngine nameEngine) throws NameUnassignedException, IrpInvalidArgumentException, OddSequenceLengthException {
+        double[] buffer = new double[maxLength];
+        int length = render(nameEngine, buffer);
+        return new IrSequence(Arrays.copyOf(buffer, length));
+    }
+
+    /**
+     * Version of {@link #render(NameEngine)} writing the (signed) durations into the array given as argument.
+     * @param nameEngine NameEngine containing parameters and definitions; assignments are done in it.
+     * @param buffer Array of length at least {@link #getMaxLength()}.
+     * @return number of durations written.
+     * @throws NameUnassignedException
+     * @throws IrpInvalidArgumentException
+     * @throws OddSequenceLengthException
+     */
+    int render(NameEngine nameEngine, double[] buffer) throws NameUnassignedException, IrpInvalidArgumentException, OddSequenceLengthException {
+        Sink sink = new Sink(buffer);
+        for (int i = 0; i < opcodes.length; i++) {
+            switch (opcodes[i]) {
+                case DURATION:
+                    sink.add(durations[i]);
+                    break;
+                case VARIABLE_DURATION:
+                    double duration = evaluate((Duration) items[i], nameEngine);
+                    sink.add(items[i] instanceof Flash ? duration : -duration);
+                    break;
+                case EXTENT:
+                    sink.addExtent(durations[i]);
+                    break;
+                case VARIABLE_EXTENT:
+                    sink.addExtent(evaluate((Duration) items[i], nameEngine));
+                    break;
+                case BITFIELD:
+                    renderBitField(sink, symbols[i], ((FiniteBitField) items[i]).toLong(nameEngine), widths[i]);
+                    break;
+                case ASSIGNMENT:
+                    ((Assignment) items[i]).assign(nameEngine);
+                    break;
+                default:
+                    throw new ThisCannotHappenException();
+            }
+        }
+        if (sink.length % 2 != 0)
+            throw new OddSequenceLengthException(sink.length);
+        return sink.length;
+    }
+
+    /**
+     * Upper bound of the number of durations rendered.
+     * @return
+     */
+    int getMaxLength() {
+        return maxLength;
+    }
+
+    private double evaluate(Duration duration, NameEngine nameEngine) throws NameUnassignedException {
+        try {
+            return duration.toFloat(generalSpec, nameEngine);
+        } catch (IrpInvalidArgumentException ex) {
+            throw new ThisCannotHappenException(ex);
+        }
+    }
+
+    /**
+     * Same chunking as {@link BitStream#evaluate(org.harctoolbox.ircore.IrSignal.Pass, org.harctoolbox.ircore.IrSignal.Pass, GeneralSpec, NameEngine, BitSpec)}:
+     * with msb the chunks are taken from the most significant end, with lsb from the least significant end.
+     */
+    private void renderBitField(Sink sink, Symbols symbols, long value, int width) {
+        int chunkSize = symbols.chunkSize;
+        int numberOfChunks = width / chunkSize;
+        long mask = (1L << chunkSize) - 1L;
+        boolean lsb = generalSpec.getBitDirection() == BitDirection.lsb;
+        for (int n = 0; n < numberOfChunks; n++) {
+            int shift = (lsb ? n : numberOfChunks - n - 1) * chunkSize;
+            int symbol = (int) ((value >>> shift) & mask);
+            for (double duration : symbols.durations[symbol])
+                sink.add(duration);
+        }
+    }
+
+    /**
+     * Compiled bit spec: signed durations of the symbols.
+     */
+    private static final class Symbols {
+
+        private final int chunkSize;
+        private final double[][] durations;
+        private final int longest;
+
+        Symbols(int chunkSize, double[][] durations) {
+            this.chunkSize = chunkSize;
+            this.durations = durations;
+            int max = 0;
+            if (durations != null)
+                for (double[] symbol : durations)
+                    max = Math.max(max, symbol.length);
+            this.longest = max;
+        }
+    }
+
+    /**
+     * Collects signed durations the way {@link EvaluatedIrStream#toIrSequence()} and
+     * {@link IrSequence#toInterleavingList(java.util.Collection)} do: zero durations are ignored,
+     * leading gaps are removed, and adjacent durations of the same sign are merged.
+     */
+    private static final class Sink {
+
+        private final double[] data;
+        private int length;
+        private double elapsed;
+
+        Sink(double[] data) {
+            this.data = data;
+            length = 0;
+            elapsed = 0.0;
+        }
+
+        void add(double time) {
+            if (Math.abs(time) < ZERO_DURATION) {
+                logger.warning("Zero duration ignored");
+                return;
+            }
+            elapsed += Math.abs(time);
+            append(time);
+        }
+
+        void addExtent(double extent) throws IrpInvalidArgumentException {
+            double time = extent - elapsed;
+            if (time < 0)
+                throw new IrpInvalidArgumentException("Argument of extent smaller than actual duration.");
+            if (time < ZERO_DURATION) {
+                logger.warning("Zero duration ignored");
+                return;
+            }
+            elapsed = 0.0;
+            append(-time);
+        }
+
+        private void append(double time) {
+            if (length == 0) {
+                if (time > 0)
+                    data[length++] = time;
+            } else if ((time < 0) == (data[length - 1] < 0))
+                data[length - 1] += time;
+            else
+                data[length++] = time;
+        }
+    }
+}
@@ -33,9 +33,14 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.harctoolbox.ircore.InvalidArgumentException;
 import org.harctoolbox.ircore.IrCoreUtils;
 import org.harctoolbox.ircore.IrSignal;
@@ -88,7 +93,66 @@ public final class Decoder {
         }
     }
 
+    /**
+     * Receiver of instrumentation events of a Decoder, see {@link #setListener(Listener)}.
+     * With a ForkJoinPool, the methods are called from several threads simultaneously.
+     * Implementations should be fast, since they are called from the inner loop of the decoder.
+     */
+    public interface Listener {
+
+        /**
+         * Called once for every IrSignal, or every position in a ModulatedIrSequence, being decoded.
+         * @param candidates Number of protocols that passed the prefilter, and will be tried.
+         * @param protocols Number of protocols in the Decoder.
+         */
+        public default void prefiltered(int candidates, int protocols) {
+        }
+
+        /**
+         * Called when a protocol matched.
+         * @param namedProtocol
+         * @param nanos Time used by the protocol, in nanoseconds.
+         */
+        public default void recognized(NamedProtocol namedProtocol, long nanos) {
+        }
+
+        /**
+         * Called when a protocol did not match.
+         * @param namedProtocol
+         * @param reason Exception thrown by the protocol. Its message should only be asked for when needed, since it is expensive.
+         * @param nanos Time used by the protocol, in nanoseconds.
+         */
+        public default void rejected(NamedProtocol namedProtocol, SignalRecognitionException reason, long nanos) {
+        }
+
+        /**
+         * Called when a decode is removed since another decode is preferred over it.
+         * @param winner Name of the remaining decode.
+         * @param loser Name of the removed decode.
+         */
+        public default void preferredOver(String winner, String loser) {
+        }
+
+        /**
+         * Called when the recursive decoder continues with the rest of a sequence.
+         * @param level Recursion depth, 1 for the first level.
+         */
+        public default void recursion(int level) {
+        }
+
+        /**
+         * Called when the recursive decoder looks up an earlier result for a protocol on a position.
+         * @param hit true if found, otherwise the protocol is tried.
+         */
+        public default void lookup(boolean hit) {
+        }
+    }
+
     private final Map<String, NamedProtocol> parsedProtocols;
+    private final ProtocolPrefilter prefilter;
+    private final ForkJoinPool forkJoinPool;
+    private volatile Listener listener;
+    private volatile AdaptiveOrdering adaptiveOrdering;
 
     public Decoder(IrpDatabase irpDatabase) throws IrpParseException {
         this(irpDatabase, null);
@@ -111,22 +175,80 @@ public final class Decoder {
 
     /**
      * This is the main constructor.
+     * If the data base has been precompiled (see {@link IrpDatabase#precompile()}), its parsed protocols are used.
      * @param irpDatabase will be expanded.
      * @param names If non-null and non-empty, include only the protocols with these names.
      * @throws org.harctoolbox.irp.IrpParseException
      */
     public Decoder(IrpDatabase irpDatabase, List<String> names) throws IrpParseException {
+        this(irpDatabase, names, null);
+    }
+
+    /**
+     * Constructor for a decoder trying the different protocols in parallel.
+     * The result is the same as for the sequential decoder.
+     * @param irpDatabase will be expanded.
+     * @param names If non-null and non-empty, include only the protocols with these names.
+     * @param forkJoinPool If non-null, protocols are tried in parallel, using this pool. Otherwise sequentially.
+     * @throws org.harctoolbox.irp.IrpParseException
+     */
+    public Decoder(IrpDatabase irpDatabase, List<String> names, ForkJoinPool forkJoinPool) throws IrpParseException {
+        this.forkJoinPool = forkJoinPool;
         parsedProtocols = new LinkedHashMap<>(irpDatabase.size());
         Collection<String> list = names != null ? names : irpDatabase.getKeys();
         list.forEach((protocolName) -> {
             try {
-                NamedProtocol namedProtocol = irpDatabase.getNamedProtocol(protocolName);
+                NamedProtocol namedProtocol = irpDatabase.getPrecompiledNamedProtocol(protocolName);
                 if (namedProtocol.isDecodeable())
                     parsedProtocols.put(protocolName, namedProtocol);
             } catch (NameUnassignedException | UnknownProtocolException | InvalidNameException | UnsupportedRepeatException | IrpInvalidArgumentException ex) {
                 throw new ThisCannotHappenException(ex);
             }
         });
+        prefilter = new ProtocolPrefilter(parsedProtocols.values());
+    }
+
+    /**
+     * Sets a receiver of instrumentation events, for example a {@link DecoderMetrics}.
+     * @param listener Listener, or null for none.
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public Listener getListener() {
+        return listener;
+    }
+
+    /**
+     * Turns the adaptive mode on or off. Off is the default.
+     * In adaptive mode, {@link #decodeIrSignal(IrSignal, DecoderParameters)} (and the functions using it)
+     * tries the protocols in the order of their number of recent matches, and stops as soon as it has found a decode that cannot be removed
+     * by prefer-over by the other decodes found, provided that none of the remaining protocols precedes it in the data base order,
+     * nor can remove any of the decodes found by prefer-over.
+     * The preferred decode is thus the same as in the normal mode, and the decodes returned are also returned in the normal mode.
+     * Alternative decodes from the remaining protocols, not subject to prefer-over, are possibly not found;
+     * if all protocols had to be tried, the result is identical to the normal mode.
+     * If the traffic is dominated by a few protocols, the typical decoding time is reduced considerably.
+     *
+     * The adaptive mode is not used with {@link DecoderParameters#isAllDecodes()}, nor for decoding ModulatedIrSequences.
+     * It tries the protocols sequentially, also if a ForkJoinPool has been given.
+     * Turning it on (again) clears the statistics.
+     * @param adaptive
+     */
+    public void setAdaptive(boolean adaptive) {
+        adaptiveOrdering = adaptive ? new AdaptiveOrdering(parsedProtocols) : null;
+    }
+
+    public boolean isAdaptive() {
+        return adaptiveOrdering != null;
+    }
+
+    /**
+     * For testing.
+     */
+    AdaptiveOrdering getAdaptiveOrdering() {
+        return adaptiveOrdering;
     }
 
     /**
@@ -136,49 +258,62 @@ public final class Decoder {
      * @return List of decodes.
      */
     public DecodeTree decode(ModulatedIrSequence irSequence, DecoderParameters userSuppliedDecoderParameters) {
-        Map<Integer, Map<String, TrunkDecodeTree>> map = new HashMap<>(16);
-        DecodeTree decodes = decode(irSequence, 0, userSuppliedDecoderParameters, 0, map);
+        return decode(irSequence, userSuppliedDecoderParameters, prefilter.select(userSuppliedDecoderParameters));
+    }
+
+    private DecodeTree decode(ModulatedIrSequence irSequence, DecoderParameters userSuppliedDecoderParameters, ProtocolPrefilter.Selection selection) {
+        Map<Integer, Map<String, TrunkDecodeTree>> map = new ConcurrentHashMap<>(16);
+        DecodeTree decodes = decode(irSequence, 0, userSuppliedDecoderParameters, selection, 0, map);
         if (decodes.isEmpty() && userSuppliedDecoderParameters.isIgnoreLeadingGarbage()) {
             int newStart = irSequence.firstBigGap(0, userSuppliedDecoderParameters.getMinimumLeadout()) + 1;
-            return newStart > 0 ? decode(irSequence, newStart, userSuppliedDecoderParameters, 0, map) : decodes;
+            return newStart > 0 ? decode(irSequence, newStart, userSuppliedDecoderParameters, selection, 0, map) : decodes;
         } else
             return decodes;
     }
 
-    private DecodeTree decode(ModulatedIrSequence irSequence, int position, DecoderParameters userSuppliedDecoderParameters, int level, Map<Integer, Map<String, TrunkDecodeTree>>map) {
-        logger.log(Level.FINE, String.format("level = %1$d position = %2$d", level, position));
+    private DecodeTree decode(ModulatedIrSequence irSequence, int position, DecoderParameters userSuppliedDecoderParameters, ProtocolPrefilter.Selection selection,
+            int level, Map<Integer, Map<String, TrunkDecodeTree>>map) {
+        if (logger.isLoggable(Level.FINE))
+            logger.log(Level.FINE, String.format("level = %1$d position = %2$d", level, position));
         DecodeTree decodeTree = new DecodeTree(irSequence.getLength() - position);
         if (decodeTree.length == 0)
             return decodeTree;
 
-        parsedProtocols.values().forEach((namedProtocol) -> {
+        Listener currentListener = listener;
+        List<ProtocolPrefilter.Candidate> candidates = selection.candidates(irSequence, position);
+        if (currentListener != null)
+            currentListener.prefiltered(candidates.size(), parsedProtocols.size());
+        List<TrunkDecodeTree> decodes = tryProtocols(candidates, (candidate) -> {
+            NamedProtocol namedProtocol = candidate.getProtocol();
             try {
                 if (debugProtocolNamePattern != null)
                     if (debugProtocolNamePattern.matcher(namedProtocol.getName().toLowerCase(Locale.US)).matches())
                         // This is intended to put a debugger breakpoint here
                         logger.log(Level.FINEST, "Trying protocol {0}", namedProtocol.getName());
-                TrunkDecodeTree decode;
                 Map<String, TrunkDecodeTree> p = map.get(position);
-                if (p != null && p.containsKey(namedProtocol.getName())) {
-                    decode = p.get(namedProtocol.getName());
-                } else {
-                    decode = tryNamedProtocol(namedProtocol, irSequence, position, userSuppliedDecoderParameters, level, map);
-                    if (!map.containsKey(position)) {
-                        map.put(position, new HashMap<>(4));
-                    }
-                    map.get(position).put(namedProtocol.getName(), decode);
+                TrunkDecodeTree decode = p != null ? p.get(namedProtocol.getName()) : null;
+                if (currentListener != null && level > 0)
+                    currentListener.lookup(decode != null);
+                if (decode == null) {
+                    decode = tryNamedProtocol(candidate, irSequence, position, userSuppliedDecoderParameters, selection, level, map, currentListener);
+                    map.computeIfAbsent(position, (pos) -> new ConcurrentHashMap<>(4)).put(namedProtocol.getName(), decode);
                 }
-                decodeTree.add(decode);
+                return decode;
             } catch (SignalRecognitionException ex) {
-                logger.log(Level.FINER, String.format("Protocol %1$s did not decode: %2$s", namedProtocol.getName(), ex.getMessage()));
+                if (logger.isLoggable(Level.FINER))
+                    logger.log(Level.FINER, String.format("Protocol %1$s did not decode: %2$s", namedProtocol.getName(), ex.getMessage()));
             } catch (NamedProtocol.ProtocolNotDecodableException ex) {
             }
+            return null;
+        });
+        decodes.forEach((decode) -> {
+            decodeTree.add(decode);
         });
 
         if (userSuppliedDecoderParameters.isAllDecodes()) {
             decodeTree.computePreferred(parsedProtocols);
         } else {
-            decodeTree.reduce(parsedProtocols);
+            decodeTree.reduce(parsedProtocols, currentListener);
             if (decodeTree.isComplete())
                 decodeTree.removeIncompletes();
         }
@@ -186,18 +321,49 @@ public final class Decoder {
         return decodeTree;
     }
 
-    private TrunkDecodeTree tryNamedProtocol(NamedProtocol namedProtocol, ModulatedIrSequence irSequence, int position, DecoderParameters userSuppliedDecoderParameters, int level, Map<Integer, Map<String, TrunkDecodeTree>>map)
+    private TrunkDecodeTree tryNamedProtocol(ProtocolPrefilter.Candidate candidate, ModulatedIrSequence irSequence, int position, DecoderParameters userSuppliedDecoderParameters,
+            ProtocolPrefilter.Selection selection, int level, Map<Integer, Map<String, TrunkDecodeTree>>map, Listener currentListener)
             throws SignalRecognitionException, NamedProtocol.ProtocolNotDecodableException {
-        Decode decode = namedProtocol.recognize(irSequence, position, userSuppliedDecoderParameters);
+        Decode decode;
+        if (currentListener == null)
+            decode = candidate.getProtocol().recognizeSelected(irSequence, position, candidate.getParameters());
+        else {
+            long start = System.nanoTime();
+            try {
+                decode = candidate.getProtocol().recognizeSelected(irSequence, position, candidate.getParameters());
+            } catch (SignalRecognitionException ex) {
+                currentListener.rejected(candidate.getProtocol(), ex, System.nanoTime() - start);
+                throw ex;
+            }
+            currentListener.recognized(candidate.getProtocol(), System.nanoTime() - start);
+        }
         if (userSuppliedDecoderParameters.isRemoveDefaultedParameters())
             decode.removeDefaulteds();
         if (!userSuppliedDecoderParameters.recursive || decode.endPos == irSequence.getLength() - 1)
             return new TrunkDecodeTree(decode, irSequence.getLength());
 
-        DecodeTree rest = decode(irSequence, decode.getEndPos() + 1, userSuppliedDecoderParameters, level + 1, map);
+        if (currentListener != null)
+            currentListener.recursion(level + 1);
+
+        DecodeTree rest = decode(irSequence, decode.getEndPos() + 1, userSuppliedDecoderParameters, selection, level + 1, map);
         return new TrunkDecodeTree(decode, rest);
     }
 
+    /**
+     * Applies the function to the protocols given, in parallel if a ForkJoinPool is present, otherwise sequentially.
+     * Null results (non-decodes) are removed. The order of the result follows the order of the argument,
+     * thus does not depend on the scheduling.
+     */
+    private <T> List<T> tryProtocols(List<ProtocolPrefilter.Candidate> protocols, Function<ProtocolPrefilter.Candidate, T> function) {
+        if (forkJoinPool == null || protocols.size() < 2) {
+            List<T> result = new ArrayList<>(8);
+            protocols.stream().map(function).filter(Objects::nonNull).forEachOrdered(result::add);
+            return result;
+        }
+
+        return forkJoinPool.submit(() -> protocols.parallelStream().map(function).filter(Objects::nonNull).collect(Collectors.toList())).join();
+    }
+
     // Decoding an IrSignal is pretty different from decoding an IrSequence.
     // For example, the return type is completely different.
     // Therefore use different names; do not call all "decode".
@@ -215,30 +381,46 @@ public final class Decoder {
      * @return Map of decodes with protocol name as key.
      */
     public SimpleDecodesSet decodeIrSignal(IrSignal irSignal, DecoderParameters parameters) {
-        List<Decode> decodes = new ArrayList<>(8);
-        parsedProtocols.values().forEach((NamedProtocol namedProtocol) -> {
+        return decodeIrSignal(irSignal, parameters, prefilter.select(parameters));
+    }
+
+    private SimpleDecodesSet decodeIrSignal(IrSignal irSignal, DecoderParameters parameters, ProtocolPrefilter.Selection selection) {
+        Listener currentListener = listener;
+        List<ProtocolPrefilter.Candidate> candidates = selection.candidates(irSignal);
+        if (currentListener != null)
+            currentListener.prefiltered(candidates.size(), parsedProtocols.size());
+        AdaptiveOrdering adaptive = parameters.isAllDecodes() ? null : adaptiveOrdering;
+        Function<ProtocolPrefilter.Candidate, Decode> function = (candidate) -> {
+            NamedProtocol namedProtocol = candidate.getProtocol();
+            long start = currentListener != null ? System.nanoTime() : 0L;
             try {
                 if (debugProtocolNamePattern != null)
                     if (debugProtocolNamePattern.matcher(namedProtocol.getName().toLowerCase(Locale.US)).matches())
                         // This is intended to put a debugger breakpoint here
                         logger.log(Level.FINEST, "Trying protocol {0}", namedProtocol.getName());
-                Map<String, Long> params = namedProtocol.recognize(irSignal, parameters);
+                Map<String, Long> params = namedProtocol.recognizeSelected(irSignal, candidate.getParameters());
+                if (currentListener != null)
+                    currentListener.recognized(namedProtocol, System.nanoTime() - start);
                 if (parameters.isRemoveDefaultedParameters())
                     namedProtocol.removeDefaulteds(params);
-                Decode decode = new Decode(namedProtocol, params);
-                decodes.add(decode);
+                return new Decode(namedProtocol, params);
             } catch (/*DomainViolationException |*/ SignalRecognitionException ex) {
-                logger.log(Level.FINE, String.format("Protocol %1$s did not decode: %2$s", namedProtocol.getName(), ex.getMessage()));
+                if (currentListener != null)
+                    currentListener.rejected(namedProtocol, ex, System.nanoTime() - start);
+                if (logger.isLoggable(Level.FINE))
+                    logger.log(Level.FINE, String.format("Protocol %1$s did not decode: %2$s", namedProtocol.getName(), ex.getMessage()));
+                return null;
             } catch (NamedProtocol.ProtocolNotDecodableException ex) {
                 throw new ThisCannotHappenException();
             }
-        });
+        };
+        List<Decode> decodes = adaptive != null ? adaptive.tryProtocols(candidates, function) : tryProtocols(candidates, function);
         SimpleDecodesSet simpleDecodesSet = new SimpleDecodesSet(decodes);
 
         if (parameters.isAllDecodes())
             simpleDecodesSet.computePreferred(parsedProtocols);
         else
-            simpleDecodesSet.reduce(parsedProtocols);
+            simpleDecodesSet.reduce(parsedProtocols, currentListener);
         simpleDecodesSet.sort();
         return simpleDecodesSet;
     }
@@ -255,12 +437,67 @@ public final class Decoder {
         return parsedProtocols.values();
     }
 
+    /**
+     * Decodes several IrSignals, using the same parameters.
+     * Equivalent to calling {@link #decodeIrSignal(IrSignal, DecoderParameters)} for each of the signals,
+     * but the protocol specific parameters are resolved only once.
+     * If the Decoder has a ForkJoinPool, the signals are decoded in parallel.
+     * @param irSignals Input data
+     * @param parameters
+     * @return List of decodes, in the order of the input.
+     */
+    public List<SimpleDecodesSet> decodeBatch(Iterable<IrSignal> irSignals, DecoderParameters parameters) {
+        ProtocolPrefilter.Selection selection = prefilter.select(parameters);
+        return processBatch(irSignals, (irSignal) -> decodeIrSignal(irSignal, parameters, selection));
+    }
+
+    /**
+     * Streaming version of {@link #decodeBatch(Iterable, DecoderParameters)}.
+     * The input is processed lazily; parallel processing is controlled by the argument stream.
+     * @param irSignals Input data
+     * @param parameters
+     * @return Stream of decodes, in the order of the input, provided it is ordered.
+     */
+    public Stream<SimpleDecodesSet> decodeBatch(Stream<IrSignal> irSignals, DecoderParameters parameters) {
+        ProtocolPrefilter.Selection selection = prefilter.select(parameters);
+        return irSignals.map((irSignal) -> decodeIrSignal(irSignal, parameters, selection));
+    }
+
+    /**
+     * Version of {@link #decodeBatch(Iterable, DecoderParameters)} using {@link #decodeLoose(IrSignal, DecoderParameters)}.
+     * @param irSignals Input data
+     * @param decoderParams
+     * @return List of decodes, in the order of the input.
+     */
+    public List<AbstractDecodesCollection<? extends ElementaryDecode>> decodeLooseBatch(Iterable<IrSignal> irSignals, DecoderParameters decoderParams) {
+        ProtocolPrefilter.Selection selection = prefilter.select(decoderParams);
+        return processBatch(irSignals, (irSignal) -> decodeLoose(irSignal, decoderParams, selection));
+    }
+
+    private <T> List<T> processBatch(Iterable<IrSignal> irSignals, Function<IrSignal, T> function) {
+        List<IrSignal> list = new ArrayList<>(64);
+        irSignals.forEach(list::add);
+        if (forkJoinPool == null) {
+            List<T> result = new ArrayList<>(list.size());
+            list.forEach((irSignal) -> {
+                result.add(function.apply(irSignal));
+            });
+            return result;
+        }
+
+        return forkJoinPool.submit(() -> list.parallelStream().map(function).collect(Collectors.toList())).join();
+    }
+
     public AbstractDecodesCollection<? extends ElementaryDecode> decodeLoose(IrSignal irSignal, DecoderParameters decoderParams) {
+        return decodeLoose(irSignal, decoderParams, prefilter.select(decoderParams));
+    }
+
+    private AbstractDecodesCollection<? extends ElementaryDecode> decodeLoose(IrSignal irSignal, DecoderParameters decoderParams, ProtocolPrefilter.Selection selection) {
         if (decoderParams.ignoreLeadingGarbage || (!decoderParams.strict && (irSignal.introOnly() || irSignal.repeatOnly()))) {
             ModulatedIrSequence sequence = irSignal.toModulatedIrSequence();
-            return decode(sequence, decoderParams);
+            return decode(sequence, decoderParams, selection);
         } else
-            return decodeIrSignal(irSignal, decoderParams);
+            return decodeIrSignal(irSignal, decoderParams, selection);
     }
 
     public AbstractDecodesCollection<? extends ElementaryDecode> decodeIrSignalWithFallback(IrSignal irSignal, DecoderParameters decoderParams) {
@@ -522,19 +759,25 @@ public final class Decoder {
          * Manipulates its argument, removing some decodes.
          *
          * @param parsedProtocols
+         * @param listener if non-null, is informed on the removals.
          */
-        void reduce(Map<String, NamedProtocol> parsedProtocols) {
+        void reduce(Map<String, NamedProtocol> parsedProtocols, Listener listener) {
             Map<String, T> old = new HashMap<>(map);
-            for (Map.Entry<String, T> kvp : old.entrySet())
-                if (toBeRemoved(kvp.getValue(), parsedProtocols))
+            for (Map.Entry<String, T> kvp : old.entrySet()) {
+                T remover = remover(kvp.getValue(), parsedProtocols);
+                if (remover != null) {
                     map.remove(kvp.getKey());
+                    if (listener != null)
+                        listener.preferredOver(remover.getName(), kvp.getKey());
+                }
+            }
             Iterator<T> it = map.values().iterator();
             preferred = it.hasNext() ? it.next() : null;
         }
 
         void computePreferred(Map<String, NamedProtocol> parsedProtocols) {
             for (T decode : map.values()) {
-                if (!toBeRemoved(decode, parsedProtocols)) {
+                if (remover(decode, parsedProtocols) == null) {
                     preferred = decode;
                     return;
                 }
@@ -542,18 +785,18 @@ public final class Decoder {
         }
 
         /**
-         * Returns true if any of the NamedProtocols in the second argument is prefered-over the first.
+         * Returns a decode in the collection that is prefered-over the first argument, or null if there is none.
          * @param removeCandidate
          * @param parsedProtocols
          * @return
          */
-        private boolean toBeRemoved(T removeCandidate, Map<String, NamedProtocol> parsedProtocols) {
+        private T remover(T removeCandidate, Map<String, NamedProtocol> parsedProtocols) {
             for (T remover : map.values()) {
                 if (!remover.equals(removeCandidate))
                     if (toBeRemoved(removeCandidate, remover, parsedProtocols, 0))
-                        return true;
+                        return remover;
             }
-            return false;
+            return null;
         }
 
         private boolean toBeRemoved(T removeCandidate, HasPreferOvers remover, Map<String, NamedProtocol> parsedProtocols, int level) {
@@ -562,12 +805,14 @@ public final class Decoder {
                 return false;
             }
 
-            logger.log(Level.FINEST, "Is {0} to be removed from {1}, level {2}", new Object[]{removeCandidate.getName(), remover.getName(), level});
+            if (logger.isLoggable(Level.FINEST))
+                logger.log(Level.FINEST, "Is {0} to be removed from {1}, level {2}", new Object[]{removeCandidate.getName(), remover.getName(), level});
             Set<String> preferOvers = remover.getPreferOverNames();
             boolean remove = preferOvers.contains(removeCandidate.getName());
             if (remove) {
-                logger.log(Level.FINE, "Decode {0} removed by {1}",
-                        new Object[]{removeCandidate.getName(), remover.getName()});
+                if (logger.isLoggable(Level.FINE))
+                    logger.log(Level.FINE, "Decode {0} removed by {1}",
+                            new Object[]{removeCandidate.getName(), remover.getName()});
                 return true;
             } else {
                 for (String preferOver : preferOvers) {
@@ -938,21 +1183,21 @@ public final class Decoder {
         /**
          * @return the begPos
          */
-        int getBegPos() {
+        public int getBegPos() {
             return begPos;
         }
 
         /**
          * @return the endPos
          */
-        int getEndPos() {
+        public int getEndPos() {
             return endPos;
         }
 
         /**
          * @return the numberOfRepetitions
          */
-        int getNumberOfRepetitions() {
+        public int getNumberOfRepetitions() {
             return numberOfRepetitions;
         }
 
@@ -0,0 +1,343 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irp;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects per-protocol statistics of a {@link Decoder}: how often each protocol is tried, matches, does not match,
+ * and is removed by, or wins, the prefer-over reduction, together with a latency histogram.
+ * Also the effect of the prefilter, the rejection reasons, the recursion depths of recursive decodes,
+ * and the hit rate of the lookup of earlier results in recursive decodes are collected.
+ * Intended for tuning the protocol list given to the Decoder.
+ *
+ * <p>Usage: {@code decoder.setListener(metrics)}. Instances are thread safe.
+ */
+public final class DecoderMetrics implements Decoder.Listener {
+
+    /**
+     * Number of buckets in the latency histograms. Bucket i contains the times t (in nanoseconds)
+     * with 2<sup>i</sup> &le; t &lt; 2<sup>i+1</sup>, the last one also all longer times.
+     */
+    public static final int NUMBER_OF_BUCKETS = 32;
+
+    private static int bucket(long nanos) {
+        return Math.min(63 - Long.numberOfLeadingZeros(Math.max(nanos, 1L)), NUMBER_OF_BUCKETS - 1);
+    }
+
+    private final Map<String, ProtocolMetrics> protocols;
+    private final Map<String, LongAdder> rejectionReasons;
+    private final LongAdder decodes;
+    private final LongAdder candidates;
+    private final LongAdder prefilteredOut;
+    private final LongAdder recursions;
+    private final LongAccumulator maxRecursionDepth;
+    private final LongAdder lookupHits;
+    private final LongAdder lookupMisses;
+
+    public DecoderMetrics() {
+        protocols = new ConcurrentHashMap<>(64);
+        rejectionReasons = new ConcurrentHashMap<>(4);
+        decodes = new LongAdder();
+        candidates = new LongAdder();
+        prefilteredOut = new LongAdder();
+        recursions = new LongAdder();
+        maxRecursionDepth = new LongAccumulator(Math::max, 0L);
+        lookupHits = new LongAdder();
+        lookupMisses = new LongAdder();
+    }
+
+    private ProtocolMetrics metrics(String name) {
+        ProtocolMetrics metrics = protocols.get(name);
+        return metrics != null ? metrics : protocols.computeIfAbsent(name, ProtocolMetrics::new);
+    }
+
+    @Override
+    public void prefiltered(int candidates, int protocols) {
+        decodes.increment();
+        this.candidates.add(candidates);
+        prefilteredOut.add(protocols - candidates);
+    }
+
+    @Override
+    public void recognized(NamedProtocol namedProtocol, long nanos) {
+        ProtocolMetrics metrics = metrics(namedProtocol.getName());
+        metrics.recognized.increment();
+        metrics.time(nanos);
+    }
+
+    @Override
+    public void rejected(NamedProtocol namedProtocol, SignalRecognitionException reason, long nanos) {
+        ProtocolMetrics metrics = metrics(namedProtocol.getName());
+        metrics.rejected.increment();
+        metrics.time(nanos);
+        String reasonName = reason.getClass().getSimpleName();
+        LongAdder adder = rejectionReasons.get(reasonName);
+        (adder != null ? adder : rejectionReasons.computeIfAbsent(reasonName, (key) -> new LongAdder())).increment();
+    }
+
+    @Override
+    public void preferredOver(String winner, String loser) {
+        metrics(winner).wins.increment();
+        metrics(loser).removed.increment();
+    }
+
+    @Override
+    public void recursion(int level) {
+        recursions.increment();
+        maxRecursionDepth.accumulate(level);
+    }
+
+    @Override
+    public void lookup(boolean hit) {
+        (hit ? lookupHits : lookupMisses).increment();
+    }
+
+    /**
+     * Returns the statistics of the protocol with the given name, or null if it has not been tried.
+     * @param name
+     * @return
+     */
+    public ProtocolMetrics getProtocolMetrics(String name) {
+        return protocols.get(name);
+    }
+
+    /**
+     * Returns the statistics of all protocols tried, the most time consuming first.
+     * @return
+     */
+    public List<ProtocolMetrics> getProtocolMetrics() {
+        List<ProtocolMetrics> result = new ArrayList<>(protocols.values());
+        Collections.sort(result, (a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()));
+        return result;
+    }
+
+    /**
+     * Returns the number of rejections per exception type.
+     * @return
+     */
+    public Map<String, Long> getRejectionReasons() {
+        Map<String, Long> result = new TreeMap<>();
+        rejectionReasons.forEach((reason, count) -> result.put(reason, count.sum()));
+        return result;
+    }
+
+    /**
+     * Number of decoded IrSignals, and positions in ModulatedIrSequences.
+     * @return
+     */
+    public long getDecodes() {
+        return decodes.sum();
+    }
+
+    /**
+     * Number of protocols tried, summed over all decodes.
+     * @return
+     */
+    public long getCandidates() {
+        return candidates.sum();
+    }
+
+    /**
+     * Number of protocols not tried due to the prefilter, summed over all decodes.
+     * @return
+     */
+    public long getPrefilteredOut() {
+        return prefilteredOut.sum();
+    }
+
+    public long getRecursions() {
+        return recursions.sum();
+    }
+
+    public long getMaxRecursionDepth() {
+        return maxRecursionDepth.get();
+    }
+
+    public long getLookupHits() {
+        return lookupHits.sum();
+    }
+
+    public long getLookupMisses() {
+        return lookupMisses.sum();
+    }
+
+    /**
+     * Fraction of the lookups in recursive decodes that found an earlier result, or NaN if there have been none.
+     * @return
+     */
+    public double getLookupHitRate() {
+        long hits = getLookupHits();
+        long total = hits + getLookupMisses();
+        return total > 0 ? (double) hits / total : Double.NaN;
+    }
+
+    /**
+     * Clears all statistics.
+     */
+    public void reset() {
+        protocols.clear();
+        rejectionReasons.clear();
+        decodes.reset();
+        candidates.reset();
+        prefilteredOut.reset();
+        recursions.reset();
+        maxRecursionDepth.reset();
+        lookupHits.reset();
+        lookupMisses.reset();
+    }
+
+    /**
+     * Prints a table of the per-protocol statistics, the most time consuming protocol first, followed by a summary.
+     * @param out
+     */
+    public void print(PrintStream out) {
+        out.println(String.format(Locale.US, "%-24s %9s %9s %9s %9s %9s %11s %9s %9s %9s",
+                "protocol", "attempts", "matches", "rejects", "wins", "removed", "total[ms]", "mean[us]", "p50[us]", "p99[us]"));
+        getProtocolMetrics().forEach((metrics) -> {
+            out.println(String.format(Locale.US, "%-24s %9d %9d %9d %9d %9d %11.3f %9.2f %9.2f %9.2f",
+                    metrics.getName(), metrics.getAttempts(), metrics.getRecognized(), metrics.getRejected(),
+                    metrics.getWins(), metrics.getRemoved(), metrics.getTotalNanos() / 1e6, metrics.getMeanNanos() / 1e3,
+                    metrics.getPercentileNanos(0.5) / 1e3, metrics.getPercentileNanos(0.99) / 1e3));
+        });
+        long numberDecodes = getDecodes();
+        out.println(String.format(Locale.US, "decodes: %d, protocols tried per decode: %.2f, prefiltered out per decode: %.2f",
+                numberDecodes, numberDecodes > 0 ? (double) getCandidates() / numberDecodes : 0.0,
+                numberDecodes > 0 ? (double) getPrefilteredOut() / numberDecodes : 0.0));
+        out.println("rejection reasons: " + getRejectionReasons());
+        out.println(String.format(Locale.US, "recursions: %d, max depth: %d, lookups: %d, hit rate: %.3f",
+                getRecursions(), getMaxRecursionDepth(), getLookupHits() + getLookupMisses(), getLookupHitRate()));
+    }
+
+    /**
+     * Statistics of one protocol.
+     */
+    public static final class ProtocolMetrics {
+
+        private final String name;
+        private final LongAdder recognized;
+        private final LongAdder rejected;
+        private final LongAdder wins;
+        private final LongAdder removed;
+        private final LongAdder totalNanos;
+        private final AtomicLongArray histogram;
+
+        private ProtocolMetrics(String name) {
+            this.name = name;
+            recognized = new LongAdder();
+            rejected = new LongAdder();
+            wins = new LongAdder();
+            removed = new LongAdder();
+            totalNanos = new LongAdder();
+            histogram = new AtomicLongArray(NUMBER_OF_BUCKETS);
+        }
+
+        private void time(long nanos) {
+            totalNanos.add(nanos);
+            histogram.incrementAndGet(bucket(nanos));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getAttempts() {
+            return getRecognized() + getRejected();
+        }
+
+        public long getRecognized() {
+            return recognized.sum();
+        }
+
+        public long getRejected() {
+            return rejected.sum();
+        }
+
+        /**
+         * Number of times a decode of this protocol caused another decode to be removed by prefer-over.
+         * @return
+         */
+        public long getWins() {
+            return wins.sum();
+        }
+
+        /**
+         * Number of times a decode of this protocol was removed by prefer-over.
+         * @return
+         */
+        public long getRemoved() {
+            return removed.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public double getMeanNanos() {
+            long attempts = getAttempts();
+            return attempts > 0 ? (double) getTotalNanos() / attempts : 0.0;
+        }
+
+        /**
+         * Returns the latency histogram, see {@link #NUMBER_OF_BUCKETS}.
+         * @return
+         */
+        public long[] getHistogram() {
+            long[] result = new long[NUMBER_OF_BUCKETS];
+            for (int i = 0; i < NUMBER_OF_BUCKETS; i++)
+                result[i] = histogram.get(i);
+            return result;
+        }
+
+        /**
+         * Returns an upper bound of the given percentile of the latency, within a factor of 2.
+         * @param fraction between 0 and 1.
+         * @return nanoseconds
+         */
+        public long getPercentileNanos(double fraction) {
+            long[] counts = getHistogram();
+            long total = 0L;
+            for (long count : counts)
+                total += count;
+            long limit = (long) Math.ceil(fraction * total);
+            long sum = 0L;
+            for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+                sum += counts[i];
+                if (sum >= limit && sum > 0)
+                    return 1L << (i + 1);
+            }
+            return 0L;
+        }
+
+        @Override
+        public String toString() {
+            return name + "{attempts=" + getAttempts() + ", matches=" + getRecognized() + ", rejects=" + getRejected()
+                    + ", wins=" + getWins() + ", removed=" + getRemoved() + ", totalNanos=" + getTotalNanos() + "}";
+        }
+    }
+}
@@ -74,11 +74,13 @@ public abstract class Duration extends IrpObject implements IrStreamItem, Floata
         return index % 2 == 0;
     }
 
-    protected Double us = null;
-    protected Double time_periods = null;
-    protected Double time_units = null;
     protected NameOrNumber nameOrNumber = null;
     protected String unit = null;
+
+    /**
+     * Cache of the value of a numeric duration, which depends only on the GeneralSpec.
+     */
+    private transient volatile Evaluation evaluation = null;
     //protected ParserRuleContext parseTree = null;
 
     protected Duration(double d, String unit) {
@@ -111,9 +113,6 @@ public abstract class Duration extends IrpObject implements IrStreamItem, Floata
     @Override
     public int hashCode() {
         int hash = 5;
-        hash = 43 * hash + IrCoreUtils.hashForDouble(this.us);
-        hash = 43 * hash + IrCoreUtils.hashForDouble(this.time_periods);
-        hash = 43 * hash + IrCoreUtils.hashForDouble(this.time_units);
         hash = 43 * hash + Objects.hashCode(this.nameOrNumber);
         hash = 43 * hash + Objects.hashCode(this.unit);
         return hash;
@@ -126,61 +125,40 @@ public abstract class Duration extends IrpObject implements IrStreamItem, Floata
 
         Duration other = (Duration) obj;
         return unit.equals(other.unit)
-                && IrCoreUtils.approximatelyEquals(us, other.us)
-                && IrCoreUtils.approximatelyEquals(time_periods, other.time_periods)
-                && IrCoreUtils.approximatelyEquals(time_units, other.time_units)
                 && nameOrNumber.equals(other.nameOrNumber);
     }
 
-    private void compute(GeneralSpec generalSpec, NameEngine nameEngine) throws NameUnassignedException, IrpInvalidArgumentException {
-        double time = nameOrNumber.toFloat(generalSpec, nameEngine);
-
-        switch (unit) {
-            case "p":
-                time_periods = time;
-                break;
-            case "m":
-                us = IrCoreUtils.milliseconds2microseconds(time);
-                break;
-            case "u":
-                us = time;
-                break;
-            default:
-                time_units = time;
-                break;
-        }
-    }
-
-    @SuppressWarnings("null")
     private double multiplicator(GeneralSpec generalSpec) {
-        Objects.requireNonNull(time_units);
         return unit.equals("p") ? IrCoreUtils.seconds2microseconds(1/generalSpec.getFrequencyWitDefault())
                 : unit.equals("m") ? 1000
                 : unit.equals("u") ? 1
-                : time_units;
+                : generalSpec.getUnit();
     }
 
     public abstract double evaluateWithSign(GeneralSpec generalSpec, NameEngine nameEngine, double elapsed) throws NameUnassignedException, IrpInvalidArgumentException;
 
     public double evaluate(GeneralSpec generalSpec, NameEngine nameEngine, double elapsed) throws NameUnassignedException, IrpInvalidArgumentException {
-        compute(generalSpec, nameEngine);
-        if (time_periods != null) {
-            if (generalSpec == null)
-                return DUMMYTIMEUNIT;
-            else if (generalSpec.getFrequencyWitDefault()> 0)
-                return IrCoreUtils.seconds2microseconds(time_periods/generalSpec.getFrequencyWitDefault());
-            else
-                throw new ThisCannotHappenException("Units in p and frequency == 0 do not go together.");
-
-        } else if (time_units != null) {
-            if (generalSpec == null)
-                return time_units * DUMMYTIMEUNIT;
-            if (generalSpec.getUnit() > 0)
-                return time_units * generalSpec.getUnit();
-            else
-                throw new ThisCannotHappenException("Relative units and unit == 0 do not go together.");
-        } else {
-            return us;
+        // Do not store intermediate results in the object; it may be used by several threads simultaneously.
+        double time = nameOrNumber.toFloat(generalSpec, nameEngine);
+        switch (unit) {
+            case "p":
+                if (generalSpec == null)
+                    return DUMMYTIMEUNIT;
+                else if (generalSpec.getFrequencyWitDefault() > 0)
+                    return IrCoreUtils.seconds2microseconds(time / generalSpec.getFrequencyWitDefault());
+                else
+                    throw new ThisCannotHappenException("Units in p and frequency == 0 do not go together.");
+            case "m":
+                return IrCoreUtils.milliseconds2microseconds(time);
+            case "u":
+                return time;
+            default:
+                if (generalSpec == null)
+                    return time * DUMMYTIMEUNIT;
+                if (generalSpec.getUnit() > 0)
+                    return time * generalSpec.getUnit();
+                else
+                    throw new ThisCannotHappenException("Relative units and unit == 0 do not go together.");
         }
     }
 
@@ -208,6 +186,22 @@ public abstract class Duration extends IrpObject implements IrStreamItem, Floata
         return evaluate(generalSpec, nameEngine, 0f);
     }
 
+    /**
+     * Version of {@link #toFloat(GeneralSpec, NameEngine)} for the recognition, where durations are evaluated
+     * for every attempt. If the duration is a number, the value is computed only once for a GeneralSpec.
+     */
+    double toFloatCached(GeneralSpec generalSpec, NameEngine nameEngine) throws NameUnassignedException, IrpInvalidArgumentException {
+        if (!nameOrNumber.isNumber())
+            return toFloat(generalSpec, nameEngine);
+
+        Evaluation cached = evaluation;
+        if (cached == null || cached.generalSpec != generalSpec) {
+            cached = new Evaluation(generalSpec, toFloat(generalSpec, null));
+            evaluation = cached;
+        }
+        return cached.value;
+    }
+
     @Override
     public void render(RenderData renderData, List<BitSpec> bitSpecs) throws NameUnassignedException {
         try {
@@ -219,19 +213,19 @@ public abstract class Duration extends IrpObject implements IrStreamItem, Floata
 
     @Override
     public void decode(RecognizeData recognizeData, List<BitSpec> bitSpecStack, boolean isLast) throws SignalRecognitionException {
-        logger.log(recognizeData.logRecordEnter(this));
+        recognizeData.logEnter(logger, this);
         if (!recognizeData.check(isOn()))
             throw new SignalRecognitionException("Either end of sequence, or found flash when gap expected, or vice versa");
 
         double actual = recognizeData.get();
         double wanted;
         try {
-            wanted = toFloat(recognizeData.getGeneralSpec(), recognizeData.getNameEngine());
+            wanted = toFloatCached(recognizeData.getGeneralSpec(), recognizeData.getNameEngine());
         } catch (IrpInvalidArgumentException | NameUnassignedException ex) {
             throw new SignalRecognitionException(ex);
         }
         recognize(recognizeData, actual, wanted, isLast);
-        logger.log(recognizeData.logRecordExit(this));
+        recognizeData.logExit(logger, this);
     }
 
     @Override
@@ -273,15 +267,17 @@ public abstract class Duration extends IrpObject implements IrStreamItem, Floata
     }
 
     protected void recognize(RecognizeData recognizeData, double actual, double wanted, boolean isLast) throws SignalRecognitionException {
-        boolean equals = IrCoreUtils.approximatelyEquals(actual, wanted, recognizeData.getAbsoluteTolerance(), recognizeData.getRelativeTolerance());
+        boolean equals = IrCoreUtils.withinTolerance(actual, wanted, recognizeData.getAbsoluteTolerance(), recognizeData.getRelativeTolerance());
         if (equals)
             recognizeData.consume();
         else if (actual > wanted && recognizeData.allowChopping())
             recognizeData.consume(wanted);
         else if (recognizeData.leadoutOk(isLast))
             recognizeData.consume();
-        else
-            throw new SignalRecognitionException("Duration does not parse, wanted " + wanted + ", was " + actual + ", position = " + recognizeData.getPosition());
+        else {
+            int position = recognizeData.getPosition();
+            throw new SignalRecognitionException(() -> "Duration does not parse, wanted " + wanted + ", was " + actual + ", position = " + position);
+        }
     }
 
 
@@ -336,7 +332,7 @@ public abstract class Duration extends IrpObject implements IrStreamItem, Floata
         Map<String, Object> map = new HashMap<>(3);
         map.put("kind", this.getClass().getSimpleName());
         try {
-            long num = Math.round(toFloat(generalSpec, null));
+            long num = Math.round(toFloat(generalSpec, NameEngine.EMPTY));
             map.put("microseconds", num);
             return map;
         } catch (IrpInvalidArgumentException | NameUnassignedException ex) {
@@ -371,4 +367,15 @@ public abstract class Duration extends IrpObject implements IrStreamItem, Floata
         result.add(microSeconds(generalSpec, nameEngine));
         return result;
     }
+
+    private static final class Evaluation {
+
+        private final GeneralSpec generalSpec;
+        private final double value;
+
+        Evaluation(GeneralSpec generalSpec, double value) {
+            this.generalSpec = generalSpec;
+            this.value = value;
+        }
+    }
 }
@@ -109,7 +109,7 @@ public abstract class Expression extends PrimaryItem {
     }
 
 
-    private ParserDriver parserDriver = null;
+    private transient ParserDriver parserDriver = null;
 
     protected Expression(ParseTree ctx) {
         super(ctx);
@@ -87,18 +87,18 @@ public final class Extent extends Duration {
 
     @Override
     public void decode(RecognizeData recognizeData, List<BitSpec> bitSpecStack, boolean isLast) throws SignalRecognitionException {
-        logger.log(recognizeData.logRecordEnter(this));
+        recognizeData.logEnter(logger, this);
         double elapsed = recognizeData.elapsed();
         double physical = recognizeData.get();
         double theoretical;
         try {
-            theoretical = toFloat(recognizeData.getGeneralSpec(), /*recognizeData.getNameEngine()*/null) - elapsed;
+            theoretical = toFloatCached(recognizeData.getGeneralSpec(), /*recognizeData.getNameEngine()*/null) - elapsed;
         } catch (IrpInvalidArgumentException | NameUnassignedException ex) {
             throw new SignalRecognitionException(ex);
         }
         recognizeData.markExtentStart();
         recognize(recognizeData, physical, theoretical, isLast);
-        logger.log(recognizeData.logRecordExit(this));
+        recognizeData.logExit(logger, this);
     }
 
     @Override
@@ -286,14 +286,29 @@ public final class FiniteBitField extends BitField implements IrStreamItem {
 
     @Override
     public void decode(RecognizeData recognizeData, List<BitSpec> bitSpecStack, boolean isLast) throws SignalRecognitionException {
-        logger.log(recognizeData.logRecordEnter(this));
+        recognizeData.logEnter(logger, this);
+        long payload;
         try {
-            long payload = collectData(recognizeData, bitSpecStack);
+            payload = collectData(recognizeData, bitSpecStack);
+        } catch (NameUnassignedException ex) {
+            throw new SignalRecognitionException(ex);
+        }
+        recognizePayload(recognizeData, payload);
+    }
 
+    /**
+     * Second part of the decoding: Process the data read from the signal, either checking it against the
+     * already known parameters, or solving for the unknown.
+     * @param recognizeData
+     * @param payload data read by the bit field, in the bit order of the protocol.
+     * @throws SignalRecognitionException
+     */
+    void recognizePayload(RecognizeData recognizeData, long payload) throws SignalRecognitionException {
+        try {
             // Can the data be computed with already present data?
             boolean success = isChecksum(recognizeData, payload);
             if (success) {
-                logger.log(recognizeData.logRecordExit(this));
+                recognizeData.logExit(logger, this);
                 return;
             }
 
@@ -302,11 +317,12 @@ public final class FiniteBitField extends BitField implements IrStreamItem {
             //PrimaryItem expression = data;
             //Long rhs = payload;
 
-            Equation equation = new Equation(this, payload, width.toLong(recognizeData.getNameEngine()), recognizeData);
-            String origEquation = equation.toString();
+            long w = width.toLong(recognizeData.getNameEngine());
+            Equation equation = new Equation(this, payload, w, recognizeData);
             boolean solved = equation.solve();
             if (!solved) {
-                throw new SignalRecognitionException("Could not solve equation: " + origEquation);
+                // equation has been modified by solve(), so (when needed) recreate the original
+                throw new SignalRecognitionException(() -> "Could not solve equation: " + new Equation(this, payload, w, recognizeData));
             }
             recognizeData.add(equation.getName(), equation.getValue());
 
@@ -337,34 +353,20 @@ public final class FiniteBitField extends BitField implements IrStreamItem {
         int rest = numWidth % chunkSize;
         int noChunks = rest == 0 ? numWidth / chunkSize : numWidth / chunkSize + 1;
 
+        List<BitSpec> poppedStack = new ArrayList<>(bitSpecStack);
+        poppedStack.remove(poppedStack.size() - 1);
+        boolean onlyFlashesAndGaps = bitSpec.onlyFlashesAndGaps();
         for (int chunk = 0; chunk < noChunks; chunk++) {
-            RecognizeData inData = null;
-            int bareIrStreamNo;
-            for (bareIrStreamNo = 0; bareIrStreamNo < bitSpec.size(); bareIrStreamNo++) {
-                inData = recognizeData.clone();
-                inData.setLevel(recognizeData.getLevel() + 1);
-                List<BitSpec> poppedStack = new ArrayList<>(bitSpecStack);
-                poppedStack.remove(poppedStack.size() - 1);
-
-                try {
-                    bitSpec.get(bareIrStreamNo).decode(inData, poppedStack, false);
-                    // match!
-                    break;
-                } catch (SignalRecognitionException ex) {
-                    // No match, just try the next one
-                }
-            }
-            assert (inData != null);
+            int bareIrStreamNo = onlyFlashesAndGaps
+                    ? decodeChunkInPlace(recognizeData, bitSpec, poppedStack)
+                    : decodeChunk(recognizeData, bitSpec, poppedStack);
 
             if (bareIrStreamNo == bitSpec.size())
                 throw new SignalRecognitionException("FiniteBitField did not parse");
             if (recognizeData.getGeneralSpec().getBitDirection() == BitDirection.lsb) // <---
                 bareIrStreamNo = IrCoreUtils.reverse(bareIrStreamNo, chunkSize);
 
-            recognizeData.setPosition(inData.getPosition());
-            recognizeData.setHasConsumed(inData.getHasConsumed());
             payload = ((payload << (long) chunkSize)) | (long) bareIrStreamNo;
-            recognizeData.getNameEngine().add(inData.getNameEngine());
         }
 
         if (rest != 0) {
@@ -379,6 +381,55 @@ public final class FiniteBitField extends BitField implements IrStreamItem {
         return payload;
     }
 
+    /**
+     * Tries the bit codes on a copy of the RecognizeData, and merges the result of the successful one.
+     * @return number of the matching bit code, or bitSpec.size() if none matched.
+     */
+    private int decodeChunk(RecognizeData recognizeData, BitSpec bitSpec, List<BitSpec> poppedStack) {
+        for (int bareIrStreamNo = 0; bareIrStreamNo < bitSpec.size(); bareIrStreamNo++) {
+            RecognizeData inData = recognizeData.clone();
+            inData.setLevel(recognizeData.getLevel() + 1);
+            try {
+                bitSpec.get(bareIrStreamNo).decode(inData, poppedStack, false);
+                // match!
+                recognizeData.setPosition(inData.getPosition());
+                recognizeData.setHasConsumed(inData.getHasConsumed());
+                recognizeData.getNameEngine().add(inData.getNameEngine());
+                return bareIrStreamNo;
+            } catch (SignalRecognitionException ex) {
+                // No match, just try the next one
+            }
+        }
+        return bitSpec.size();
+    }
+
+    /**
+     * Version of decodeChunk for bit codes consisting of flashes and gaps only. These change only
+     * the position in the IrSequence, so instead of copying the RecognizeData,
+     * the position is just reset after a failed bit code.
+     * @return number of the matching bit code, or bitSpec.size() if none matched.
+     */
+    private int decodeChunkInPlace(RecognizeData recognizeData, BitSpec bitSpec, List<BitSpec> poppedStack) {
+        int position = recognizeData.getPosition();
+        double hasConsumed = recognizeData.getHasConsumed();
+        int level = recognizeData.getLevel();
+        for (int bareIrStreamNo = 0; bareIrStreamNo < bitSpec.size(); bareIrStreamNo++) {
+            recognizeData.setLevel(level + 1);
+            try {
+                bitSpec.get(bareIrStreamNo).decode(recognizeData, poppedStack, false);
+                // match!
+                recognizeData.setLevel(level);
+                return bareIrStreamNo;
+            } catch (SignalRecognitionException ex) {
+                // No match, roll back, and try the next one
+                recognizeData.setPosition(position);
+                recognizeData.setHasConsumed(hasConsumed);
+            }
+        }
+        recognizeData.setLevel(level);
+        return bitSpec.size();
+    }
+
     @Override
     public BitwiseParameter invert(BitwiseParameter rhs, RecognizeData recognizeData/*, long oldBitmask*/) throws NameUnassignedException {
         long ch = getChop().toLong(recognizeData.getNameEngine());
@@ -103,6 +103,10 @@ public final class IrStream extends IrpObject implements IrStreamItem,AggregateL
         return repeatMarker;
     }
 
+    BareIrStream getBareIrStream() {
+        return bareIrStream;
+    }
+
     @Override
     public String toIrpString(int radix) {
         return toIrpString(radix, "");
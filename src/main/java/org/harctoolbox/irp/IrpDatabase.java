@@ -33,7 +33,11 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -41,6 +45,7 @@ import static javax.xml.XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI;
 import static javax.xml.XMLConstants.XMLNS_ATTRIBUTE;
 import static javax.xml.XMLConstants.XML_NS_URI;
 import javax.xml.validation.Schema;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.harctoolbox.ircore.IrCoreUtils;
 import org.harctoolbox.ircore.IrSignal;
 import org.harctoolbox.ircore.OddSequenceLengthException;
@@ -66,6 +71,13 @@ import org.xml.sax.SAXException;
 /**
  * This class is a data bases manager for the data base of IRP protocols.
  * It reads a configuration file containing definitions for IR format in the IRP-Notation.
+ *
+ * Protocols are parsed lazily, when first requested, and cached. The reading functions, including the ones
+ * returning cached protocols, may be called from several threads simultaneously;
+ * modifications of the data base require external synchronization.
+ * Exempted is rendering with the state of the shared protocol, {@link #render(String, Map)},
+ * like {@link Protocol#toIrSignal(Map)}, since it updates the memory variables (like toggles) of the protocol;
+ * concurrent users should use {@link #render(String, Map, RenderState)} instead.
  */
 // NOTE: The program must work also if the schema cannot be retrieved.
 public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable {
@@ -239,7 +251,12 @@ public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable
     private Map<String, String> aliases;
     private final List<String> comments;
     private final Map<String, String> globalAttributes;
-    private final Map<String, Protocol> recycledProtocols;
+    // Caches of parsed protocols, with the same keys as protocols.
+    // Entries are discarded when the data base is modified.
+    private final ProtocolCache<Protocol> recycledProtocols;
+    private final ProtocolCache<NamedProtocol> precompiledProtocols;
+    private volatile boolean precompiled;
+    private transient volatile RenderCache renderCache;
 
     public IrpDatabase(Reader reader) throws IOException, IrpParseException, SAXException {
         this(openXmlReader(reader));
@@ -275,7 +292,10 @@ public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable
         this.aliases = new LinkedHashMap<>(8);
         this.comments = new ArrayList<>(4);
         this.globalAttributes = new HashMap<>(4);
-        this.recycledProtocols = new HashMap<>(16);
+        this.recycledProtocols = new ProtocolCache<>();
+        this.precompiledProtocols = new ProtocolCache<>();
+        this.precompiled = false;
+        this.renderCache = null;
     }
 
     private IrpDatabase(Map<String, UnparsedProtocol> protocols) throws IrpParseException {
@@ -301,6 +321,7 @@ public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable
     }
 
     public void patch(IrpDatabase irpDatabase) {
+        clearCaches();
         appendToVersion(irpDatabase.getVersion());
         irpDatabase.protocols.values().forEach(protocol -> {
             patchProtocol(protocol);
@@ -320,6 +341,7 @@ public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable
     }
 
     public void patch(Document document) throws IrpParseException {
+        clearCaches();
         Element root = document.getDocumentElement();
         NamedNodeMap attributes = root.getAttributes();
         for (int i = 0; i < attributes.getLength(); i++) {
@@ -411,6 +433,7 @@ public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable
     }
 
     public void addProtocol(String protocolName, String irp, DocumentFragment doc) throws IrpParseException {
+        clearCaches();
         patchProtocol(new UnparsedProtocol(protocolName, irp, doc));
         expand(protocolName);
     }
@@ -542,6 +565,12 @@ public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable
         return unparsedProtocol;
     }
 
+    private UnparsedProtocol getUnparsedProtocolForUpdate(String protocolName) throws UnknownProtocolException {
+        UnparsedProtocol protocol = getUnparsedProtocol(protocolName);
+        removeFromCaches(protocolName);
+        return protocol;
+    }
+
     /**
      * Returns the keys of the protocol data base, which happens to be the protocol names converted to lower case.
      * @return
@@ -631,7 +660,7 @@ public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable
     }
 
     public void setDocumentation(String protocolName, DocumentFragment fragment) throws UnknownProtocolException {
-        UnparsedProtocol prot = getUnparsedProtocol(protocolName);
+        UnparsedProtocol prot = getUnparsedProtocolForUpdate(protocolName);
         List<DocumentFragment> list = new ArrayList<>(1);
         list.add(fragment);
         prot.setXmlProperties(DOCUMENTATION_NAME, list);
@@ -653,17 +682,17 @@ public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable
     }
 
     public void addProperty(String protocolName, String key, String value) throws UnknownProtocolException {
-        UnparsedProtocol prot = getUnparsedProtocol(protocolName);
+        UnparsedProtocol prot = getUnparsedProtocolForUpdate(protocolName);
         prot.addProperty(key, value);
     }
 
     public void setProperties(String protocolName, String key, List<String> properties) throws UnknownProtocolException {
-        UnparsedProtocol prot = getUnparsedProtocol(protocolName);
+        UnparsedProtocol prot = getUnparsedProtocolForUpdate(protocolName);
         prot.setProperties(key, properties);
     }
 
     public void removeProperties(String protocolName, String key) throws UnknownProtocolException {
-        UnparsedProtocol prot = getUnparsedProtocol(protocolName);
+        UnparsedProtocol prot = getUnparsedProtocolForUpdate(protocolName);
         prot.removeProperties(key);
     }
 
@@ -674,12 +703,12 @@ public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable
     }
 
     public void setXmlProperties(String protocolName, String key, List<DocumentFragment> properties) throws UnknownProtocolException {
-        UnparsedProtocol prot = getUnparsedProtocol(protocolName);
+        UnparsedProtocol prot = getUnparsedProtocolForUpdate(protocolName);
         prot.setXmlProperties(key, properties);
     }
 
     public void removeXmlProperties(String protocolName, String key) throws UnknownProtocolException {
-        UnparsedProtocol prot = getUnparsedProtocol(protocolName);
+        UnparsedProtocol prot = getUnparsedProtocolForUpdate(protocolName);
         prot.removeProperties(key);
     }
 
@@ -704,6 +733,53 @@ public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable
         return list;
     }
 
+    /**
+     * Parses all protocols of the data base once and for all, and keeps the result. This is used by
+     * {@link Decoder}s constructed from the data base, and saved in a snapshot, see {@link IrpDatabaseSnapshot}.
+     * The precompiled protocols are discarded when the data base is modified.
+     * Protocols that cannot be parsed are ignored.
+     */
+    public void precompile() {
+        protocols.values().forEach((unparsedProtocol) -> {
+            try {
+                getPrecompiledNamedProtocol(unparsedProtocol.getName());
+            } catch (IrpException | ParseCancellationException ex) {
+                logger.log(Level.WARNING, "Protocol {0} could not be parsed: {1}", new Object[]{unparsedProtocol.getName(), ex.getMessage()});
+            }
+        });
+        precompiled = true;
+    }
+
+    /**
+     * Returns true if {@link #precompile()} has been called, and the data base has not been patched since.
+     * @return
+     */
+    public boolean isPrecompiled() {
+        return precompiled;
+    }
+
+    /**
+     * Returns the NamedProtocol with the given name, parsed on the first call, and then cached.
+     * The result is shared, and should not be used for rendering.
+     */
+    NamedProtocol getPrecompiledNamedProtocol(String protocolName) throws UnknownProtocolException, InvalidNameException, UnsupportedRepeatException, IrpInvalidArgumentException, NameUnassignedException {
+        if (!isKnown(protocolName))
+            throw new UnknownProtocolException(protocolName);
+
+        return precompiledProtocols.get(protocolName.toLowerCase(Locale.US), () -> getNamedProtocol(protocolName));
+    }
+
+    private void clearCaches() {
+        recycledProtocols.clear();
+        precompiledProtocols.clear();
+        precompiled = false;
+    }
+
+    private void removeFromCaches(String protocolName) {
+        recycledProtocols.remove(protocolName.toLowerCase(Locale.US));
+        precompiledProtocols.remove(protocolName.toLowerCase(Locale.US));
+    }
+
     private void expand() throws IrpParseException {
         for (String protocol : protocols.keySet())
             expand(protocol);
@@ -752,6 +828,7 @@ public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable
             throw new UnknownProtocolException(protocolName);
 
         protocols.remove(protocolName.toLowerCase(Locale.US));
+        removeFromCaches(protocolName);
         removeAliases(protocolName);
     }
 
@@ -795,6 +872,7 @@ public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable
      * Returns a Protocol with the prescribed name. If this has been called
      * previously with the same argument, the previously constructed Protocol is
      * recycled and returned. See also {@link  #getNonRecycledProtocol(String)}.
+     * If several threads ask for the same protocol simultaneously, it is parsed only once.
      *
      * @param protocolName
      * @return Protocol, possibly recycled.
@@ -808,12 +886,10 @@ public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable
         if (protocolName == null || protocolName.isEmpty())
             return null;
 
-        Protocol protocol = recycledProtocols.get(protocolName.toLowerCase(Locale.US));
-        if (protocol == null) {
-            protocol = getNonRecycledProtocol(protocolName);
-            recycledProtocols.put(protocolName.toLowerCase(Locale.US), protocol);
-        }
-        return protocol;
+        if (!isKnown(protocolName))
+            throw new UnknownProtocolException(protocolName);
+
+        return recycledProtocols.get(protocolName.toLowerCase(Locale.US), () -> getNonRecycledProtocol(protocolName));
     }
 
     public Protocol getProtocolExpandAlias(String protocolName) throws UnknownProtocolException, UnsupportedRepeatException, NameUnassignedException, InvalidNameException, IrpInvalidArgumentException {
@@ -840,15 +916,75 @@ public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable
         return null;
     }
 
+    /**
+     * Renders the protocol, using, and updating, the memory variables of the cached protocol,
+     * see {@link Protocol#toIrSignal(Map)}. Therefore not to be called from several threads simultaneously;
+     * use {@link #render(String, Map, RenderState)} for that.
+     * @param protocolName
+     * @param params
+     * @return
+     * @throws IrpException
+     */
     public IrSignal render(String protocolName, Map<String, Long> params) throws IrpException {
         Protocol protocol = getProtocolExpandAlias(protocolName);
+        RenderCache cache = renderCache;
         try {
-            return protocol.toIrSignal(params);
+            return cache != null ? cache.render(protocol, params) : protocol.toIrSignal(params);
         } catch (OddSequenceLengthException ex) {
             throw new IrpException("IrSequence does not end with a gap,");
         }
     }
 
+    /**
+     * Renders the protocol, taking the values of the memory variables from, and storing them in, the state given as argument,
+     * see {@link Protocol#toIrSignal(Map, RenderState)}.
+     * Several threads may use this simultaneously, as long as they use different states.
+     * @param protocolName
+     * @param params
+     * @param state memory variables of the device or session; updated in the call.
+     * @return
+     * @throws IrpException
+     */
+    public IrSignal render(String protocolName, Map<String, Long> params, RenderState state) throws IrpException {
+        Objects.requireNonNull(state);
+        Protocol protocol = getProtocolExpandAlias(protocolName);
+        RenderCache cache = renderCache;
+        try {
+            return cache != null ? cache.render(protocol, params, state) : protocol.toIrSignal(params, state);
+        } catch (OddSequenceLengthException ex) {
+            throw new IrpException("IrSequence does not end with a gap,");
+        }
+    }
+
+    /**
+     * Renders the protocol for all the parameter sets given, into one packed array, see {@link PackedSignals}.
+     * @param protocolName
+     * @param parameters List of parameter sets.
+     * @param forkJoinPool If non-null, the rendering is done in parallel, using this pool. Otherwise sequentially.
+     * @return
+     * @throws IrpException
+     */
+    public PackedSignals renderPacked(String protocolName, List<Map<String, Long>> parameters, ForkJoinPool forkJoinPool) throws IrpException {
+        Protocol protocol = getProtocolExpandAlias(protocolName);
+        try {
+            return PackedSignals.render(protocol, parameters, forkJoinPool);
+        } catch (OddSequenceLengthException ex) {
+            throw new IrpException("IrSequence does not end with a gap,");
+        }
+    }
+
+    /**
+     * Sets a cache used by {@link #render(String, Map)}.
+     * @param renderCache RenderCache, possibly shared with other IrpDatabases, or null for no caching.
+     */
+    public void setRenderCache(RenderCache renderCache) {
+        this.renderCache = renderCache;
+    }
+
+    public RenderCache getRenderCache() {
+        return renderCache;
+    }
+
     /**
      * This is a comparatively expensive operation, while its next()
      * performs actual parsing of the IRP string.
@@ -922,6 +1058,64 @@ public final class IrpDatabase implements Iterable<NamedProtocol>, Serializable
         }
     }
 
+    @FunctionalInterface
+    private interface ProtocolFactory<T extends Protocol> {
+        T create() throws UnknownProtocolException, UnsupportedRepeatException, NameUnassignedException, InvalidNameException, IrpInvalidArgumentException;
+    }
+
+    /**
+     * Thread safe cache of parsed protocols. Every protocol is parsed at most once, by the first thread asking for it;
+     * other threads asking for the same protocol wait for the result. Different protocols may be parsed simultaneously.
+     * A failed parse is not cached.
+     */
+    private static final class ProtocolCache<T extends Protocol> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final ConcurrentMap<String, Entry<T>> map;
+
+        ProtocolCache() {
+            map = new ConcurrentHashMap<>(16);
+        }
+
+        T get(String key, ProtocolFactory<T> factory) throws UnknownProtocolException, UnsupportedRepeatException, NameUnassignedException, InvalidNameException, IrpInvalidArgumentException {
+            Entry<T> entry = map.computeIfAbsent(key, (k) -> new Entry<>());
+            try {
+                return entry.get(factory);
+            } catch (IrpException | RuntimeException ex) {
+                map.remove(key, entry);
+                throw ex;
+            }
+        }
+
+        void remove(String key) {
+            map.remove(key);
+        }
+
+        void clear() {
+            map.clear();
+        }
+
+        private static final class Entry<T extends Protocol> implements Serializable {
+            private static final long serialVersionUID = 1L;
+
+            private volatile T protocol = null;
+
+            T get(ProtocolFactory<T> factory) throws UnknownProtocolException, UnsupportedRepeatException, NameUnassignedException, InvalidNameException, IrpInvalidArgumentException {
+                T result = protocol;
+                if (result == null) {
+                    synchronized (this) {
+                        result = protocol;
+                        if (result == null) {
+                            result = factory.create();
+                            protocol = result;
+                        }
+                    }
+                }
+                return result;
+            }
+        }
+    }
+
     private static class UnparsedProtocol implements Serializable {
         private static final int APRIORI_SIZE = 4;
 
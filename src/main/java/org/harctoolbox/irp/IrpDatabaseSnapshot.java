@@ -0,0 +1,275 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+
+package org.harctoolbox.irp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.harctoolbox.ircore.ThisCannotHappenException;
+import org.xml.sax.SAXException;
+
+/**
+ * Binary snapshot of an {@link IrpDatabase}, including its precompiled protocols, using Java serialization.
+ * Loading a snapshot is considerably faster than reading the XML file(s), and parsing the protocols.
+ *
+ * The snapshot contains a checksum of the XML source(s) it was generated from, as well as the program version.
+ * If these do not match, the snapshot is considered out of date, and not used.
+ */
+public final class IrpDatabaseSnapshot {
+
+    private static final Logger logger = Logger.getLogger(IrpDatabaseSnapshot.class.getName());
+
+    private static final String MAGIC = "IrpDatabaseSnapshot";
+    private static final String CHECKSUM_ALGORITHM = "SHA-256";
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Packages of the classes that a snapshot may contain, other than those of this program.
+     * The DOM packages are those used for the documentation.
+     */
+    private static final Set<String> ALLOWED_PACKAGES = new HashSet<>(Arrays.asList(
+            "java.lang",
+            "java.util",
+            "java.util.concurrent",
+            "java.util.concurrent.locks",
+            "com.sun.org.apache.xerces.internal.dom",
+            "org.apache.xerces.dom"));
+    private static final String PROGRAM_PACKAGE_PREFIX = "org.harctoolbox.";
+
+    /**
+     * Checksum of the IRP database files, or of the default data base if the argument is null.
+     * @param configFiles
+     * @return Checksum as hexadecimal string.
+     * @throws IOException
+     */
+    public static String checksum(Iterable<File> configFiles) throws IOException {
+        MessageDigest messageDigest = newMessageDigest();
+        if (configFiles == null) {
+            try (InputStream inputStream = IrpDatabase.class.getResourceAsStream(IrpDatabase.DEFAULT_CONFIG_FILE)) {
+                update(messageDigest, inputStream);
+            }
+        } else {
+            for (File file : configFiles) {
+                try (InputStream inputStream = new FileInputStream(file)) {
+                    update(messageDigest, inputStream);
+                }
+            }
+        }
+        return toHex(messageDigest.digest());
+    }
+
+    private static MessageDigest newMessageDigest() {
+        try {
+            return MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to support SHA-256
+            throw new ThisCannotHappenException(ex);
+        }
+    }
+
+    private static void update(MessageDigest messageDigest, InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int length;
+        while ((length = inputStream.read(buffer)) > 0)
+            messageDigest.update(buffer, 0, length);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(2 * bytes.length);
+        for (byte b : bytes)
+            sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+
+    /**
+     * Writes a snapshot of the IrpDatabase, which is precompiled first, if necessary.
+     * @param irpDatabase
+     * @param checksum Checksum of the source(s) of the IrpDatabase, see {@link #checksum(Iterable)}.
+     * @param outputStream
+     * @throws IOException
+     */
+    public static void save(IrpDatabase irpDatabase, String checksum, OutputStream outputStream) throws IOException {
+        if (!irpDatabase.isPrecompiled())
+            irpDatabase.precompile();
+
+        ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream);
+        objectOutputStream.writeUTF(MAGIC);
+        objectOutputStream.writeUTF(Version.version);
+        objectOutputStream.writeUTF(checksum);
+        objectOutputStream.writeObject(irpDatabase);
+        objectOutputStream.flush();
+    }
+
+    /**
+     * Writes a snapshot of the IrpDatabase to a file.
+     * The file is replaced atomically, so that concurrent readers never see an incomplete file.
+     * @param irpDatabase
+     * @param checksum
+     * @param file
+     * @throws IOException
+     */
+    public static void save(IrpDatabase irpDatabase, String checksum, File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        File tmpFile = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(tmpFile))) {
+                save(irpDatabase, checksum, outputStream);
+            }
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpFile.toPath());
+        }
+    }
+
+    /**
+     * Reads a snapshot.
+     * @param inputStream
+     * @param checksum Expected checksum of the sources, or null for no check.
+     * @return IrpDatabase, or null if the snapshot is out of date, or was written by another program version.
+     * @throws IOException if the snapshot could not be read.
+     */
+    public static IrpDatabase load(InputStream inputStream, String checksum) throws IOException {
+        ObjectInputStream objectInputStream = new RestrictedObjectInputStream(inputStream);
+        if (!objectInputStream.readUTF().equals(MAGIC))
+            throw new IOException("Not an IrpDatabase snapshot");
+
+        String version = objectInputStream.readUTF();
+        if (!version.equals(Version.version)) {
+            logger.log(Level.INFO, "Snapshot written by program version {0}, ignored", version);
+            return null;
+        }
+        String snapshotChecksum = objectInputStream.readUTF();
+        if (checksum != null && !snapshotChecksum.equals(checksum)) {
+            logger.log(Level.INFO, "Snapshot out of date, ignored");
+            return null;
+        }
+        try {
+            return (IrpDatabase) objectInputStream.readObject();
+        } catch (ClassNotFoundException | ClassCastException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Reads a snapshot from a file.
+     * @param file
+     * @param checksum Expected checksum of the sources, or null for no check.
+     * @return IrpDatabase, or null if the file does not exist, or the snapshot is out of date.
+     * @throws IOException if the snapshot could not be read.
+     */
+    public static IrpDatabase load(File file, String checksum) throws IOException {
+        if (!file.exists())
+            return null;
+
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+            return load(inputStream, checksum);
+        }
+    }
+
+    /**
+     * Returns a precompiled IrpDatabase from the snapshot file, if it is up to date.
+     * Otherwise, the IrpDatabase is read from the XML file(s), precompiled, and the snapshot is (re-)created.
+     * Problems with reading or writing the snapshot are logged, but are otherwise ignored.
+     * @param configFiles XML files, or null for the default data base.
+     * @param snapshotFile
+     * @return
+     * @throws IOException
+     * @throws IrpParseException
+     * @throws SAXException
+     */
+    public static IrpDatabase loadOrCreate(List<File> configFiles, File snapshotFile) throws IOException, IrpParseException, SAXException {
+        String checksum = checksum(configFiles);
+        try {
+            IrpDatabase irpDatabase = load(snapshotFile, checksum);
+            if (irpDatabase != null)
+                return irpDatabase;
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Could not read snapshot {0}: {1}", new Object[]{snapshotFile, ex.getMessage()});
+        }
+
+        IrpDatabase irpDatabase = configFiles != null ? new IrpDatabase(configFiles) : new IrpDatabase((String) null);
+        irpDatabase.precompile();
+        try {
+            save(irpDatabase, checksum, snapshotFile);
+            logger.log(Level.INFO, "Wrote snapshot {0}", snapshotFile);
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Could not write snapshot {0}: {1}", new Object[]{snapshotFile, ex.getMessage()});
+        }
+        return irpDatabase;
+    }
+
+    private IrpDatabaseSnapshot() {
+    }
+
+    /**
+     * ObjectInputStream refusing all classes that cannot occur in a snapshot,
+     * since a snapshot file may have been crafted by someone else.
+     */
+    private static final class RestrictedObjectInputStream extends ObjectInputStream {
+
+        private static boolean isAllowed(String className) {
+            String name = className;
+            while (name.startsWith("["))
+                name = name.substring(1);
+            if (name.length() == 1)
+                return true; // array of primitive type
+            if (name.startsWith("L") && name.endsWith(";"))
+                name = name.substring(1, name.length() - 1);
+            if (name.startsWith(PROGRAM_PACKAGE_PREFIX))
+                return true;
+            int lastDot = name.lastIndexOf('.');
+            return lastDot > 0 && ALLOWED_PACKAGES.contains(name.substring(0, lastDot));
+        }
+
+        RestrictedObjectInputStream(InputStream inputStream) throws IOException {
+            super(inputStream);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (!isAllowed(desc.getName()))
+                throw new InvalidClassException(desc.getName(), "Class not allowed in an IrpDatabase snapshot");
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+            throw new InvalidClassException("Proxy classes not allowed in an IrpDatabase snapshot");
+        }
+    }
+}
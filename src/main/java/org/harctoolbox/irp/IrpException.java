@@ -33,4 +33,8 @@ public class IrpException extends Exception {
     public IrpException(Throwable ex) {
         super(ex);
     }
+
+    protected IrpException(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, true, writableStackTrace);
+    }
 }
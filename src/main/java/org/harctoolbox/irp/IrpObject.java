@@ -33,7 +33,7 @@ public abstract class IrpObject implements XmlExport, Serializable {
 
     private final static int DEFAULT_RADIX = 10;
 
-    private final ParseTree parseTree;
+    private final transient ParseTree parseTree; // not serialized, null after deserialization
 
     protected IrpObject(ParseTree parseTree) {
         this.parseTree = parseTree;
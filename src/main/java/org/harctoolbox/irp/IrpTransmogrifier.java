@@ -29,12 +29,14 @@ import org.harctoolbox.cmdline.CommandAnalyze;
 import org.harctoolbox.cmdline.CommandBitField;
 import org.harctoolbox.cmdline.CommandCode;
 import org.harctoolbox.cmdline.CommandCommonOptions;
+import org.harctoolbox.cmdline.CommandConvert;
 import org.harctoolbox.cmdline.CommandDecode;
 import org.harctoolbox.cmdline.CommandDemodulate;
 import org.harctoolbox.cmdline.CommandExpression;
 import org.harctoolbox.cmdline.CommandLirc;
 import org.harctoolbox.cmdline.CommandList;
 import org.harctoolbox.cmdline.CommandRender;
+import org.harctoolbox.cmdline.CommandServe;
 import org.harctoolbox.cmdline.CommandVersion;
 import org.harctoolbox.cmdline.ProgramExitStatus;
 import org.harctoolbox.cmdline.UsageException;
@@ -73,6 +75,8 @@ public final class IrpTransmogrifier extends CmdLineProgram {
     }
 
     private IrpDatabase irpDatabase = null;
+    private final IrpDatabase residentDatabase;
+    private final Decoder residentDecoder;
     private final CommandCommonOptions commandLineArgs;
     private final CommandVersion commandVersion = new CommandVersion();
     private final CommandList commandList = new CommandList();
@@ -84,6 +88,8 @@ public final class IrpTransmogrifier extends CmdLineProgram {
     private final CommandBitField commandBitField = new CommandBitField();
     private final CommandExpression commandExpression = new CommandExpression();
     private final CommandLirc commandLirc = new CommandLirc();
+    private final CommandServe commandServe = new CommandServe();
+    private final CommandConvert commandConvert = new CommandConvert();
 
     @SuppressWarnings("UseOfSystemOutOrSystemErr")
     public IrpTransmogrifier() {
@@ -91,7 +97,19 @@ public final class IrpTransmogrifier extends CmdLineProgram {
     }
 
     public IrpTransmogrifier(PrintStream out) {
+        this(out, null, null);
+    }
+
+    /**
+     * Constructor for instances executing requests for the "serve" command.
+     * @param out
+     * @param residentDatabase Data base to use, unless the request specifies another one.
+     * @param residentDecoder Decoder for all protocols in residentDatabase.
+     */
+    private IrpTransmogrifier(PrintStream out, IrpDatabase residentDatabase, Decoder residentDecoder) {
         super(out, new CommandCommonOptions(), Version.appName);
+        this.residentDatabase = residentDatabase;
+        this.residentDecoder = residentDecoder;
         setupCmds(commandVersion,
                 commandList,
                 commandRender,
@@ -101,19 +119,46 @@ public final class IrpTransmogrifier extends CmdLineProgram {
                 commandCode,
                 commandBitField,
                 commandExpression,
-                commandLirc);
+                commandLirc,
+                commandServe,
+                commandConvert);
         commandLineArgs = (CommandCommonOptions) commandBasicOptions;
     }
 
     @Override
     public void extraSetup() {
+        // Requests of serve are executed concurrently, so they must not touch settings global to the JVM.
+        if (residentDatabase != null)
+            return;
+
         if (commandLineArgs.seed != null)
             ParameterSpec.initRandom(commandLineArgs.seed);
+        if ("decode".equals(command))
+            commandDecode.setupGlobals();
+    }
+
+    private IrpDatabase setupDatabase() throws UsageException, IrpParseException, IOException, UnknownProtocolException, SAXException {
+        return residentDatabase == null ? commandLineArgs.setupDatabase()
+                : commandLineArgs.hasDatabaseOptions() ? commandLineArgs.setupDatabaseLocally()
+                : residentDatabase;
+    }
+
+    /**
+     * Returns the name of an option given, affecting the whole JVM, or null if there is none.
+     */
+    private String globalOption() {
+        return commandLineArgs.seed != null ? "--seed"
+                : commandLineArgs.validate ? "--validate"
+                : "decode".equals(command) && commandDecode.hasGlobalOptions() ? "--debugpattern"
+                : null;
     }
 
     @Override
     @SuppressWarnings("CallToPrintStackTrace")
     public ProgramExitStatus processCommand() {
+        if (residentDatabase != null && globalOption() != null)
+            return new ProgramExitStatus(Version.appName, ProgramExitStatus.EXIT_USAGE_ERROR, "Option " + globalOption() + " cannot be used within serve.");
+
         try {
             switch (command) {
                 case "analyze":
@@ -123,12 +168,18 @@ public final class IrpTransmogrifier extends CmdLineProgram {
                     commandBitField.bitfield(out, commandLineArgs);
                     break;
                 case "code":
-                    irpDatabase = commandLineArgs.setupDatabase();
+                    irpDatabase = setupDatabase();
                     commandCode.code(out, commandLineArgs, irpDatabase, originalArguments);
                     break;
+                case "convert":
+                    // The output is binary, and thus cannot be a response of serve.
+                    if (residentDatabase != null)
+                        return new ProgramExitStatus(Version.appName, ProgramExitStatus.EXIT_USAGE_ERROR, "Command convert cannot be used within serve.");
+                    commandConvert.convert(out, commandLineArgs);
+                    break;
                 case "decode":
-                    irpDatabase = commandLineArgs.setupDatabase();
-                    commandDecode.decode(out, commandLineArgs, irpDatabase);
+                    irpDatabase = setupDatabase();
+                    commandDecode.decode(out, commandLineArgs, irpDatabase, irpDatabase == residentDatabase ? residentDecoder : null);
                     break;
                 case "demodulate":
                     commandDemodulate.demodulate(out, commandLineArgs);
@@ -143,15 +194,21 @@ public final class IrpTransmogrifier extends CmdLineProgram {
                     commandLirc.lirc(out, commandLineArgs.inputEncoding);
                     break;
                 case "list":
-                    irpDatabase = commandLineArgs.setupDatabase();
+                    irpDatabase = setupDatabase();
                     commandList.list(out, commandLineArgs, irpDatabase);
                     break;
                 case "render":
-                    irpDatabase = commandLineArgs.setupDatabase();
+                    irpDatabase = setupDatabase();
                     commandRender.render(out, irpDatabase, commandLineArgs);
                     break;
-                case "version":
+                case "serve":
+                    if (residentDatabase != null)
+                        return new ProgramExitStatus(Version.appName, ProgramExitStatus.EXIT_USAGE_ERROR, "Command serve cannot be used within serve.");
                     irpDatabase = commandLineArgs.setupDatabase();
+                    commandServe.serve(out, commandLineArgs, irpDatabase, IrpTransmogrifier::new);
+                    break;
+                case "version":
+                    irpDatabase = setupDatabase();
                     commandVersion.version(out, commandLineArgs, irpDatabase);
                     break;
                 default:
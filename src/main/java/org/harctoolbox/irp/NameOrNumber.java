@@ -78,6 +78,13 @@ public final class NameOrNumber extends IrpObject implements Floatable {
         return thing.toIrpString(radix);
     }
 
+    /**
+     * @return true if the value is a number, thus independent of any NameEngine.
+     */
+    boolean isNumber() {
+        return thing instanceof NumberWithDecimals;
+    }
+
     double toRawNumber() throws InvalidArgumentException {
         if (!(thing instanceof NumberWithDecimals))
             throw new InvalidArgumentException("NumberWithDecimals expected");
@@ -76,7 +76,7 @@ public final class NamedProtocol extends Protocol implements HasPreferOvers,Comp
     }
 
     private final String name;
-    private final transient DocumentFragment htmlDocumentation; // TODO: serialization...
+    private final DocumentFragment htmlDocumentation;
     private final Double absoluteTolerance;
     private final Double relativeTolerance;
     private final Double frequencyTolerance;
@@ -212,12 +212,19 @@ public final class NamedProtocol extends Protocol implements HasPreferOvers,Comp
             Double userFrequencyTolerance, Double userAbsoluteTolerance, Double userRelativeTolerance, Double userMinimumLeadout, boolean override*/)
             throws ProtocolNotDecodableException, SignalRecognitionException
     {
+        return recognizeSelected(irSignal, selectParameters(params, isRejectRepeats()));
+    }
+
+    /**
+     * Version of {@link #recognize(IrSignal, Decoder.DecoderParameters)} for parameters
+     * already processed by {@link #selectParameters(Decoder.DecoderParameters, boolean)}.
+     */
+    Map<String, Long> recognizeSelected(IrSignal irSignal, Decoder.DecoderParameters selectedParams) throws ProtocolNotDecodableException, SignalRecognitionException {
         if (!isDecodeable())
             throw new ProtocolNotDecodableException(name);
-        logger.log(Level.FINE, "Protocol: {0}: \"{1}\", actual data: {2}", new Object[]{getName(), getIrp(), irSignal.toString(true)});
-
-        Decoder.DecoderParameters fixedParams = params.select(isRejectRepeats(), frequencyTolerance, absoluteTolerance, relativeTolerance, minimumLeadout);
-        return super.recognize(irSignal, fixedParams);
+        if (logger.isLoggable(Level.FINE))
+            logger.log(Level.FINE, "Protocol: {0}: \"{1}\", actual data: {2}", new Object[]{getName(), getIrp(), irSignal.toString(true)});
+        return super.recognize(irSignal, selectedParams);
     }
 
     /**
@@ -232,12 +239,21 @@ public final class NamedProtocol extends Protocol implements HasPreferOvers,Comp
       */
     public Decoder.Decode recognize(ModulatedIrSequence irSequence, int beginPos, Decoder.DecoderParameters userSuppliedDecoderParameters)
             throws SignalRecognitionException, ProtocolNotDecodableException {
+        return recognizeSelected(irSequence, beginPos, selectParameters(userSuppliedDecoderParameters, false/*isRejectRepeats()*/));
+    }
+
+    /**
+     * Version of {@link #recognize(ModulatedIrSequence, int, Decoder.DecoderParameters)} for parameters
+     * already processed by {@link #selectParameters(Decoder.DecoderParameters, boolean)}.
+     */
+    Decoder.Decode recognizeSelected(ModulatedIrSequence irSequence, int beginPos, Decoder.DecoderParameters selectedParams)
+            throws SignalRecognitionException, ProtocolNotDecodableException {
         if (!isDecodeable())
             throw new ProtocolNotDecodableException(name);
 
-        logger.log(Level.FINE, "Protocol: {0}: \"{1}\", actual data: {2}", new Object[]{getName(), getIrp(), irSequence.toString(true)});
-        Decoder.DecoderParameters actualParameters = userSuppliedDecoderParameters.select(false/*isRejectRepeats()*/, frequencyTolerance, absoluteTolerance, relativeTolerance, minimumLeadout);
-        Decoder.Decode decode = super.recognize(irSequence, beginPos, isRejectRepeats(), actualParameters);
+        if (logger.isLoggable(Level.FINE))
+            logger.log(Level.FINE, "Protocol: {0}: \"{1}\", actual data: {2}", new Object[]{getName(), getIrp(), irSequence.toString(true)});
+        Decoder.Decode decode = super.recognize(irSequence, beginPos, isRejectRepeats(), selectedParams);
         return new Decoder.Decode(this, decode);
     }
 
@@ -249,14 +265,34 @@ public final class NamedProtocol extends Protocol implements HasPreferOvers,Comp
             return;
         }
 
-        double lower = frequencyLower != null ? frequencyLower : getFrequencyWithDefault() - params.getFrequencyTolerance();
-        double upper = frequencyUpper != null ? frequencyUpper : getFrequencyWithDefault() + params.getFrequencyTolerance();
-        boolean success = inInterval(frequency, lower, upper);
-        logger.log(Level.FINER, "Frequency was checked, {0}OK.", success ? "" : "NOT ");
+        boolean success = frequencyMatches(frequency, params);
+        if (logger.isLoggable(Level.FINER))
+            logger.log(Level.FINER, "Frequency was checked, {0}OK.", success ? "" : "NOT ");
         if (!success)
             throw new SignalRecognitionException("Frequency does not match");
     }
 
+    @Override
+    boolean frequencyMatches(double frequency, Decoder.DecoderParameters params) {
+        if (params.getFrequencyTolerance() < 0)
+            return true;
+
+        double lower = frequencyLower != null ? frequencyLower : getFrequencyWithDefault() - params.getFrequencyTolerance();
+        double upper = frequencyUpper != null ? frequencyUpper : getFrequencyWithDefault() + params.getFrequencyTolerance();
+        return inInterval(frequency, lower, upper);
+    }
+
+    /**
+     * Returns the decoder parameters actually used for this protocol,
+     * i.e. the user supplied ones, possibly replaced by the protocol specific values.
+     * @param params user supplied parameters
+     * @param strict
+     * @return
+     */
+    Decoder.DecoderParameters selectParameters(Decoder.DecoderParameters params, boolean strict) {
+        return params.select(strict, frequencyTolerance, absoluteTolerance, relativeTolerance, minimumLeadout);
+    }
+
     @Override
     public String warningsString() {
         String str = super.warningsString();
@@ -298,14 +334,35 @@ public final class NamedProtocol extends Protocol implements HasPreferOvers,Comp
                 && auxParameters.equals(other.auxParameters);
     }
 
-    public IrSignal render(NameEngine nameEngine) throws DomainViolationException, NameUnassignedException, IrpInvalidArgumentException, InvalidNameException, ProtocolNotRenderableException, OddSequenceLengthException {
+    private void checkRenderable() throws ProtocolNotRenderableException {
         List<String> list = auxParameters.get(IrpDatabase.DECODE_ONLY_NAME);
         if (list != null)
             if (Boolean.parseBoolean(list.get(0)))
                 throw new ProtocolNotRenderableException(name);
+    }
+
+    public IrSignal render(NameEngine nameEngine) throws DomainViolationException, NameUnassignedException, IrpInvalidArgumentException, InvalidNameException, ProtocolNotRenderableException, OddSequenceLengthException {
+        checkRenderable();
         return super.toIrSignal(nameEngine);
     }
 
+    /**
+     * Renders the protocol, with the memory variables in a RenderState, see {@link Protocol#toIrSignal(Map, RenderState)}.
+     * @param params
+     * @param state
+     * @return
+     * @throws DomainViolationException
+     * @throws NameUnassignedException
+     * @throws IrpInvalidArgumentException
+     * @throws InvalidNameException
+     * @throws ProtocolNotRenderableException
+     * @throws OddSequenceLengthException
+     */
+    public IrSignal render(Map<String, Long> params, RenderState state) throws DomainViolationException, NameUnassignedException, IrpInvalidArgumentException, InvalidNameException, ProtocolNotRenderableException, OddSequenceLengthException {
+        checkRenderable();
+        return super.toIrSignal(params, state);
+    }
+
     @Override
     public String toString() {
         return name + ": " + super.toString();
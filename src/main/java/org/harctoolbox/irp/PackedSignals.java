@@ -0,0 +1,245 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irp;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.harctoolbox.ircore.IrSequence;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.OddSequenceLengthException;
+
+/**
+ * The result of rendering one protocol for many parameter sets, like a complete code set of a device,
+ * packed into one int array of durations in micro seconds, with an index of offsets.
+ * Signal number i consists of the intro sequence at the positions offset(i, intro) to offset(i, repeat) - 1,
+ * the repeat sequence at offset(i, repeat) to offset(i, ending) - 1,
+ * and the ending sequence at offset(i, ending) to offset(i + 1, intro) - 1.
+ * The durations are the ones of {@link Protocol#toIrSignal(Map, RenderState)} with a new RenderState,
+ * rounded as by {@link IrSequence#toInts()}.
+ *
+ * Instances are immutable.
+ */
+public final class PackedSignals {
+
+    private static final int PASSES = 3;
+    private static final int CHUNK_SIZE = 64;
+
+    /**
+     * Renders the protocol for all parameter sets in the list.
+     * Memory variables (like toggles) have their default values, unless contained in the parameters.
+     * @param protocol
+     * @param parameters List of parameter sets.
+     * @param forkJoinPool If non-null, the rendering is done in parallel, using this pool. Otherwise sequentially.
+     * @return
+     * @throws IrpException if the rendering fails for some parameter set; the first one is reported.
+     * @throws OddSequenceLengthException
+     */
+    public static PackedSignals render(Protocol protocol, List<Map<String, Long>> parameters, ForkJoinPool forkJoinPool) throws IrpException, OddSequenceLengthException {
+        int numberOfChunks = (parameters.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        List<Chunk> chunks;
+        if (forkJoinPool == null || numberOfChunks < 2) {
+            chunks = new ArrayList<>(numberOfChunks);
+            for (int i = 0; i < numberOfChunks; i++)
+                chunks.add(new Chunk(protocol, parameters, i * CHUNK_SIZE));
+        } else
+            chunks = forkJoinPool.submit(() -> IntStream.range(0, numberOfChunks).parallel()
+                    .mapToObj((i) -> new Chunk(protocol, parameters, i * CHUNK_SIZE)).collect(Collectors.toList())).join();
+
+        int length = 0;
+        for (Chunk chunk : chunks) {
+            chunk.rethrow();
+            length += chunk.length;
+        }
+        return new PackedSignals(protocol, parameters.size(), chunks, length);
+    }
+
+    /**
+     * Generates a list of parameter sets, in which the parameter given as argument takes all values
+     * between min and max (inclusive), while the other parameters are as in the first argument.
+     * @param fixed Values of the other parameters.
+     * @param name Name of the varying parameter.
+     * @param min
+     * @param max
+     * @return
+     */
+    public static List<Map<String, Long>> parameterRange(Map<String, Long> fixed, String name, long min, long max) {
+        List<Map<String, Long>> result = new ArrayList<>((int) Math.max(max - min + 1, 0));
+        for (long value = min; value <= max; value++) {
+            Map<String, Long> params = new HashMap<>(fixed);
+            params.put(name, value);
+            result.add(params);
+        }
+        return result;
+    }
+
+    private final int[] durations;
+    private final int[] offsets;
+    private final double frequency;
+    private final Double dutyCycle;
+
+    private PackedSignals(Protocol protocol, int size, List<Chunk> chunks, int length) {
+        durations = new int[length];
+        offsets = new int[PASSES * size + 1];
+        int position = 0;
+        int index = 0;
+        for (Chunk chunk : chunks) {
+            System.arraycopy(chunk.durations, 0, durations, position, chunk.length);
+            for (int i = 0; i < chunk.offsets.length; i++)
+                offsets[index++] = position + chunk.offsets[i];
+            position += chunk.length;
+        }
+        offsets[index] = position;
+        frequency = protocol.getFrequencyWithDefault();
+        dutyCycle = protocol.getDutyCycle();
+    }
+
+    /**
+     * Number of signals.
+     * @return
+     */
+    public int size() {
+        return (offsets.length - 1) / PASSES;
+    }
+
+    public double getFrequency() {
+        return frequency;
+    }
+
+    public Double getDutyCycle() {
+        return dutyCycle;
+    }
+
+    /**
+     * Returns all the durations, as a read-only buffer.
+     * @return
+     */
+    public IntBuffer getDurations() {
+        return IntBuffer.wrap(durations).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns the offset index, as a read-only buffer; its length is 3*size() + 1.
+     * @return
+     */
+    public IntBuffer getOffsets() {
+        return IntBuffer.wrap(offsets).asReadOnlyBuffer();
+    }
+
+    public int getOffset(int index, IrSignal.Pass pass) {
+        return offsets[PASSES * index + pass.ordinal()];
+    }
+
+    public int getLength(int index, IrSignal.Pass pass) {
+        int i = PASSES * index + pass.ordinal();
+        return offsets[i + 1] - offsets[i];
+    }
+
+    /**
+     * Returns one sequence of one signal as an array of durations.
+     * @param index number of the signal
+     * @param pass intro, repeat, or ending
+     * @return
+     */
+    public int[] getSequence(int index, IrSignal.Pass pass) {
+        int start = getOffset(index, pass);
+        return Arrays.copyOfRange(durations, start, start + getLength(index, pass));
+    }
+
+    /**
+     * Returns the signal with the index given as argument as an IrSignal.
+     * @param index
+     * @return
+     * @throws OddSequenceLengthException
+     */
+    public IrSignal getIrSignal(int index) throws OddSequenceLengthException {
+        return new IrSignal(new IrSequence(getSequence(index, IrSignal.Pass.intro)),
+                new IrSequence(getSequence(index, IrSignal.Pass.repeat)),
+                new IrSequence(getSequence(index, IrSignal.Pass.ending)), frequency, dutyCycle);
+    }
+
+    /**
+     * Signals rendered by one thread, for consecutive parameter sets.
+     */
+    private static final class Chunk {
+
+        private int[] durations;
+        private int length;
+        private final int[] offsets;
+        private double[] buffer;
+        private IrpException irpException;
+        private OddSequenceLengthException oddSequenceLengthException;
+
+        Chunk(Protocol protocol, List<Map<String, Long>> parameters, int start) {
+            int end = Math.min(start + CHUNK_SIZE, parameters.size());
+            offsets = new int[PASSES * (end - start)];
+            durations = new int[256];
+            buffer = new double[0];
+            length = 0;
+            irpException = null;
+            oddSequenceLengthException = null;
+            try {
+                for (int i = start; i < end; i++)
+                    render(protocol, parameters.get(i), PASSES * (i - start));
+            } catch (IrpException ex) {
+                irpException = ex;
+            } catch (OddSequenceLengthException ex) {
+                oddSequenceLengthException = ex;
+            }
+        }
+
+        private void render(Protocol protocol, Map<String, Long> params, int index) throws IrpException, OddSequenceLengthException {
+            NameEngine nameEngine = protocol.renderNameEngine(params, new RenderState());
+            for (IrSignal.Pass pass : new IrSignal.Pass[]{IrSignal.Pass.intro, IrSignal.Pass.repeat, IrSignal.Pass.ending}) {
+                offsets[index + pass.ordinal()] = length;
+                CompiledRenderer compiledRenderer = CompiledRenderer.isEnabled() ? protocol.getCompiledRenderer(pass) : null;
+                if (compiledRenderer != null) {
+                    if (buffer.length < compiledRenderer.getMaxLength())
+                        buffer = new double[compiledRenderer.getMaxLength()];
+                    int n = compiledRenderer.render(nameEngine, buffer);
+                    ensureCapacity(n);
+                    for (int i = 0; i < n; i++)
+                        durations[length++] = (int) Math.round(Math.abs(buffer[i]));
+                } else {
+                    IrSequence irSequence = protocol.toIrSequence(nameEngine, pass);
+                    ensureCapacity(irSequence.getLength());
+                    for (int i = 0; i < irSequence.getLength(); i++)
+                        durations[length++] = (int) Math.round(irSequence.get(i));
+                }
+            }
+        }
+
+        private void ensureCapacity(int n) {
+            if (length + n > durations.length)
+                durations = Arrays.copyOf(durations, Math.max(2 * durations.length, length + n));
+        }
+
+        void rethrow() throws IrpException, OddSequenceLengthException {
+            if (irpException != null)
+                throw irpException;
+            if (oddSequenceLengthException != null)
+                throw oddSequenceLengthException;
+        }
+    }
+}
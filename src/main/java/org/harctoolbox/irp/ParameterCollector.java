@@ -74,11 +74,12 @@ public final class ParameterCollector implements Cloneable {
     }
 
     ParameterCollector(ParameterSpecs parameterSpecs) {
-        this(new HashMap<>(4), parameterSpecs.bitmasks());
+        this(0, parameterSpecs.bitmasks());
     }
 
     void add(String name, BitwiseParameter parameter) throws ParameterInconsistencyException {
-        logger.log(Level.FINER, "Assigning {0} = {1}", new Object[]{name, parameter});
+        if (logger.isLoggable(Level.FINER))
+            logger.log(Level.FINER, "Assigning {0} = {1}", new Object[]{name, parameter});
         BitwiseParameter oldParameter = map.get(name);
         if (oldParameter == parameter)
             return;
@@ -86,7 +87,8 @@ public final class ParameterCollector implements Cloneable {
             if (oldParameter.isConsistent(parameter)) {
                 oldParameter.aggregate(parameter);
             } else {
-                logger.log(Level.FINE, "Name inconsistency: {0}, new value: {1}, old value: {2}", new Object[]{name, parameter.toString(), oldParameter.toString()});
+                if (logger.isLoggable(Level.FINE))
+                    logger.log(Level.FINE, "Name inconsistency: {0}, new value: {1}, old value: {2}", new Object[]{name, parameter.toString(), oldParameter.toString()});
                 throw new ParameterInconsistencyException(name, parameter, oldParameter);
             }
         } else {
@@ -107,7 +109,8 @@ public final class ParameterCollector implements Cloneable {
     }
 
     private void overwrite(String name, BitwiseParameter parameter) {
-        logger.log(Level.FINER, "Overwriting {0} = {1}", new Object[]{name, parameter});
+        if (logger.isLoggable(Level.FINER))
+            logger.log(Level.FINER, "Overwriting {0} = {1}", new Object[]{name, parameter});
         map.put(name, parameter);
     }
 
@@ -17,13 +17,26 @@ this program. If not, see http://www.gnu.org/licenses/.
 
 package org.harctoolbox.irp;
 
+import java.util.function.Supplier;
+
 public final class ParameterInconsistencyException extends SignalRecognitionException {
 
+    private static Supplier<String> message(String name, BitwiseParameter expected, BitwiseParameter parameter) {
+        // The arguments may be modified later, so capture their present values
+        long expectedValue = expected.getValue();
+        long expectedBitmask = expected.getBitmask();
+        long parameterValue = parameter.getValue();
+        long parameterBitmask = parameter.getBitmask();
+        return () -> "Conflicting assignments of " + name
+                + ", expected: " + new BitwiseParameter(expectedValue, expectedBitmask)
+                + ", gotten: " + new BitwiseParameter(parameterValue, parameterBitmask);
+    }
+
     ParameterInconsistencyException(String name, long newValue, long oldValue) {
-        super("Conflicting assignments of " + name + ", new: " + newValue + ", old: " + oldValue);
+        super(() -> "Conflicting assignments of " + name + ", new: " + newValue + ", old: " + oldValue);
     }
 
     ParameterInconsistencyException(String name, BitwiseParameter expected, BitwiseParameter parameter) {
-        super("Conflicting assignments of " + name + ", expected: " + expected + ", gotten: " + parameter);
+        super(message(name, expected, parameter));
     }
 }
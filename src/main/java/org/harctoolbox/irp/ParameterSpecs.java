@@ -19,6 +19,7 @@ package org.harctoolbox.irp;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -36,6 +37,7 @@ import org.w3c.dom.Element;
 public final class ParameterSpecs extends IrpObject implements Iterable<ParameterSpec>,AggregateLister,Comparator<String> {
 
     private Map<String, ParameterSpec> map = new LinkedHashMap<>(3);
+    private transient volatile Map<String, Long> bitmasks = null;
 
     public ParameterSpecs() {
         super(null);
@@ -106,6 +108,7 @@ public final class ParameterSpecs extends IrpObject implements Iterable<Paramete
 
     public void replace(ParameterSpecs newParameterSpecs) {
         map = newParameterSpecs.map;
+        bitmasks = null;
     }
 
     @Override
@@ -136,11 +139,20 @@ public final class ParameterSpecs extends IrpObject implements Iterable<Paramete
         return parameterSpec != null ? parameterSpec.bitmask() : null;
     }
 
+    /**
+     * Returns the bitmasks of the parameters. Computed on first call, and then cached.
+     * @return unmodifiable map
+     */
     public Map<String, Long> bitmasks() {
-        Map<String, Long> result = new HashMap<>(size());
-        map.entrySet().forEach((name) -> {
-            result.put(name.getKey(), name.getValue().bitmask());
-        });
+        Map<String, Long> result = bitmasks;
+        if (result == null) {
+            Map<String, Long> masks = new HashMap<>(size());
+            map.entrySet().forEach((name) -> {
+                masks.put(name.getKey(), name.getValue().bitmask());
+            });
+            result = Collections.unmodifiableMap(masks);
+            bitmasks = result;
+        }
         return result;
     }
 
@@ -342,6 +354,7 @@ public final class ParameterSpecs extends IrpObject implements Iterable<Paramete
     }
 
     public void tweak(String name, long min, long max) throws InvalidNameException {
+        bitmasks = null;
         ParameterSpec oldSpec = map.get(name);
         if (oldSpec == null) {
             ParameterSpec newSpec = new ParameterSpec(name, false, min, max);
@@ -76,11 +76,14 @@ public class Protocol extends IrpObject implements AggregateLister {
     private final NameEngine initialDefinitions;
     private NameEngine definitions;
     private final NameEngine memoryVariables;
+    private final Map<String, Long> memoryDefaults;
     private Boolean interleavingFlash = null;
     private Boolean interleavingGap = null;
     private transient ParserDriver parserDriver = null;
     private final Class<? extends AbstractDecoder> decoderClass;
     private String irp;
+    private transient volatile DecodePlan[] decodePlans = null;
+    private transient volatile CompiledRenderer[] compiledRenderers = null;
 
     public Protocol(GeneralSpec generalSpec, BitspecIrstream bitspecIrstream, NameEngine definitions, ParameterSpecs parameterSpecs) {
         this(generalSpec, bitspecIrstream, definitions, parameterSpecs, null);
@@ -108,6 +111,7 @@ public class Protocol extends IrpObject implements AggregateLister {
         this.initialDefinitions = definitions;
         this.decoderClass = decoderClass;
         this.memoryVariables = new NameEngine();
+        this.memoryDefaults = new HashMap<>(0);
         initializeDefinitions();
         this.parameterSpecs = parameterSpecs != null ? parameterSpecs : new ParameterSpecs();
         computeNormalForm();
@@ -153,6 +157,7 @@ public class Protocol extends IrpObject implements AggregateLister {
                 String name = parameter.getName();
                 long initVal = parameter.getDefault().toLong();
                 memoryVariables.define(name, initVal);
+                memoryDefaults.put(name, initVal);
             }
         }
 
@@ -296,6 +301,8 @@ public class Protocol extends IrpObject implements AggregateLister {
 
     /**
      * Renders the protocol. Parameter values that are free in the protocol are taken from the NameEngine given as argument.
+     * The memory variables (like toggles) are taken from, and stored in, the Protocol,
+     * so this is not to be called from several threads simultaneously; see {@link #toIrSignal(Map, RenderState)}.
      * @param nameEngine containing free names; may be changed in the call
      * @return rendered signal
      * @throws ArithmeticException
@@ -323,6 +330,63 @@ public class Protocol extends IrpObject implements AggregateLister {
         return toIrSignal(nameEngine);
     }
 
+    /**
+     * Renders the protocol, without changing the Protocol or the parameters.
+     * Instead, the values of the memory variables are taken from, and stored in, the RenderState given as argument.
+     * Memory variables neither in the parameters nor in the state get their default values.
+     * This way, a Protocol can be used for rendering by several threads simultaneously, each using its own RenderState.
+     * @param params Parameter values
+     * @param state values of the memory variables of the device or session; updated in the call.
+     * @return rendered signal
+     * @throws DomainViolationException
+     * @throws NameUnassignedException
+     * @throws IrpInvalidArgumentException
+     * @throws InvalidNameException
+     * @throws OddSequenceLengthException
+     */
+    public IrSignal toIrSignal(Map<String, Long> params, RenderState state) throws DomainViolationException, NameUnassignedException, IrpInvalidArgumentException, InvalidNameException, OddSequenceLengthException {
+        Objects.requireNonNull(state);
+        NameEngine nameEngine = renderNameEngine(params, state);
+        IrSequence intro = toIrSequence(nameEngine, Pass.intro);
+        IrSequence repeat = toIrSequence(nameEngine, Pass.repeat);
+        IrSequence ending = toIrSequence(nameEngine, Pass.ending);
+        saveMemoryVariables(nameEngine, state);
+        return new IrSignal(intro, repeat, ending, getFrequencyWithDefault(), getDutyCycle());
+    }
+
+    /**
+     * Sets up a NameEngine for {@link #toIrSignal(Map, RenderState)}, containing the parameters, their default values,
+     * the definitions, and the memory variables.
+     */
+    NameEngine renderNameEngine(Map<String, Long> params, RenderState state) throws DomainViolationException, InvalidNameException, NameUnassignedException {
+        NameEngine nameEngine = new NameEngine(params);
+        // initialDefinitions is not changed after construction, contrary to definitions
+        nameEngine.add(initialDefinitions);
+        parameterSpecs.check(nameEngine);
+        fetchMemoryVariables(nameEngine, state);
+        return nameEngine;
+    }
+
+    private void fetchMemoryVariables(NameEngine nameEngine, RenderState state) throws InvalidNameException {
+        for (Map.Entry<String, Long> kvp : memoryDefaults.entrySet()) {
+            String name = kvp.getKey();
+            if (!nameEngine.containsKey(name)) {
+                Long value = state.get(name);
+                nameEngine.define(name, value != null ? value : kvp.getValue());
+            }
+        }
+    }
+
+    private void saveMemoryVariables(NameEngine nameEngine, RenderState state) {
+        for (String name : memoryDefaults.keySet()) {
+            try {
+                state.set(name, nameEngine.toLong(name));
+            } catch (NameUnassignedException ex) {
+                throw new ThisCannotHappenException(ex);
+            }
+        }
+    }
+
     private void fetchMemoryVariables(NameEngine nameEngine) {
         for (Map.Entry<String, Expression> kvp : memoryVariables) {
             String name = kvp.getKey();
@@ -371,15 +435,37 @@ public class Protocol extends IrpObject implements AggregateLister {
      * @throws org.harctoolbox.irp.IrpSyntaxException
      * @throws org.harctoolbox.irp.DomainViolationException
      */
-    private IrSequence toIrSequence(NameEngine nameEngine, Pass pass) throws NameUnassignedException, IrpInvalidArgumentException, OddSequenceLengthException {
-        RenderData renderData = new RenderData(generalSpec, nameEngine);
-        BitspecIrstream stream = extractBitspecIrstream(pass);
-        stream.render(renderData, new ArrayList<>(0));
-        IrSequence irSequence = renderData.toIrSequence();
-        logger.log(Level.FINE, "{0} {1}", new Object[]{pass, irSequence});
+    IrSequence toIrSequence(NameEngine nameEngine, Pass pass) throws NameUnassignedException, IrpInvalidArgumentException, OddSequenceLengthException {
+        CompiledRenderer compiledRenderer = CompiledRenderer.isEnabled() ? getCompiledRenderer(pass) : null;
+        IrSequence irSequence;
+        if (compiledRenderer != null)
+            irSequence = compiledRenderer.render(nameEngine);
+        else {
+            RenderData renderData = new RenderData(generalSpec, nameEngine);
+            BitspecIrstream stream = extractBitspecIrstream(pass);
+            stream.render(renderData, new ArrayList<>(0));
+            irSequence = renderData.toIrSequence();
+        }
+        if (logger.isLoggable(Level.FINE))
+            logger.log(Level.FINE, "{0} {1}", new Object[]{pass, irSequence});
         return irSequence;
     }
 
+    /**
+     * Returns the compiled renderer of the pass, or null if it cannot be compiled, compiling all passes on first use.
+     * (Computing twice in a race is harmless.)
+     */
+    CompiledRenderer getCompiledRenderer(Pass pass) {
+        CompiledRenderer[] renderers = compiledRenderers;
+        if (renderers == null) {
+            renderers = new CompiledRenderer[Pass.values().length];
+            for (Pass p : new Pass[]{Pass.intro, Pass.repeat, Pass.ending})
+                renderers[p.ordinal()] = CompiledRenderer.compile(generalSpec, bitspecIrstream.getBitSpec(), normalFormVariation.select(p));
+            compiledRenderers = renderers;
+        }
+        return renderers[pass.ordinal()];
+    }
+
     private BitspecIrstream extractBitspecIrstream(Pass pass) {
         BitSpec bitSpec = bitspecIrstream.getBitSpec();
         BareIrStream irStream = normalFormVariation.select(pass);
@@ -609,23 +695,23 @@ public class Protocol extends IrpObject implements AggregateLister {
 
     public Map<String, Long> recognize(IrSignal irSignal, Decoder.DecoderParameters parameters) throws SignalRecognitionException, ProtocolNotDecodableException {
         checkFrequency(irSignal.getFrequencyWithDefault(), parameters);
-        initializeDefinitions();
-        ParameterCollector parameterCollector = new ParameterCollector(definitions.size() + parameterSpecs.size(), parameterSpecs.bitmasks());
+        NameEngine nameEngine = new NameEngine(initialDefinitions);
+        ParameterCollector parameterCollector = new ParameterCollector(nameEngine.size() + parameterSpecs.size(), parameterSpecs.bitmasks());
 
-        boolean matched = recognizeIntro(irSignal, parameters, parameterCollector);
+        boolean matched = recognizeIntro(irSignal, parameters, parameterCollector, nameEngine);
         if (! matched)
-            recognizeIntroAsRepeat(irSignal, parameters, parameterCollector);
+            recognizeIntroAsRepeat(irSignal, parameters, parameterCollector, nameEngine);
         else
-            recognizeRepeat(irSignal, parameters, parameterCollector);
+            recognizeRepeat(irSignal, parameters, parameterCollector, nameEngine);
 
-        recognizeEnding(irSignal, parameters, parameterCollector);
+        recognizeEnding(irSignal, parameters, parameterCollector, nameEngine);
         Map<String, Long> params = parameterCollector.collectedNames();
         parameterSpecs.removeNotInParameterSpec(params);
         return params;
     }
 
-    private boolean recognizeIntro(IrSignal irSignal, Decoder.DecoderParameters parameters, ParameterCollector parameterCollector) throws SignalRecognitionException {
-        int pos = decode(parameterCollector, irSignal.getIntroSequence(), IrSignal.Pass.intro, parameters);
+    private boolean recognizeIntro(IrSignal irSignal, Decoder.DecoderParameters parameters, ParameterCollector parameterCollector, NameEngine nameEngine) throws SignalRecognitionException {
+        int pos = decode(parameterCollector, nameEngine, irSignal.getIntroSequence(), IrSignal.Pass.intro, parameters);
         boolean matchFailed = (pos == 0) && irSignal.getIntroLength() > 0;
         if (matchFailed && parameters.isStrict())
                throw new SignalRecognitionException("Intro sequence was not matched");
@@ -633,21 +719,21 @@ public class Protocol extends IrpObject implements AggregateLister {
         return ! matchFailed;
     }
 
-    private void recognizeIntroAsRepeat(IrSignal irSignal, Decoder.DecoderParameters parameters, ParameterCollector parameterCollector) throws SignalRecognitionException {
-        int pos = decode(parameterCollector, irSignal.getIntroSequence(), IrSignal.Pass.repeat, parameters);
+    private void recognizeIntroAsRepeat(IrSignal irSignal, Decoder.DecoderParameters parameters, ParameterCollector parameterCollector, NameEngine nameEngine) throws SignalRecognitionException {
+        int pos = decode(parameterCollector, nameEngine, irSignal.getIntroSequence(), IrSignal.Pass.repeat, parameters);
         if (pos < irSignal.getIntroLength())
             throw new SignalRecognitionException("Intro sequence was not matched, also not as repeat");
     }
 
-    private void recognizeRepeat(IrSignal irSignal, Decoder.DecoderParameters parameters, ParameterCollector parameterCollector) throws SignalRecognitionException {
-        int pos = decode(parameterCollector, irSignal.getRepeatSequence(), IrSignal.Pass.repeat, parameters);
+    private void recognizeRepeat(IrSignal irSignal, Decoder.DecoderParameters parameters, ParameterCollector parameterCollector, NameEngine nameEngine) throws SignalRecognitionException {
+        int pos = decode(parameterCollector, nameEngine, irSignal.getRepeatSequence(), IrSignal.Pass.repeat, parameters);
         if (pos < irSignal.getRepeatLength())
             throw new SignalRecognitionException("Repeat sequence was not fully matched");
     }
 
-    private void recognizeEnding(IrSignal irSignal, Decoder.DecoderParameters parameters, ParameterCollector parameterCollector) throws SignalRecognitionException {
+    private void recognizeEnding(IrSignal irSignal, Decoder.DecoderParameters parameters, ParameterCollector parameterCollector, NameEngine nameEngine) throws SignalRecognitionException {
         try {
-            int pos = decode(parameterCollector, irSignal.getEndingSequence(), IrSignal.Pass.ending, parameters);
+            int pos = decode(parameterCollector, nameEngine, irSignal.getEndingSequence(), IrSignal.Pass.ending, parameters);
             if (pos < irSignal.getEndingLength())
                 throw new SignalRecognitionException("Ending sequence was not fully matched");
         } catch (SignalRecognitionException ex) {
@@ -675,20 +761,21 @@ public class Protocol extends IrpObject implements AggregateLister {
             throws SignalRecognitionException {
 
         checkFrequency(irSequence.getFrequencyWithDefault(), params);
-        initializeDefinitions();
+        NameEngine nameEngine = new NameEngine(initialDefinitions);
         ParameterCollector names = new ParameterCollector();
-        int pos = decode(names, irSequence, beginPos, IrSignal.Pass.intro, params);
+        int pos = decode(names, nameEngine, irSequence, beginPos, IrSignal.Pass.intro, params);
         int noRepeatsMatched = 0;
         int oldPos;
         while (true) {
             oldPos = pos;
             try {
-                pos = decode(names, irSequence, oldPos, IrSignal.Pass.repeat, params);
+                pos = decode(names, nameEngine, irSequence, oldPos, IrSignal.Pass.repeat, params);
                 if (pos == oldPos)
                     break;
                 noRepeatsMatched++;
             } catch (SignalRecognitionException ex) {
-                logger.log(Level.FINE, "Protocol did not parse: {0}", ex.getMessage());
+                if (logger.isLoggable(Level.FINE))
+                    logger.log(Level.FINE, "Protocol did not parse: {0}", ex.getMessage());
                 break;
             }
         }
@@ -704,7 +791,7 @@ public class Protocol extends IrpObject implements AggregateLister {
             throw new SignalRecognitionException("Neither intro- nor repeat sequence was matched");
 
         try {
-            pos = decode(names, irSequence, pos, IrSignal.Pass.ending, params);
+            pos = decode(names, nameEngine, irSequence, pos, IrSignal.Pass.ending, params);
             if (params.isStrict() && pos < irSequence.getLength() - 1)
                 throw new SignalRecognitionException("Sequence was not fully matched");
         } catch (SignalRecognitionException ex) {
@@ -720,25 +807,47 @@ public class Protocol extends IrpObject implements AggregateLister {
     }
 
     protected void checkFrequency(Double frequency, Decoder.DecoderParameters params) throws SignalRecognitionException {
-        logger.log(Level.FINER, "Expected frequency {0}, actual {1}, tolerance {2}", new Object[]{(int) getFrequencyWithDefault(), frequency.intValue(), params.getFrequencyTolerance().intValue()});
-        boolean success = params.getFrequencyTolerance() < 0
-                || IrCoreUtils.approximatelyEquals(getFrequencyWithDefault(), frequency, params.getFrequencyTolerance(), 0.0);
-        logger.log(Level.FINER, "Frequency was checked, {0}OK.", success ? "" : "NOT ");
+        if (logger.isLoggable(Level.FINER))
+            logger.log(Level.FINER, "Expected frequency {0}, actual {1}, tolerance {2}", new Object[]{(int) getFrequencyWithDefault(), frequency.intValue(), params.getFrequencyTolerance().intValue()});
+        boolean success = frequencyMatches(frequency, params);
+        if (logger.isLoggable(Level.FINER))
+            logger.log(Level.FINER, "Frequency was checked, {0}OK.", success ? "" : "NOT ");
         if (!success)
             throw new SignalRecognitionException("Frequency does not match");
     }
 
-    private int decode(ParameterCollector names, IrSequence irSequence, IrSignal.Pass pass, Decoder.DecoderParameters params)
+    /**
+     * Checks the frequency of the argument against the frequency of the protocol, without any side effects.
+     * @param frequency actual frequency
+     * @param params
+     * @return true if the frequency is acceptable for the protocol.
+     */
+    boolean frequencyMatches(double frequency, Decoder.DecoderParameters params) {
+        return params.getFrequencyTolerance() < 0
+                || IrCoreUtils.withinTolerance(getFrequencyWithDefault(), frequency, params.getFrequencyTolerance(), 0.0);
+    }
+
+    private int decode(ParameterCollector names, NameEngine nameEngine, IrSequence irSequence, IrSignal.Pass pass, Decoder.DecoderParameters params)
             throws SignalRecognitionException {
-        return decode(names, irSequence, 0, pass, params);
+        return decode(names, nameEngine, irSequence, 0, pass, params);
     }
 
-    private int decode(ParameterCollector names, IrSequence irSequence, int beginPos, IrSignal.Pass pass, Decoder.DecoderParameters params)
+    /**
+     * Does the real work. Only local objects (names, nameEngine, recognizeData) are modified,
+     * so that a Protocol may be used by several threads simultaneously for recognition.
+     */
+    private int decode(ParameterCollector names, NameEngine nameEngine, IrSequence irSequence, int beginPos, IrSignal.Pass pass, Decoder.DecoderParameters params)
             throws SignalRecognitionException {
-        RecognizeData recognizeData = new RecognizeData(generalSpec, definitions, parameterSpecs, irSequence, beginPos, interleavingOk(), names, params, pass);
-        Protocol reducedProtocol = normalForm(pass);
-        //traverse(recognizeData, pass);
-        reducedProtocol.decode(recognizeData);
+        DecodePlan decodePlan = getDecodePlan(pass);
+        RecognizeData recognizeData = new RecognizeData(generalSpec, nameEngine, parameterSpecs, irSequence, beginPos, decodePlan.interleaving, names, params, pass);
+        if (CompiledRecognizer.isEnabled()) {
+            decodePlan.compiledRecognizer.recognize(recognizeData);
+            recognizeData.finish();
+        } else {
+            Protocol reducedProtocol = decodePlan.getNormalForm();
+            //traverse(recognizeData, pass);
+            reducedProtocol.decode(recognizeData);
+        }
         try {
             names.fixParameterSpecs(parameterSpecs);
             recognizeData.checkConsistency();
@@ -749,6 +858,29 @@ public class Protocol extends IrpObject implements AggregateLister {
         return recognizeData.getPosition();
     }
 
+    /**
+     * Returns the compiled form of the normal form of the pass, compiling all passes on first use.
+     */
+    CompiledRecognizer getCompiledRecognizer(IrSignal.Pass pass) {
+        return getDecodePlan(pass).compiledRecognizer;
+    }
+
+    /**
+     * Returns the decode plan of the pass, computing the plans of all passes on first use.
+     * (Computing twice in a race is harmless.)
+     */
+    private DecodePlan getDecodePlan(IrSignal.Pass pass) {
+        DecodePlan[] plans = decodePlans;
+        if (plans == null) {
+            plans = new DecodePlan[IrSignal.Pass.values().length];
+            boolean interleaving = interleavingOk();
+            for (IrSignal.Pass p : new IrSignal.Pass[]{IrSignal.Pass.intro, IrSignal.Pass.repeat, IrSignal.Pass.ending})
+                plans[p.ordinal()] = new DecodePlan(normalFormVariation.select(p), interleaving);
+            decodePlans = plans;
+        }
+        return plans[pass.ordinal()];
+    }
+
     private void decode(RecognizeData recognizeData) throws SignalRecognitionException {
         bitspecIrstream.decode(recognizeData, new ArrayList<>(0), true);
         recognizeData.finish();
@@ -935,6 +1067,15 @@ public class Protocol extends IrpObject implements AggregateLister {
         return parameterSpecs.hasParameterMemory(parameterName);
     }
 
+    /**
+     * Returns true if the protocol has parameters with memory, making rendering dependent on, and changing, the state of the Protocol,
+     * unless rendered with {@link #toIrSignal(Map, RenderState)}.
+     * @return
+     */
+    public boolean hasMemoryVariables() {
+        return !memoryVariables.isEmpty();
+    }
+
     public Expression getParameterDefault(String parameterName) {
         return parameterSpecs.getParameterDefault(parameterName);
     }
@@ -1003,6 +1144,37 @@ public class Protocol extends IrpObject implements AggregateLister {
         }
     }
 
+    /**
+     * What is needed for decoding a pass, as far as it depends on the protocol only.
+     * Computed once, and then reused by all recognize calls, in particular for all repeats.
+     */
+    private final class DecodePlan {
+
+        private final BareIrStream irStream;
+        private final CompiledRecognizer compiledRecognizer;
+        private final boolean interleaving;
+        private volatile Protocol normalForm = null;
+
+        DecodePlan(BareIrStream irStream, boolean interleaving) {
+            this.irStream = irStream;
+            this.compiledRecognizer = new CompiledRecognizer(generalSpec, bitspecIrstream.getBitSpec(), irStream);
+            this.interleaving = interleaving;
+        }
+
+        /**
+         * Returns the normal form of the pass as a Protocol, as used by the interpreter.
+         * Created on first use. The result is shared, and is not to be used for rendering.
+         */
+        Protocol getNormalForm() {
+            Protocol protocol = normalForm;
+            if (protocol == null) {
+                protocol = mkProtocolFromNormalFormVariation(irStream);
+                normalForm = protocol;
+            }
+            return protocol;
+        }
+    }
+
     /**
      * This exception is thrown when trying to decode with a Protocol that is not decodeable.
      */
@@ -0,0 +1,217 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.harctoolbox.ircore.IrCoreUtils;
+import org.harctoolbox.ircore.IrSequence;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.ModulatedIrSequence;
+
+/**
+ * Index of the protocols of a {@link Decoder}, computed once, used to quickly sort out
+ * protocols that cannot possibly match a given signal, before invoking the (comparatively expensive)
+ * recognizer. Only necessary conditions for a match are checked,
+ * so the result of the decoder is not affected, only its speed.
+ *
+ * Presently two properties are checked: the modulation frequency,
+ * and the first flash of the signal, which has to be consumed by one of the protocol's durations.
+ */
+final class ProtocolPrefilter {
+
+    private static final Logger logger = Logger.getLogger(ProtocolPrefilter.class.getName());
+
+    private final List<Entry> entries;
+
+    ProtocolPrefilter(Collection<NamedProtocol> protocols) {
+        entries = new ArrayList<>(protocols.size());
+        protocols.forEach((protocol) -> {
+            entries.add(new Entry(protocol));
+        });
+    }
+
+    /**
+     * Resolves the protocol specific parameters for all protocols, for use with one or several signals.
+     * @param userParams user supplied parameters
+     * @return
+     */
+    Selection select(Decoder.DecoderParameters userParams) {
+        return new Selection(userParams);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * A protocol together with the decoder parameters to be used with it.
+     */
+    static final class Candidate {
+        private final NamedProtocol protocol;
+        private final Decoder.DecoderParameters parameters;
+        private final int index;
+
+        private Candidate(NamedProtocol protocol, Decoder.DecoderParameters parameters, int index) {
+            this.protocol = protocol;
+            this.parameters = parameters;
+            this.index = index;
+        }
+
+        NamedProtocol getProtocol() {
+            return protocol;
+        }
+
+        Decoder.DecoderParameters getParameters() {
+            return parameters;
+        }
+
+        /**
+         * @return position of the protocol in the Decoder, and the prefilter.
+         */
+        int getIndex() {
+            return index;
+        }
+    }
+
+    /**
+     * The protocols of the prefilter, with the protocol specific parameters resolved for a particular
+     * set of user parameters. Immutable, may be shared between threads.
+     */
+    final class Selection {
+        private final Candidate[] signalCandidates;
+        private final Candidate[] sequenceCandidates;
+
+        private Selection(Decoder.DecoderParameters userParams) {
+            signalCandidates = new Candidate[entries.size()];
+            sequenceCandidates = new Candidate[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                NamedProtocol protocol = entries.get(i).protocol;
+                Decoder.DecoderParameters sequenceParameters = protocol.selectParameters(userParams, false);
+                sequenceCandidates[i] = new Candidate(protocol, sequenceParameters, i);
+                signalCandidates[i] = protocol.isRejectRepeats()
+                        ? new Candidate(protocol, protocol.selectParameters(userParams, true), i)
+                        : sequenceCandidates[i];
+            }
+        }
+
+        /**
+         * Returns the protocols that may match the ModulatedIrSequence, starting at position, in the original order.
+         * @param irSequence
+         * @param position
+         * @return
+         */
+        List<Candidate> candidates(ModulatedIrSequence irSequence, int position) {
+            double firstFlash = position < irSequence.getLength() && Duration.isOn(position) ? irSequence.get(position) : Double.NaN;
+            return candidates(sequenceCandidates, irSequence.getFrequencyWithDefault(), firstFlash);
+        }
+
+        /**
+         * Returns the protocols that may match the IrSignal, in the original order.
+         * @param irSignal
+         * @return
+         */
+        List<Candidate> candidates(IrSignal irSignal) {
+            IrSequence sequence = irSignal.getIntroLength() > 0 ? irSignal.getIntroSequence() : irSignal.getRepeatSequence();
+            double firstFlash = sequence.isEmpty() ? Double.NaN : sequence.get(0);
+            return candidates(signalCandidates, irSignal.getFrequencyWithDefault(), firstFlash);
+        }
+
+        private List<Candidate> candidates(Candidate[] candidates, double frequency, double firstFlash) {
+            List<Candidate> result = new ArrayList<>(candidates.length);
+            for (int i = 0; i < candidates.length; i++)
+                if (entries.get(i).isCandidate(frequency, firstFlash, candidates[i].parameters))
+                    result.add(candidates[i]);
+
+            if (logger.isLoggable(Level.FINER))
+                logger.log(Level.FINER, "Prefilter left {0} of {1} protocols", new Object[]{result.size(), candidates.length});
+            return result;
+        }
+    }
+
+    private static final class Entry {
+        private final NamedProtocol protocol;
+
+        /**
+         * All durations of the protocol, in micro seconds, or null if the first flash cannot be used for filtering.
+         */
+        private final double[] durations;
+        private final boolean allowChopping;
+
+        Entry(NamedProtocol protocol) {
+            this.protocol = protocol;
+            this.allowChopping = !protocol.interleavingOk();
+            this.durations = usableDurations(protocol);
+        }
+
+        /**
+         * An extent does not check the sign of the duration it consumes, and its
+         * expected duration depends on the data preceding it. Therefore, if the protocol contains
+         * extents, only use the durations if it is known to start with a flash.
+         */
+        private static double[] usableDurations(NamedProtocol protocol) {
+            if (protocol.hasExtent() && !protocol.startsWithFlash())
+                return null;
+
+            TreeSet<Double> set;
+            try {
+                set = protocol.allDurationsInMicros();
+            } catch (RuntimeException ex) {
+                // e.g. durations depending on parameters
+                return null;
+            }
+            if (set == null || set.isEmpty())
+                return null;
+
+            double[] array = new double[set.size()];
+            int i = 0;
+            for (Double d : set)
+                array[i++] = d;
+            return array;
+        }
+
+        boolean isCandidate(double frequency, double firstFlash, Decoder.DecoderParameters params) {
+            if (!protocol.frequencyMatches(frequency, params))
+                return false;
+
+            return durations == null || Double.isNaN(firstFlash) || durationMatches(Math.abs(firstFlash), params);
+        }
+
+        /**
+         * Mimics {@link Duration#recognize(RecognizeData, double, double, boolean)}, being generous on the leadout.
+         */
+        private boolean durationMatches(double actual, Decoder.DecoderParameters params) {
+            if (actual >= params.getMinimumLeadout())
+                return true;
+
+            double absoluteTolerance = params.getAbsoluteTolerance();
+            double relativeTolerance = params.getRelativeTolerance();
+            for (double wanted : durations) {
+                if (IrCoreUtils.withinTolerance(actual, wanted, absoluteTolerance, relativeTolerance))
+                    return true;
+                if (allowChopping && actual > wanted)
+                    return true;
+            }
+            return false;
+        }
+    }
+}
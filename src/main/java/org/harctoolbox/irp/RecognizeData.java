@@ -19,6 +19,7 @@ package org.harctoolbox.irp;
 
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
+import java.util.logging.Logger;
 import org.harctoolbox.ircore.IrSequence;
 import org.harctoolbox.ircore.IrSignal;
 
@@ -275,6 +276,33 @@ public final class RecognizeData extends Traverser implements Cloneable {
         return pass;
     }
 
+    /**
+     * Logs the entering of the item argument, provided that the logger argument is loggable on {@link #getLogLevel()}.
+     * The log record is not created otherwise.
+     * @param logger
+     * @param item
+     */
+    void logEnter(Logger logger, IrStreamItem item) {
+        if (logger.isLoggable(getLogLevel()))
+            logger.log(logRecordEnter(item));
+    }
+
+    /**
+     * Logs the exit of the item argument, provided that the logger argument is loggable on {@link #getLogLevel()}.
+     * The log record is not created otherwise.
+     * @param logger
+     * @param item
+     */
+    void logExit(Logger logger, IrStreamItem item) {
+        if (logger.isLoggable(getLogLevel()))
+            logger.log(logRecordExit(item));
+    }
+
+    void logEnterWithIrStream(Logger logger, IrStreamItem item) {
+        if (logger.isLoggable(getLogLevel()))
+            logger.log(logRecordEnterWithIrStream(item));
+    }
+
     LogRecord logRecordEnter(IrStreamItem item) {
         return logRecord(item, true);
     }
@@ -0,0 +1,222 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+
+package org.harctoolbox.irp;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.OddSequenceLengthException;
+
+/**
+ * Bounded cache of rendered signals, keyed by Protocol and parameters, evicting the least recently used entries.
+ * Protocols with memory variables (like a toggle) are always rendered, since their result depends on, and changes,
+ * the state of the protocol.
+ *
+ * The key is the Protocol object, not its name, so if a protocol in an {@link IrpDatabase} is modified,
+ * the old entries are no longer found, and eventually evicted.
+ *
+ * Instances are thread safe. However, rendering a protocol with memory variables without a {@link RenderState}
+ * updates the protocol, so the protocol must then not be used by several threads simultaneously.
+ */
+public final class RenderCache {
+
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private final int capacity;
+    private final Map<Key, IrSignal> map;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder bypasses;
+    private final LongAdder evictions;
+
+    /**
+     * @param capacity Maximal number of signals in the cache, must be positive.
+     */
+    @SuppressWarnings("serial")
+    public RenderCache(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.bypasses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.map = new LinkedHashMap<Key, IrSignal>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, IrSignal> eldest) {
+                boolean remove = size() > RenderCache.this.capacity;
+                if (remove)
+                    evictions.increment();
+                return remove;
+            }
+        };
+    }
+
+    public RenderCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Renders the protocol with the parameters, or returns the previously rendered signal, if available.
+     * Equivalent to {@link Protocol#toIrSignal(Map)}, thus not to be called simultaneously on a protocol with memory variables.
+     * @param protocol
+     * @param parameters
+     * @return IrSignal, owned by the caller.
+     * @throws DomainViolationException
+     * @throws NameUnassignedException
+     * @throws IrpInvalidArgumentException
+     * @throws InvalidNameException
+     * @throws OddSequenceLengthException
+     */
+    public IrSignal render(Protocol protocol, Map<String, Long> parameters) throws DomainViolationException, NameUnassignedException, IrpInvalidArgumentException, InvalidNameException, OddSequenceLengthException {
+        return render(protocol, parameters, null);
+    }
+
+    /**
+     * Renders the protocol with the parameters, or returns the previously rendered signal, if available.
+     * Equivalent to {@link Protocol#toIrSignal(Map, RenderState)}.
+     * @param protocol
+     * @param parameters
+     * @param state memory variables of the device or session, or null for using the state of the protocol.
+     * @return IrSignal, owned by the caller.
+     * @throws DomainViolationException
+     * @throws NameUnassignedException
+     * @throws IrpInvalidArgumentException
+     * @throws InvalidNameException
+     * @throws OddSequenceLengthException
+     */
+    public IrSignal render(Protocol protocol, Map<String, Long> parameters, RenderState state) throws DomainViolationException, NameUnassignedException, IrpInvalidArgumentException, InvalidNameException, OddSequenceLengthException {
+        if (protocol.hasMemoryVariables()) {
+            bypasses.increment();
+            return state != null ? protocol.toIrSignal(parameters, state) : protocol.toIrSignal(parameters);
+        }
+
+        Key key = new Key(protocol, parameters);
+        IrSignal irSignal;
+        synchronized (map) {
+            irSignal = map.get(key);
+        }
+        if (irSignal != null) {
+            hits.increment();
+            return irSignal.clone();
+        }
+
+        misses.increment();
+        // No memory variables, so the state is not used; this form does not change the protocol.
+        irSignal = protocol.toIrSignal(parameters, new RenderState());
+        synchronized (map) {
+            map.put(key.immutableCopy(), irSignal);
+        }
+        return irSignal.clone();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        synchronized (map) {
+            return map.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (map) {
+            map.clear();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Number of renderings not using the cache, since the protocol has memory variables.
+     * @return
+     */
+    public long getBypasses() {
+        return bypasses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Resets the hits, misses, bypasses, and evictions counters.
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        bypasses.reset();
+        evictions.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "RenderCache{size=" + size() + ", capacity=" + capacity + ", hits=" + getHits() + ", misses=" + getMisses()
+                + ", bypasses=" + getBypasses() + ", evictions=" + getEvictions() + "}";
+    }
+
+    private static final class Key {
+        private final Protocol protocol;
+        private final Map<String, Long> parameters;
+        private final int hashCode;
+
+        /**
+         * Key for lookups only, since the parameters may be changed by the caller.
+         */
+        Key(Protocol protocol, Map<String, Long> parameters) {
+            this(protocol, parameters, 31 * System.identityHashCode(protocol) + parameters.hashCode());
+        }
+
+        private Key(Protocol protocol, Map<String, Long> parameters, int hashCode) {
+            this.protocol = protocol;
+            this.parameters = parameters;
+            this.hashCode = hashCode;
+        }
+
+        Key immutableCopy() {
+            return new Key(protocol, Collections.unmodifiableMap(new HashMap<>(parameters)), hashCode);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return protocol == other.protocol && Objects.equals(parameters, other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
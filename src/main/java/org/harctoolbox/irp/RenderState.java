@@ -0,0 +1,75 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irp;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Values of the memory variables, i.e. parameters with memory, like the toggle T of RC5 and RC6,
+ * of one device, or one session, for {@link Protocol#toIrSignal(Map, RenderState)}.
+ * This way, the state is kept outside of the Protocol, which is not changed by the rendering,
+ * and can be used by several threads simultaneously, each using its own RenderState.
+ *
+ * The variables are identified by their names, so a RenderState can be shared between the protocols used by a device.
+ * Variables not (yet) present have the default value, as given by the parameter specification of the protocol.
+ *
+ * Instances are not thread safe; a RenderState should not be used by several renderings simultaneously.
+ */
+public final class RenderState {
+
+    private final Map<String, Long> values;
+
+    public RenderState() {
+        values = new HashMap<>(2);
+    }
+
+    public RenderState(RenderState old) {
+        values = new HashMap<>(old.values);
+    }
+
+    /**
+     * Returns the value of the memory variable, or null if not present, i.e. if it has the default value.
+     * @param name
+     * @return
+     */
+    public Long get(String name) {
+        return values.get(name);
+    }
+
+    public void set(String name, long value) {
+        values.put(name, value);
+    }
+
+    /**
+     * Resets all variables to their default values.
+     */
+    public void reset() {
+        values.clear();
+    }
+
+    public Map<String, Long> toMap() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+}
@@ -17,17 +17,67 @@ this program. If not, see http://www.gnu.org/licenses/.
 
 package org.harctoolbox.irp;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Thrown when a signal does not match a protocol. Since this is the normal outcome of trying a protocol,
+ * (most protocols do not match a given signal), it is made cheap: the stack trace is only filled in
+ * if the logger of this class is loggable at level FINE,
+ * and messages can be given as a Supplier, only evaluated when the message is actually requested,
+ * or the exception is serialized.
+ */
 public class SignalRecognitionException extends IrpException {
 
+    private static final Logger logger = Logger.getLogger(SignalRecognitionException.class.getName());
+
+    private static boolean stackTrace() {
+        return logger.isLoggable(Level.FINE);
+    }
+
+    private final transient Supplier<String> messageSupplier;
+    private String suppliedMessage;
+
     public SignalRecognitionException(String string) {
-        super(string);
+        super(string, null, stackTrace());
+        messageSupplier = null;
     }
 
     public SignalRecognitionException() {
-        super();
+        this((String) null);
+    }
+
+    /**
+     * Constructor with lazily computed message.
+     * @param messageSupplier Computes the message when requested; should only depend on values not changed later.
+     */
+    public SignalRecognitionException(Supplier<String> messageSupplier) {
+        super(null, null, stackTrace());
+        this.messageSupplier = messageSupplier;
     }
 
     SignalRecognitionException(Throwable ex) {
-        super(ex);
+        super(null, ex, stackTrace());
+        messageSupplier = null;
+    }
+
+    @Override
+    public String getMessage() {
+        String message = super.getMessage();
+        if (message != null)
+            return message;
+        if (suppliedMessage == null && messageSupplier != null)
+            suppliedMessage = messageSupplier.get();
+        return suppliedMessage != null ? suppliedMessage
+                : getCause() != null ? getCause().toString()
+                : null;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        getMessage(); // the supplier is not serialized, its message is
+        out.defaultWriteObject();
     }
 }
@@ -0,0 +1,365 @@
+/*
+Copyright (C) 2026 Bengt Martensson.
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation; either version 3 of the License, or (at
+your option) any later version.
+
+This program is distributed in the hope that it will be useful, but
+WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+General Public License for more details.
+
+You should have received a copy of the GNU General Public License along with
+this program. If not, see http://www.gnu.org/licenses/.
+*/
+
+package org.harctoolbox.irp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.harctoolbox.ircore.IrCoreUtils;
+import org.harctoolbox.ircore.IrSequence;
+import org.harctoolbox.ircore.ModulatedIrSequence;
+import org.harctoolbox.ircore.OddSequenceLengthException;
+import org.harctoolbox.ircore.ThisCannotHappenException;
+
+/**
+ * Incremental decoder for continuous receiver input.
+ * Durations are pushed one at a time, as they arrive, using {@link #feed(double)}.
+ * A gap not shorter than the minimum leadout (from the {@link Decoder.DecoderParameters},
+ * or {@link IrCoreUtils#DEFAULT_MINIMUM_LEADOUT}) ends a frame.
+ * At the end of each frame, it is first checked whether the frame continues the current signal(s),
+ * i.e. is a repeat of it. Otherwise, the signal so far, including the new frame, is decoded,
+ * with the same semantics as {@link Decoder#decode(ModulatedIrSequence, Decoder.DecoderParameters)},
+ * and if that fails, the new frame alone.
+ * The results are reported to a {@link Listener} as soon as they are known.
+ *
+ * <p>While a signal is being repeated, only the frames up to its first repeat, and the latest repeat, are kept.
+ * Thus memory usage, as well as the time needed for each frame, are bounded also for arbitrarily long repeats.
+ *
+ * <p>Positions in the reported {@link Decoder.Decode}s are relative to the start of the signal.
+ *
+ * <p>Instances are not thread safe; use one per receiver.
+ */
+public final class StreamingDecoder {
+
+    private static final Logger logger = Logger.getLogger(StreamingDecoder.class.getName());
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Number of consecutive undecodable frames kept, for protocols with frames separated by long gaps.
+     */
+    private static final int MAX_UNDECODED_FRAMES = 4;
+
+    /**
+     * Frames longer than this (number of durations) are considered as garbage, and discarded.
+     */
+    private static final int MAX_FRAME_LENGTH = 1024;
+
+    /**
+     * Receiver of the events of a StreamingDecoder.
+     */
+    public interface Listener {
+
+        /**
+         * Called when a new signal has been decoded.
+         * @param decode
+         */
+        public void decoded(Decoder.Decode decode);
+
+        /**
+         * Called when a further repeat of the signal has been received.
+         * @param decode contains the increased number of repetitions.
+         */
+        public default void repeated(Decoder.Decode decode) {
+        }
+
+        /**
+         * Called when the signal is not continued, i.e., when a different signal starts, or on {@link #flush()}.
+         * @param decode final version of the decode.
+         */
+        public default void ended(Decoder.Decode decode) {
+        }
+    }
+
+    private final Decoder decoder;
+    private final Decoder.DecoderParameters decoderParameters;
+    private final Double frequency;
+    private final double minimumLeadout;
+    private final Listener listener;
+
+    private double[] durations;
+    private int length;
+    private int frameStart;
+    private int undecodedFrames;
+    private int repeatStart;
+    private List<ActiveSignal> active;
+
+    /**
+     * Constructor.
+     * @param decoder Decoder to use.
+     * @param decoderParameters
+     * @param frequency Modulation frequency of the input, or null for the default.
+     * @param listener Receiver of the decodes.
+     */
+    public StreamingDecoder(Decoder decoder, Decoder.DecoderParameters decoderParameters, Double frequency, Listener listener) {
+        this.decoder = Objects.requireNonNull(decoder);
+        this.decoderParameters = decoderParameters != null ? decoderParameters : new Decoder.DecoderParameters();
+        this.frequency = frequency;
+        this.minimumLeadout = IrCoreUtils.getMinimumLeadout(this.decoderParameters.getMinimumLeadout());
+        this.listener = Objects.requireNonNull(listener);
+        durations = new double[INITIAL_CAPACITY];
+        reset();
+    }
+
+    public StreamingDecoder(Decoder decoder, Listener listener) {
+        this(decoder, null, null, listener);
+    }
+
+    /**
+     * Processes one duration. Flashes and gaps are assumed to alternate, starting with a flash.
+     * The sign of the argument is ignored.
+     * @param duration in micro seconds.
+     */
+    public void feed(double duration) {
+        if (length == durations.length)
+            durations = Arrays.copyOf(durations, 2 * durations.length);
+        durations[length++] = Math.abs(duration);
+        if (length % 2 == 0) {
+            if (durations[length - 1] >= minimumLeadout)
+                frameEnded();
+            else if (length - frameStart > MAX_FRAME_LENGTH) {
+                logger.log(Level.FINE, "Frame longer than {0} durations, discarded", MAX_FRAME_LENGTH);
+                length = frameStart;
+            }
+        }
+    }
+
+    /**
+     * Processes the durations of the argument, as by repeated calls to {@link #feed(double)}.
+     * @param irSequence
+     */
+    public void feed(IrSequence irSequence) {
+        for (int i = 0; i < irSequence.getLength(); i++)
+            feed(irSequence.get(i));
+    }
+
+    /**
+     * To be called when the input has been silent for a while, or ends.
+     * The current frame, if any, is considered as ended, then the current signals are ended.
+     */
+    public void flush() {
+        if (length % 2 != 0)
+            feed(minimumLeadout);
+        else if (length > frameStart)
+            frameEnded();
+        end();
+        reset();
+    }
+
+    /**
+     * Discards all input, without any events.
+     */
+    public void reset() {
+        length = 0;
+        frameStart = 0;
+        undecodedFrames = 0;
+        repeatStart = -1;
+        active = Collections.emptyList();
+    }
+
+    /**
+     * @return the signals currently being received, possibly empty.
+     */
+    public List<Decoder.Decode> getActive() {
+        List<Decoder.Decode> result = new ArrayList<>(active.size());
+        active.forEach((signal) -> {
+            result.add(signal.toDecode());
+        });
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * @return Number of durations currently buffered.
+     */
+    int getBufferedLength() {
+        return length;
+    }
+
+    private void frameEnded() {
+        ModulatedIrSequence irSequence = sequence();
+        if (!active.isEmpty()) {
+            List<ActiveSignal> continued = continuations(irSequence);
+            if (!continued.isEmpty()) {
+                active = continued;
+                active.forEach((signal) -> {
+                    listener.repeated(signal.toDecode());
+                });
+                if (repeatStart >= 0)
+                    removePreviousRepeat();
+                repeatStart = frameStart;
+                frameStart = length;
+                return;
+            }
+        }
+        repeatStart = -1;
+
+        // The frame may complete a signal, for example an intro followed by the first repeat.
+        List<Decoder.Decode> decodes = decode(irSequence);
+        if (decodes.isEmpty() && frameStart > 0) {
+            end();
+            discard(frameStart);
+            decodes = decode(sequence());
+        }
+
+        if (!decodes.isEmpty()) {
+            end();
+            active = new ArrayList<>(decodes.size());
+            for (Decoder.Decode decode : decodes)
+                active.add(new ActiveSignal(decode));
+            undecodedFrames = 0;
+            decodes.forEach(listener::decoded);
+        } else if (++undecodedFrames > MAX_UNDECODED_FRAMES) {
+            discard(sequence().firstBigGap(0, minimumLeadout) + 1);
+            undecodedFrames--;
+        }
+        frameStart = length;
+    }
+
+    /**
+     * Returns the updated decodes of those active signals that also match the new frame, with an increased number of repetitions.
+     * The others are ended, unless the result is empty.
+     */
+    private List<ActiveSignal> continuations(ModulatedIrSequence irSequence) {
+        List<ActiveSignal> result = new ArrayList<>(active.size());
+        List<ActiveSignal> discontinued = new ArrayList<>(active.size());
+        active.forEach((signal) -> {
+            ActiveSignal continued = continuation(signal, irSequence);
+            if (continued != null)
+                result.add(continued);
+            else
+                discontinued.add(signal);
+        });
+        if (!result.isEmpty())
+            discontinued.forEach((signal) -> {
+                listener.ended(signal.toDecode());
+            });
+        return result;
+    }
+
+    private ActiveSignal continuation(ActiveSignal signal, ModulatedIrSequence irSequence) {
+        Decoder.Decode decode = signal.decode;
+        try {
+            Decoder.Decode continued = decode.getNamedProtocol().recognize(irSequence, decode.getBegPos(), decoderParameters);
+            if (decoderParameters.isRemoveDefaultedParameters())
+                decode.getNamedProtocol().removeDefaulteds(continued.getMap());
+            return continued.getEndPos() == length - 1
+                    && continued.getNumberOfRepetitions() > decode.getNumberOfRepetitions()
+                    && continued.getMap().equals(decode.getMap())
+                    ? new ActiveSignal(signal, continued) : null;
+        } catch (SignalRecognitionException | NamedProtocol.ProtocolNotDecodableException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Removes the previous frame, being a repeat, like the current one, from the buffer.
+     */
+    private void removePreviousRepeat() {
+        int removed = frameStart - repeatStart;
+        System.arraycopy(durations, frameStart, durations, repeatStart, length - frameStart);
+        length -= removed;
+        frameStart = repeatStart;
+        active.forEach((signal) -> {
+            signal.removePreviousFrame(removed);
+        });
+    }
+
+    /**
+     * Returns the decodes covering the complete sequence.
+     */
+    private List<Decoder.Decode> decode(ModulatedIrSequence irSequence) {
+        Decoder.DecodeTree decodeTree = decoder.decode(irSequence, decoderParameters);
+        List<Decoder.Decode> result = new ArrayList<>(decodeTree.size());
+        decodeTree.forEach((trunkDecodeTree) -> {
+            Decoder.Decode decode = trunkDecodeTree.getTrunk();
+            if (decode.getEndPos() == length - 1)
+                result.add(decode);
+        });
+        return result;
+    }
+
+    private void end() {
+        active.forEach((signal) -> {
+            listener.ended(signal.toDecode());
+        });
+        active = Collections.emptyList();
+    }
+
+    private void discard(int start) {
+        System.arraycopy(durations, start, durations, 0, length - start);
+        length -= start;
+        frameStart = Math.max(frameStart - start, 0);
+    }
+
+    private ModulatedIrSequence sequence() {
+        try {
+            return new ModulatedIrSequence(Arrays.copyOf(durations, length), frequency);
+        } catch (OddSequenceLengthException ex) {
+            throw new ThisCannotHappenException(ex);
+        }
+    }
+
+    /**
+     * A signal being received. Its decode refers to the buffer;
+     * the repeats removed from the buffer are added when reporting it.
+     */
+    private static final class ActiveSignal {
+
+        private Decoder.Decode decode;
+        private int removedDurations;
+        private int removedRepeats;
+        private final int frameRepeats;
+        private final int previousFrameRepeats;
+
+        ActiveSignal(Decoder.Decode decode) {
+            this.decode = decode;
+            this.removedDurations = 0;
+            this.removedRepeats = 0;
+            this.frameRepeats = 0;
+            this.previousFrameRepeats = 0;
+        }
+
+        /**
+         * The signal continued by a new frame.
+         */
+        ActiveSignal(ActiveSignal signal, Decoder.Decode decode) {
+            this.decode = decode;
+            this.removedDurations = signal.removedDurations;
+            this.removedRepeats = signal.removedRepeats;
+            this.frameRepeats = decode.getNumberOfRepetitions() - signal.decode.getNumberOfRepetitions();
+            this.previousFrameRepeats = signal.frameRepeats;
+        }
+
+        void removePreviousFrame(int durations) {
+            decode = new Decoder.Decode(decode.getNamedProtocol(), decode.getMap(), decode.getBegPos(),
+                    decode.getEndPos() - durations, decode.getNumberOfRepetitions() - previousFrameRepeats);
+            removedDurations += durations;
+            removedRepeats += previousFrameRepeats;
+        }
+
+        Decoder.Decode toDecode() {
+            return removedDurations == 0 ? decode
+                    : new Decoder.Decode(decode.getNamedProtocol(), decode.getMap(), decode.getBegPos(),
+                            decode.getEndPos() + removedDurations, decode.getNumberOfRepetitions() + removedRepeats);
+        }
+    }
+}
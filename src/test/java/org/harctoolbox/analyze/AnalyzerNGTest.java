@@ -1,9 +1,13 @@
 package org.harctoolbox.analyze;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import org.harctoolbox.ircore.InvalidArgumentException;
 import org.harctoolbox.ircore.IrSequence;
 import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.irp.IrpDatabase;
+import org.harctoolbox.irp.NameEngine;
 import org.harctoolbox.irp.Protocol;
 import static org.testng.Assert.*;
 import org.testng.annotations.AfterMethod;
@@ -49,4 +53,41 @@ public class AnalyzerNGTest {
         List<Protocol> list = analyzer.searchBestProtocol(analyzerParams);
         assertEquals(list.size(), 0);
     }
-}
\ No newline at end of file
+
+    private static List<String> toIrpStrings(List<Protocol> protocols) {
+        List<String> result = new ArrayList<>(protocols.size());
+        protocols.forEach((protocol) -> {
+            result.add(protocol.toIrpString(10));
+        });
+        return result;
+    }
+
+    /**
+     * Test of searchAllProtocols and searchBestProtocol methods, of class Analyzer, with a ForkJoinPool.
+     * @throws java.lang.Exception
+     */
+    @Test
+    @SuppressWarnings("UseOfSystemOutOrSystemErr")
+    public void testSearchParallel() throws Exception {
+        System.out.println("searchParallel");
+        IrpDatabase irpDatabase = new IrpDatabase((String) null);
+        List<IrSequence> irSequences = new ArrayList<>(16);
+        for (String name : new String[]{"NEC1", "RC5", "RC6", "Sony12", "Denon", "JVC", "Sharp", "Panasonic"})
+            for (int f = 0; f < 3; f++)
+                irSequences.add(irpDatabase.render(name, new NameEngine("{D=12,S=34,F=" + (7 * f + 1) + "}").toMap()).toModulatedIrSequence(true, 1, true));
+        Analyzer analyzer = new Analyzer(irSequences, null, true, null, null);
+        Analyzer.AnalyzerParams params = new Analyzer.AnalyzerParams();
+        ForkJoinPool forkJoinPool = new ForkJoinPool(3);
+        try {
+            List<List<Protocol>> expected = analyzer.searchAllProtocols(params, null, false);
+            List<List<Protocol>> result = analyzer.searchAllProtocols(params, null, false, forkJoinPool);
+            assertEquals(result.size(), irSequences.size());
+            for (int i = 0; i < expected.size(); i++)
+                assertEquals(toIrpStrings(result.get(i)), toIrpStrings(expected.get(i)));
+            assertEquals(toIrpStrings(analyzer.searchBestProtocol(params, "pwm", false, forkJoinPool)),
+                    toIrpStrings(analyzer.searchBestProtocol(params, "pwm", false)));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+}
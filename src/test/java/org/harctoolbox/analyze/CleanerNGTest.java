@@ -130,4 +130,28 @@ public class CleanerNGTest {
         assertEquals(Cleaner.mkName(10000), "OUQ");
         assertEquals(Cleaner.mkName(26 * 26 * 26 * 26), "BAAAA");
     }
+
+    /**
+     * Test of getIndex, getCleanedHistogram, getNumberFlashes, and getNumberGaps methods, of class Cleaner.
+     * @throws org.harctoolbox.ircore.InvalidArgumentException
+     */
+    @Test
+    public void testHistogram() throws InvalidArgumentException {
+        System.out.println("histogram");
+        Cleaner instance = new Cleaner(new IrSequence(new int[]{ 500, 500, 510, 1500, 490, 1510, 9000, 4500, 500, 40000 }));
+        assertEquals(instance.getCleanedHistogram().toString(), "{500=5, 1505=2, 4500=1, 9000=1, 40000=1}");
+        assertEquals(instance.getIndex(510).intValue(), 0);
+        assertEquals(instance.getIndex(500).intValue(), 0);
+        assertEquals(instance.getIndex(1505).intValue(), 1);
+        assertEquals(instance.getIndex(1510).intValue(), 1);
+        Assert.assertNull(instance.getIndex(1000));
+        assertEquals(instance.getNumberFlashes(500), 4);
+        assertEquals(instance.getNumberGaps(500), 1);
+        assertEquals(instance.getNumberGaps(1505), 2);
+        assertEquals(instance.getNumberFlashes(9000), 1);
+        assertEquals(instance.getFlashes().toString(), "[500, 9000]");
+        assertEquals(instance.getGaps().toString(), "[500, 1505, 4500, 40000]");
+        assertEquals(instance.getGapsSortedAfterFrequency(0), 1505);
+        assertEquals(instance.toTimingsString(), "AA AB AB DC AE");
+    }
 }
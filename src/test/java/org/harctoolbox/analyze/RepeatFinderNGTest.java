@@ -131,4 +131,26 @@ public class RepeatFinderNGTest {
             assert(false);
         }
     }
+
+    /**
+     * Test of a long capture, like from a held-down button.
+     * @throws org.harctoolbox.ircore.OddSequenceLengthException
+     */
+    @Test
+    public void testFindRepeat_LongCapture() throws OddSequenceLengthException {
+        System.out.println("findRepeatLongCapture");
+        int repeats = 200;
+        int[] intro = new int[]{9024, 4512, 564, 564, 564, 1692, 564, 564, 564, 1692, 564, 1692, 564, 564, 564, 564, 564, 40000};
+        int[] repeat = new int[]{9024, 2256, 564, 96156};
+        int[] arr = new int[intro.length + repeats * repeat.length];
+        System.arraycopy(intro, 0, arr, 0, intro.length);
+        for (int i = 0; i < repeats; i++)
+            System.arraycopy(repeat, 0, arr, intro.length + i * repeat.length, repeat.length);
+        RepeatFinder repeatFinder = new RepeatFinder(new ModulatedIrSequence(arr, 38400d));
+        RepeatFinder.RepeatFinderData repeatFinderData = repeatFinder.getRepeatFinderData();
+        assertEquals(intro.length, repeatFinderData.getBeginLength());
+        assertEquals(repeat.length, repeatFinderData.getRepeatLength());
+        assertEquals(repeats, repeatFinderData.getNumberRepeats());
+        assertEquals(0, repeatFinderData.getEndingLength());
+    }
 }
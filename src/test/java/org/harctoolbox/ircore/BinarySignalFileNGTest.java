@@ -0,0 +1,129 @@
+package org.harctoolbox.ircore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class BinarySignalFileNGTest {
+
+    private final List<IrSignal> irSignals;
+
+    public BinarySignalFileNGTest() throws InvalidArgumentException {
+        irSignals = Arrays.asList(
+                new IrSignal(new IrSequence("+9024 -4512 +564 -39756"), new IrSequence("+9024 -2256 +564 -96156"), new IrSequence(), 38400.0, 0.33),
+                new IrSignal(new IrSequence(), new IrSequence("+889 -889 +1778 -89000"), new IrSequence("+100.4 -200.6"), null, null));
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    private byte[] write() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BinarySignalFile.write(irSignals, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Test of write and wrap methods, of class BinarySignalFile.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testWriteWrap() throws Exception {
+        System.out.println("writeWrap");
+        BinarySignalFile instance = BinarySignalFile.wrap(ByteBuffer.wrap(write()));
+        assertEquals(instance.size(), 2);
+        assertEquals(instance.getFrequency(0), 38400.0);
+        assertEquals(instance.getDutyCycle(0), 0.33);
+        assertNull(instance.getFrequency(1));
+        assertNull(instance.getDutyCycle(1));
+        assertEquals(instance.getIrSignal(0).toString(), irSignals.get(0).toString());
+        assertEquals(instance.getIrSignal(1, 36000.0).getFrequency(), 36000.0);
+        assertEquals(instance.getIrSignal(1).toString(), "Freq=?Hz[][889,889,1778,89000][100,201]");
+
+        IntBuffer durations = instance.getDurations(1, IrSignal.Pass.repeat);
+        assertEquals(durations.remaining(), 4);
+        assertEquals(durations.get(2), 1778);
+        assertTrue(durations.isReadOnly());
+        assertEquals(instance.getLength(1, IrSignal.Pass.intro), 0);
+        assertEquals(instance.getLength(1, IrSignal.Pass.ending), 2);
+
+        List<IrSignal> list = instance.getIrSignals(null);
+        assertEquals(list.size(), 2);
+        assertEquals(list.get(0).toString(), irSignals.get(0).toString());
+
+        // Content embedded after other data, starting at the position of the buffer
+        byte[] data = write();
+        byte[] embedded = new byte[data.length + 5];
+        System.arraycopy(data, 0, embedded, 5, data.length);
+        ByteBuffer byteBuffer = ByteBuffer.wrap(embedded);
+        byteBuffer.position(5);
+        BinarySignalFile embeddedInstance = BinarySignalFile.wrap(byteBuffer);
+        assertEquals(byteBuffer.position(), 5);
+        assertEquals(embeddedInstance.size(), 2);
+        assertEquals(embeddedInstance.getIrSignal(1).toString(), instance.getIrSignal(1).toString());
+    }
+
+    /**
+     * Test of open and isBinarySignalFile methods, of class BinarySignalFile.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testOpen() throws Exception {
+        System.out.println("open");
+        File file = File.createTempFile("signals", "." + BinarySignalFile.DEFAULT_EXTENSION);
+        try {
+            assertFalse(BinarySignalFile.isBinarySignalFile(file.getPath()));
+            try (OutputStream outputStream = new FileOutputStream(file)) {
+                outputStream.write(write());
+            }
+            assertTrue(BinarySignalFile.isBinarySignalFile(file.getPath()));
+            BinarySignalFile instance = BinarySignalFile.open(file);
+            assertEquals(instance.size(), 2);
+            assertEquals(instance.getIrSignal(0).toString(), irSignals.get(0).toString());
+        } finally {
+            file.delete();
+        }
+        assertFalse(BinarySignalFile.isBinarySignalFile(file.getPath()));
+    }
+
+    /**
+     * Test of wrap method, of class BinarySignalFile, with invalid content.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testCorrupt() throws Exception {
+        System.out.println("corrupt");
+        byte[] data = write();
+        assertEquals(BinarySignalFile.wrap(ByteBuffer.wrap(data, 0, 8)).size(), 0);
+        assertCorrupt(Arrays.copyOf(data, data.length - 1));
+        assertCorrupt(Arrays.copyOf(data, 20));
+        data[8 + 16 + 3] = 3; // odd intro length
+        assertCorrupt(data);
+        data[0] = 'X';
+        assertCorrupt(data);
+    }
+
+    private void assertCorrupt(byte[] data) {
+        try {
+            BinarySignalFile.wrap(ByteBuffer.wrap(data));
+            fail();
+        } catch (IOException ex) {
+        }
+    }
+}
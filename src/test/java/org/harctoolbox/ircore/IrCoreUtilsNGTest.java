@@ -139,6 +139,19 @@ public class IrCoreUtilsNGTest {
         Assert.assertTrue( IrCoreUtils.approximatelyEquals(103.0, 104.0, 0.0, 0.01));
     }
 
+    /**
+     * Test of withinTolerance method, of class IrCoreUtils.
+     */
+    @Test
+    public void testWithinTolerance() {
+        System.out.println("withinTolerance");
+        Assert.assertTrue( IrCoreUtils.withinTolerance(73.0, 74.0, 1.0, 0.0));
+        Assert.assertFalse(IrCoreUtils.withinTolerance(73.0, 74.0, 0.9, 0.0));
+        Assert.assertFalse(IrCoreUtils.withinTolerance(73.0, 74.0, 0.0, 0.01));
+        Assert.assertTrue( IrCoreUtils.withinTolerance(103.0, 104.0, 0.0, 0.01));
+        Assert.assertFalse(IrCoreUtils.withinTolerance(0.1, 0.5, 0.0, 0.9));
+    }
+
     /**
      * Test of approximatelyEquals method, of class IrCoreUtils.
      */
@@ -0,0 +1,120 @@
+package org.harctoolbox.irp;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.harctoolbox.ircore.IrSignal;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class AdaptiveOrderingNGTest {
+
+    private static Set<String> names(Decoder.SimpleDecodesSet decodes) {
+        Set<String> result = new HashSet<>(decodes.size());
+        decodes.forEach((decode) -> {
+            result.add(decode.toString());
+        });
+        return result;
+    }
+
+    private final IrpDatabase irpDatabase;
+    private final Decoder decoder;
+
+    public AdaptiveOrderingNGTest() throws Exception {
+        irpDatabase = new IrpDatabase((String) null);
+        decoder = new Decoder(irpDatabase);
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * Test of tryProtocols method, of class AdaptiveOrdering.
+     * The result of the adaptive decoder must be contained in the normal result, with the same preferred decode,
+     * and the frequent protocols must come first.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testTryProtocols() throws Exception {
+        System.out.println("tryProtocols");
+        Decoder adaptiveDecoder = new Decoder(irpDatabase);
+        adaptiveDecoder.setAdaptive(true);
+        assertTrue(adaptiveDecoder.isAdaptive());
+        Decoder.DecoderParameters params = new Decoder.DecoderParameters();
+        Random random = new Random(4711);
+        for (int i = 0; i < 2 * AdaptiveOrdering.UPDATE_INTERVAL; i++) {
+            NamedProtocol protocol = irpDatabase.getNamedProtocol(i % 4 == 0 ? "Sony12" : "RC6");
+            IrSignal irSignal = protocol.toIrSignal(protocol.randomParameters(random));
+            Decoder.SimpleDecodesSet expected = decoder.decodeIrSignal(irSignal, params);
+            Decoder.SimpleDecodesSet actual = adaptiveDecoder.decodeIrSignal(irSignal, params);
+            assertFalse(actual.isEmpty());
+            assertTrue(names(expected).containsAll(names(actual)));
+            assertEquals(actual.getPreferred().toString(), expected.getPreferred().toString());
+            assertEquals(actual.getPreferred().getName(), protocol.getName());
+        }
+        assertEquals(adaptiveDecoder.getAdaptiveOrdering().getOrder().subList(0, 2), Arrays.asList("rc6", "sony12"));
+
+        // Apple may be preferred over NEC1, so it has to be tried
+        NamedProtocol nec1 = irpDatabase.getNamedProtocol("NEC1");
+        for (int i = 0; i < 2 * AdaptiveOrdering.UPDATE_INTERVAL; i++) {
+            IrSignal irSignal = nec1.toIrSignal(nec1.randomParameters(random));
+            Decoder.SimpleDecodesSet expected = decoder.decodeIrSignal(irSignal, params);
+            Decoder.SimpleDecodesSet actual = adaptiveDecoder.decodeIrSignal(irSignal, params);
+            assertTrue(names(expected).containsAll(names(actual)));
+            assertEquals(actual.getPreferred().toString(), expected.getPreferred().toString());
+        }
+        IrSignal apple = irpDatabase.getNamedProtocol("Apple").toIrSignal(new NameEngine("{D=12,F=34,PairID=5}"));
+        assertEquals(names(adaptiveDecoder.decodeIrSignal(apple, params)), names(decoder.decodeIrSignal(apple, params)));
+
+        adaptiveDecoder.setAdaptive(false);
+        assertFalse(adaptiveDecoder.isAdaptive());
+    }
+
+    /**
+     * Test that alternative decodes preceding the frequent protocol are delivered.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testAlternatives() throws Exception {
+        System.out.println("alternatives");
+        Decoder adaptiveDecoder = new Decoder(irpDatabase);
+        adaptiveDecoder.setAdaptive(true);
+        Decoder.DecoderParameters params = new Decoder.DecoderParameters();
+        Random random = new Random(4711);
+        NamedProtocol yamaha = irpDatabase.getNamedProtocol("NEC1-Yamaha");
+        for (int i = 0; i < AdaptiveOrdering.UPDATE_INTERVAL; i++)
+            adaptiveDecoder.decodeIrSignal(yamaha.toIrSignal(yamaha.randomParameters(random)), params);
+        assertEquals(adaptiveDecoder.getAdaptiveOrdering().getOrder().get(0), "nec1-yamaha");
+
+        // Decodes as Apple as well as NEC1-Yamaha
+        IrSignal irSignal = irpDatabase.getNamedProtocol("Apple").toIrSignal(new NameEngine("{D=236,F=53,PairID=20}"));
+        Decoder.SimpleDecodesSet expected = decoder.decodeIrSignal(irSignal, params);
+        assertEquals(expected.size(), 2);
+        assertEquals(names(adaptiveDecoder.decodeIrSignal(irSignal, params)), names(expected));
+    }
+
+    /**
+     * Test that all decodes are delivered with allDecodes, also in adaptive mode.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testAllDecodes() throws Exception {
+        System.out.println("allDecodes");
+        Decoder adaptiveDecoder = new Decoder(irpDatabase);
+        adaptiveDecoder.setAdaptive(true);
+        Decoder.DecoderParameters params = new Decoder.DecoderParameters();
+        params.setAllDecodes(true);
+        IrSignal irSignal = irpDatabase.getNamedProtocol("NEC1").toIrSignal(new NameEngine("{D=12,S=34,F=56}"));
+        for (int i = 0; i < AdaptiveOrdering.UPDATE_INTERVAL + 1; i++)
+            assertEquals(names(adaptiveDecoder.decodeIrSignal(irSignal, params)), names(decoder.decodeIrSignal(irSignal, params)));
+    }
+}
@@ -100,6 +100,19 @@ public class BitSpecNGTest {
         assertEquals(result, expResult);
     }
 
+    /**
+     * Test of onlyFlashesAndGaps method, of class BitSpec.
+     */
+    @Test
+    public void testOnlyFlashesAndGaps() {
+        System.out.println("onlyFlashesAndGaps");
+        assertTrue(new BitSpec(NEC1_BITSPEC).onlyFlashesAndGaps());
+        assertTrue(new BitSpec(NOKIA32_BITSPEC).onlyFlashesAndGaps());
+        assertTrue(new BitSpec().onlyFlashesAndGaps());
+        assertFalse(new BitSpec("<1:2|2:2>").onlyFlashesAndGaps());
+        assertFalse(new BitSpec("<1,^10|1,-1,^10>").onlyFlashesAndGaps());
+    }
+
     /**
      * Test of toIrpString method, of class BitSpec.
      */
@@ -0,0 +1,92 @@
+package org.harctoolbox.irp;
+
+import java.util.Map;
+import java.util.Random;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.ModulatedIrSequence;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class CompiledRecognizerNGTest {
+
+    private final IrpDatabase irpDatabase;
+
+    public CompiledRecognizerNGTest() throws Exception {
+        irpDatabase = new IrpDatabase((String) null);
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+        CompiledRecognizer.setEnabled(true);
+    }
+
+    private static String recognize(Protocol protocol, IrSignal irSignal, boolean compiled) {
+        CompiledRecognizer.setEnabled(compiled);
+        try {
+            Map<String, Long> result = protocol.recognize(irSignal, false);
+            return result.toString();
+        } catch (SignalRecognitionException | Protocol.ProtocolNotDecodableException ex) {
+            return "fail";
+        }
+    }
+
+    private static String recognize(Protocol protocol, ModulatedIrSequence irSequence, boolean compiled) {
+        CompiledRecognizer.setEnabled(compiled);
+        try {
+            Decoder.Decode result = protocol.recognize(irSequence, 0, false, new Decoder.DecoderParameters());
+            return result.getMap() + " " + result.getEndPos() + " " + result.getNumberOfRepetitions();
+        } catch (SignalRecognitionException ex) {
+            return "fail";
+        }
+    }
+
+    /**
+     * Test of numberInterpreted method, of class CompiledRecognizer.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testNumberInterpreted() throws Exception {
+        System.out.println("numberInterpreted");
+        for (String name : new String[]{"NEC1", "Sony12", "Sony20", "JVC", "Denon"}) {
+            NamedProtocol protocol = irpDatabase.getNamedProtocol(name);
+            assertEquals(protocol.getCompiledRecognizer(IrSignal.Pass.intro).numberInterpreted(), 0, name);
+            assertEquals(protocol.getCompiledRecognizer(IrSignal.Pass.repeat).numberInterpreted(), 0, name);
+        }
+        // T=1-T
+        NamedProtocol rc5 = irpDatabase.getNamedProtocol("RC5");
+        assertEquals(rc5.getCompiledRecognizer(IrSignal.Pass.intro).numberInterpreted()
+                + rc5.getCompiledRecognizer(IrSignal.Pass.repeat).numberInterpreted()
+                + rc5.getCompiledRecognizer(IrSignal.Pass.ending).numberInterpreted(), 1);
+    }
+
+    /**
+     * Test of recognize method, of class CompiledRecognizer.
+     * The compiled recognizer must give the same result as the interpreter.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testRecognize() throws Exception {
+        System.out.println("recognize");
+        Random random = new Random(17);
+        IrSignal nec1 = irpDatabase.getNamedProtocol("NEC1").toIrSignal(new NameEngine("{D=12,S=34,F=56}"));
+        for (String name : irpDatabase.getNames()) {
+            NamedProtocol protocol = irpDatabase.getNamedProtocol(name);
+            if (!protocol.isDecodeable())
+                continue;
+
+            IrSignal irSignal = protocol.toIrSignal(new NameEngine(protocol.randomParameters(random)));
+            assertEquals(recognize(protocol, irSignal, true), recognize(protocol, irSignal, false), name);
+            assertEquals(recognize(protocol, nec1, true), recognize(protocol, nec1, false), name);
+
+            ModulatedIrSequence irSequence = irSignal.toModulatedIrSequence(true, 2, true);
+            assertEquals(recognize(protocol, irSequence, true), recognize(protocol, irSequence, false), name);
+        }
+    }
+}
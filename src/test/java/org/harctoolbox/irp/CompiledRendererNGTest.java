@@ -0,0 +1,79 @@
+package org.harctoolbox.irp;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.OddSequenceLengthException;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class CompiledRendererNGTest {
+
+    private final IrpDatabase irpDatabase;
+
+    public CompiledRendererNGTest() throws Exception {
+        irpDatabase = new IrpDatabase((String) null);
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+        CompiledRenderer.setEnabled(true);
+    }
+
+    private static String render(Protocol protocol, Map<String, Long> params, boolean compiled) {
+        CompiledRenderer.setEnabled(compiled);
+        try {
+            IrSignal irSignal = protocol.toIrSignal(new NameEngine(params));
+            return Arrays.toString(irSignal.getIntroSequence().toDoubles()) + Arrays.toString(irSignal.getRepeatSequence().toDoubles())
+                    + Arrays.toString(irSignal.getEndingSequence().toDoubles()) + irSignal.getFrequency();
+        } catch (IrpException | OddSequenceLengthException | RuntimeException ex) {
+            return ex.getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * Test of compile method, of class CompiledRenderer.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testCompile() throws Exception {
+        System.out.println("compile");
+        for (String name : new String[]{"NEC1", "Sony12", "Sony20", "JVC", "Denon", "RC5", "RC6"}) {
+            Protocol protocol = irpDatabase.getProtocol(name);
+            assertNotNull(protocol.getCompiledRenderer(IrSignal.Pass.intro), name);
+            assertNotNull(protocol.getCompiledRenderer(IrSignal.Pass.repeat), name);
+        }
+    }
+
+    /**
+     * Test of render method, of class CompiledRenderer.
+     * The compiled renderer must give the same result as the interpreter.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testRender() throws Exception {
+        System.out.println("render");
+        Random random = new Random(17);
+        int compiled = 0;
+        for (String name : irpDatabase.getNames()) {
+            // Separate instances, since memory variables (toggles) are changed by rendering
+            Protocol protocol = irpDatabase.getNonRecycledProtocol(name);
+            Protocol reference = irpDatabase.getNonRecycledProtocol(name);
+            if (protocol.getCompiledRenderer(IrSignal.Pass.intro) != null)
+                compiled++;
+            for (int i = 0; i < 3; i++) {
+                Map<String, Long> params = protocol.randomParameters(random);
+                assertEquals(render(protocol, params, true), render(reference, params, false), name);
+            }
+        }
+        assertTrue(compiled > irpDatabase.getNames().size() / 2);
+    }
+}
@@ -0,0 +1,114 @@
+package org.harctoolbox.irp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import org.harctoolbox.ircore.IrSequence;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.ModulatedIrSequence;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class DecoderMetricsNGTest {
+
+    private final IrpDatabase irpDatabase;
+    private final Decoder decoder;
+    private final IrSignal nec1;
+    private final IrSignal jvc;
+
+    public DecoderMetricsNGTest() throws Exception {
+        irpDatabase = new IrpDatabase((String) null);
+        decoder = new Decoder(irpDatabase);
+        nec1 = irpDatabase.getNamedProtocol("NEC1").toIrSignal(new NameEngine("{D=12,S=34,F=56}"));
+        jvc = irpDatabase.getNamedProtocol("JVC").toIrSignal(new NameEngine("{D=1,F=2}"));
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+        decoder.setListener(null);
+    }
+
+    /**
+     * Test of the statistics of decodeIrSignal, of class DecoderMetrics.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testDecodeIrSignal() throws Exception {
+        System.out.println("decodeIrSignal");
+        DecoderMetrics instance = new DecoderMetrics();
+        decoder.setListener(instance);
+        Decoder.SimpleDecodesSet decodes = decoder.decodeIrSignal(nec1, new Decoder.DecoderParameters());
+        assertEquals(decodes.first().getName(), "NEC1");
+        decoder.decodeIrSignal(nec1, new Decoder.DecoderParameters());
+
+        assertEquals(instance.getDecodes(), 2L);
+        assertEquals(instance.getCandidates() + instance.getPrefilteredOut(), 2L * decoder.getParsedProtocols().size());
+        DecoderMetrics.ProtocolMetrics metrics = instance.getProtocolMetrics("NEC1");
+        assertEquals(metrics.getAttempts(), 2L);
+        assertEquals(metrics.getRecognized(), 2L);
+        assertEquals(metrics.getRemoved(), 0L);
+        assertTrue(metrics.getWins() > 0L);
+        assertEquals(Arrays.stream(metrics.getHistogram()).sum(), 2L);
+        assertTrue(metrics.getPercentileNanos(0.99) >= metrics.getPercentileNanos(0.5));
+        assertTrue(metrics.getPercentileNanos(0.5) > 0L);
+
+        long attempts = 0L;
+        long rejects = 0L;
+        for (DecoderMetrics.ProtocolMetrics m : instance.getProtocolMetrics()) {
+            attempts += m.getAttempts();
+            rejects += m.getRejected();
+        }
+        assertEquals(attempts, instance.getCandidates());
+        assertEquals(instance.getRejectionReasons().values().stream().mapToLong(Long::longValue).sum(), rejects);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        instance.print(new PrintStream(outputStream, false, "UTF-8"));
+        assertTrue(outputStream.toString("UTF-8").contains("NEC1 "));
+
+        instance.reset();
+        assertEquals(instance.getDecodes(), 0L);
+        assertNull(instance.getProtocolMetrics("NEC1"));
+    }
+
+    /**
+     * Test of the statistics of recursive decodes, of class DecoderMetrics.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testRecursive() throws Exception {
+        System.out.println("recursive");
+        DecoderMetrics instance = new DecoderMetrics();
+        decoder.setListener(instance);
+        Decoder.DecoderParameters params = new Decoder.DecoderParameters();
+        params.setRecursive(true);
+        IrSequence sequence = IrSequence.concatenate(Arrays.asList(nec1.toModulatedIrSequence(), jvc.toModulatedIrSequence(), nec1.toModulatedIrSequence()));
+        Decoder.DecodeTree decodes = decoder.decode(new ModulatedIrSequence(sequence, nec1.getFrequency()), params);
+        assertFalse(decodes.isEmpty());
+        assertTrue(instance.getRecursions() > 0L);
+        assertTrue(instance.getMaxRecursionDepth() >= 2L);
+        assertTrue(instance.getLookupHits() + instance.getLookupMisses() > 0L);
+        assertTrue(instance.getProtocolMetrics("JVC").getRecognized() > 0L);
+    }
+
+    /**
+     * Test that the listener is not called when removed.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testSetListener() throws Exception {
+        System.out.println("setListener");
+        DecoderMetrics instance = new DecoderMetrics();
+        decoder.setListener(instance);
+        assertSame(decoder.getListener(), instance);
+        decoder.setListener(null);
+        decoder.decodeIrSignal(nec1, new Decoder.DecoderParameters());
+        assertEquals(instance.getDecodes(), 0L);
+    }
+}
@@ -1,6 +1,10 @@
 package org.harctoolbox.irp;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 import org.harctoolbox.ircore.InvalidArgumentException;
 import org.harctoolbox.ircore.IrSequence;
 import org.harctoolbox.ircore.IrSignal;
@@ -316,4 +320,74 @@ public class DecoderNGTest {
         result = dec.decodeIrSignal(irSignal, params);
         assertTrue(rc5NameEngine.numericallyEquals(result.get("RC5")));
     }
+
+    private static List<String> toStrings(Decoder.SimpleDecodesSet decodes) {
+        List<String> result = new ArrayList<>(decodes.size());
+        decodes.forEach((decode) -> {
+            result.add(decode.toString());
+        });
+        return result;
+    }
+
+    /**
+     * Test of the parallel decoder, it has to deliver the same result as the sequential.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testParallelDecode() throws Exception {
+        System.out.println("parallelDecode");
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        Decoder parallelDecoder = new Decoder(new IrpDatabase((String) null), null, forkJoinPool);
+        Decoder.DecoderParameters params = new Decoder.DecoderParameters();
+        params.setAllDecodes(true);
+        params.setRecursive(true);
+        Random random = new Random(4711);
+        for (NamedProtocol protocol : decoder.getParsedProtocols()) {
+            IrSignal irSignal = protocol.toIrSignal(new NameEngine(protocol.randomParameters(random)));
+            Decoder.SimpleDecodesSet expected = decoder.decodeIrSignal(irSignal, params);
+            Decoder.SimpleDecodesSet actual = parallelDecoder.decodeIrSignal(irSignal, params);
+            assertEquals(toStrings(actual), toStrings(expected), protocol.getName());
+        }
+
+        ModulatedIrSequence irSequence = new ModulatedIrSequence(IrSequence.concatenate(nec1Intro, nec1Repeat, nec1Repeat, rc5Seq, nrc17Intro, nrc17Repeat), 37000d);
+        Decoder.DecodeTree expected = decoder.decode(irSequence, params);
+        Decoder.DecodeTree actual = parallelDecoder.decode(irSequence, params);
+        assertEquals(actual.toString(), expected.toString());
+        forkJoinPool.shutdown();
+    }
+
+    /**
+     * Test of decodeBatch method, of class Decoder.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testDecodeBatch() throws Exception {
+        System.out.println("decodeBatch");
+        Decoder.DecoderParameters params = new Decoder.DecoderParameters();
+        params.setAllDecodes(true);
+        Random random = new Random(42);
+        List<IrSignal> irSignals = new ArrayList<>(decoder.getParsedProtocols().size());
+        for (NamedProtocol protocol : decoder.getParsedProtocols())
+            irSignals.add(protocol.toIrSignal(new NameEngine(protocol.randomParameters(random))));
+
+        List<List<String>> expected = new ArrayList<>(irSignals.size());
+        for (IrSignal irSignal : irSignals)
+            expected.add(toStrings(decoder.decodeIrSignal(irSignal, params)));
+
+        List<Decoder.SimpleDecodesSet> result = decoder.decodeBatch(irSignals, params);
+        assertEquals(result.size(), irSignals.size());
+        for (int i = 0; i < result.size(); i++)
+            assertEquals(toStrings(result.get(i)), expected.get(i));
+
+        List<Decoder.SimpleDecodesSet> streamed = decoder.decodeBatch(irSignals.stream(), params).collect(Collectors.toList());
+        for (int i = 0; i < streamed.size(); i++)
+            assertEquals(toStrings(streamed.get(i)), expected.get(i));
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        Decoder parallelDecoder = new Decoder(new IrpDatabase((String) null), null, forkJoinPool);
+        List<Decoder.SimpleDecodesSet> parallel = parallelDecoder.decodeBatch(irSignals, params);
+        for (int i = 0; i < parallel.size(); i++)
+            assertEquals(toStrings(parallel.get(i)), expected.get(i));
+        forkJoinPool.shutdown();
+    }
 }
@@ -1,5 +1,7 @@
 package org.harctoolbox.irp;
 
+import java.util.List;
+import java.util.Map;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
@@ -70,6 +72,27 @@ public class DurationNGTest {
         }
     }
 
+    /**
+     * Test of toFloatCached method, of class Duration.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testToFloatCached() throws Exception {
+        System.out.println("toFloatCached");
+        NameEngine nameEngine = new NameEngine("{A = 150}");
+        GeneralSpec generalSpec = new GeneralSpec("{40k, 200}");
+        Duration instance = Duration.newDuration("3");
+        assertEquals(instance.toFloatCached(generalSpec, nameEngine), 600.0);
+        assertEquals(instance.toFloatCached(generalSpec, nameEngine), 600.0);
+        // Value depends on the GeneralSpec
+        assertEquals(instance.toFloatCached(new GeneralSpec("{40k, 100}"), nameEngine), 300.0);
+
+        // Names are not cached
+        instance = Duration.newDuration("A u");
+        assertEquals(instance.toFloatCached(generalSpec, nameEngine), 150.0);
+        assertEquals(instance.toFloatCached(generalSpec, new NameEngine("{A = 250}")), 250.0);
+    }
+
     /**
      * Test of code method, of class Duration.
      * @throws org.harctoolbox.irp.IrpSyntaxException
@@ -133,4 +156,24 @@ public class DurationNGTest {
 //            return false;
 //        }
 //    }
+
+    /**
+     * Test of propertiesMap method, of class Duration.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testPropertiesMap() throws Exception {
+        System.out.println("propertiesMap");
+        Protocol protocol = new Protocol("{40k,500}<1,-1|1,-3>(A,-10m)");
+        GeneralSpec generalSpec = protocol.getGeneralSpec();
+        List<IrStreamItem> items = protocol.getBitspecIrstream().getIrStream().getBareIrStream().getIrStreamItems();
+        Map<String, Object> result = ((Duration) items.get(0)).propertiesMap(generalSpec, null);
+        assertEquals(result.get("kind"), "Flash");
+        assertEquals(result.get("name"), "A");
+        assertEquals(result.get("multiplicator"), 500.0);
+        result = ((Duration) items.get(1)).propertiesMap(generalSpec, null);
+        assertEquals(result.get("kind"), "Gap");
+        assertEquals(result.get("microseconds"), 10000L);
+        assertEquals((Double) Duration.newDuration("A p").propertiesMap(generalSpec, null).get("multiplicator"), 25.0, 0.0001);
+    }
 }
@@ -1,10 +1,15 @@
 package org.harctoolbox.irp;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.harctoolbox.ircore.IrSignal;
 import org.harctoolbox.ircore.Pronto;
 import org.harctoolbox.xml.DumbHtmlRenderer;
@@ -371,4 +376,39 @@ public class IrpDatabaseNGTest {
         doc = db.getDocumentation(protoname);
         assertEquals(doc, netsi);
     }
+
+    /**
+     * Test of getProtocol method, of class IrpDatabase, used from several threads.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testGetProtocolConcurrent() throws Exception {
+        System.out.println("getProtocolConcurrent");
+        IrpDatabase db = new IrpDatabase(CONFIGFILE);
+        List<String> names = db.getNames();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Protocol>> futures = new ArrayList<>(4 * names.size());
+            for (int i = 0; i < 4; i++)
+                for (String name : names)
+                    futures.add(executorService.submit(() -> db.getProtocol(name)));
+
+            for (int i = 0; i < futures.size(); i++)
+                assertSame(futures.get(i).get(), db.getProtocol(names.get(i % names.size())));
+        } finally {
+            executorService.shutdown();
+        }
+
+        Protocol nec1 = db.getProtocol("nec1");
+        db.setProperties("NEC1", IrpDatabase.IRP_NAME, Collections.singletonList("{40k,564}<1,-1|1,-3>(16,-8,D:8,S:8,F:8,~F:8,1,^108m)[D:0..255,S:0..255=255-D,F:0..255]"));
+        Protocol modified = db.getProtocol("NEC1");
+        assertNotSame(modified, nec1);
+        assertEquals(modified.getFrequency(), 40000.0);
+
+        try {
+            db.getProtocol("covfefe");
+            fail();
+        } catch (UnknownProtocolException ex) {
+        }
+    }
 }
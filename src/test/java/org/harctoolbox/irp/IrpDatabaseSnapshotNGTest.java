@@ -0,0 +1,166 @@
+package org.harctoolbox.irp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.List;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.Pronto;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class IrpDatabaseSnapshotNGTest {
+
+    private static final String CONFIGFILE = "src/main/resources/IrpProtocols.xml";
+    private static final String NEC1_PRONTO = "0000 006C 0022 0002 015B 00AD 0016 0016 0016 0016 0016 0041 0016 0016 0016 0016 0016 0016 0016 0016 0016 0016 0016 0041 0016 0041 0016 0016 0016 0041 0016 0041 0016 0041 0016 0041 0016 0041 0016 0016 0016 0016 0016 0041 0016 0016 0016 0016 0016 0016 0016 0016 0016 0016 0016 0041 0016 0041 0016 0016 0016 0041 0016 0041 0016 0041 0016 0041 0016 0041 0016 06A4 015B 0057 0016 0E6C";
+
+    private final IrpDatabase irpDatabase;
+    private final String checksum;
+
+    public IrpDatabaseSnapshotNGTest() throws Exception {
+        irpDatabase = new IrpDatabase(CONFIGFILE);
+        checksum = IrpDatabaseSnapshot.checksum(Collections.singletonList(new File(CONFIGFILE)));
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    private byte[] save() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        IrpDatabaseSnapshot.save(irpDatabase, checksum, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static String toString(Decoder.SimpleDecodesSet decodes) {
+        StringBuilder sb = new StringBuilder(100);
+        decodes.forEach((decode) -> {
+            sb.append(decode.toString()).append("\n");
+        });
+        return sb.toString();
+    }
+
+    /**
+     * Test of checksum method, of class IrpDatabaseSnapshot.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testChecksum() throws Exception {
+        System.out.println("checksum");
+        assertEquals(checksum.length(), 64);
+        // The default data base is the one in src/main/resources
+        assertEquals(IrpDatabaseSnapshot.checksum(null), checksum);
+    }
+
+    /**
+     * Test of save and load methods, of class IrpDatabaseSnapshot.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testSaveLoad() throws Exception {
+        System.out.println("saveLoad");
+        byte[] snapshot = save();
+        assertTrue(irpDatabase.isPrecompiled());
+        IrpDatabase result = IrpDatabaseSnapshot.load(new ByteArrayInputStream(snapshot), checksum);
+        assertNotNull(result);
+        assertTrue(result.isPrecompiled());
+        assertEquals(result.getNames(), irpDatabase.getNames());
+        assertEquals(result.getVersion(), irpDatabase.getVersion());
+        assertEquals(result.getIrp("RC5"), irpDatabase.getIrp("RC5"));
+        assertEquals(result.getDocumentation("NEC1"), irpDatabase.getDocumentation("NEC1"));
+
+        IrSignal irSignal = Pronto.parse(NEC1_PRONTO);
+        Decoder.DecoderParameters params = new Decoder.DecoderParameters();
+        Decoder.SimpleDecodesSet expected = new Decoder(irpDatabase).decodeIrSignal(irSignal, params);
+        Decoder.SimpleDecodesSet actual = new Decoder(result).decodeIrSignal(irSignal, params);
+        assertEquals(toString(actual), toString(expected));
+
+        NamedProtocol protocol = result.getPrecompiledNamedProtocol("nec1");
+        assertEquals(protocol.recognize(irSignal, false), irpDatabase.getNamedProtocol("NEC1").recognize(irSignal, false));
+        assertEquals(protocol.getDocumentation().getTextContent(), irpDatabase.getHtmlDocumentation("NEC1").getTextContent());
+    }
+
+    /**
+     * Test of load method, of class IrpDatabaseSnapshot, for out of date snapshots.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testLoadOutOfDate() throws Exception {
+        System.out.println("loadOutOfDate");
+        byte[] snapshot = save();
+        assertNull(IrpDatabaseSnapshot.load(new ByteArrayInputStream(snapshot), "covfefe"));
+        assertNotNull(IrpDatabaseSnapshot.load(new ByteArrayInputStream(snapshot), null));
+    }
+
+    /**
+     * Test of loadOrCreate method, of class IrpDatabaseSnapshot.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testLoadOrCreate() throws Exception {
+        System.out.println("loadOrCreate");
+        File snapshotFile = File.createTempFile("irpdatabase", ".snapshot");
+        try {
+            List<File> configFiles = Collections.singletonList(new File(CONFIGFILE));
+            // Not a snapshot; to be replaced
+            assertTrue(snapshotFile.length() == 0L);
+            IrpDatabase created = IrpDatabaseSnapshot.loadOrCreate(configFiles, snapshotFile);
+            assertTrue(created.isPrecompiled());
+            assertTrue(snapshotFile.length() > 0L);
+            IrpDatabase loaded = IrpDatabaseSnapshot.loadOrCreate(configFiles, snapshotFile);
+            assertTrue(loaded.isPrecompiled());
+            assertEquals(loaded.getNames(), created.getNames());
+        } finally {
+            snapshotFile.delete();
+        }
+    }
+
+    /**
+     * Test that modifications discard the precompiled protocols.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testModification() throws Exception {
+        System.out.println("modification");
+        IrpDatabase result = IrpDatabaseSnapshot.load(new ByteArrayInputStream(save()), checksum);
+        NamedProtocol precompiled = result.getPrecompiledNamedProtocol("NEC1");
+        assertSame(result.getPrecompiledNamedProtocol("NEC1"), precompiled);
+        result.setProperties("NEC1", IrpDatabase.MINIMUM_LEADOUT_NAME, Collections.singletonList("12345"));
+        NamedProtocol modified = result.getPrecompiledNamedProtocol("NEC1");
+        assertNotSame(modified, precompiled);
+        assertEquals(modified.getMinimumLeadout(), 12345.0);
+        assertSame(result.getPrecompiledNamedProtocol("RC5"), result.getPrecompiledNamedProtocol("RC5"));
+    }
+    /**
+     * Test of load method, of class IrpDatabaseSnapshot, for snapshots containing foreign classes.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testLoadForeignClass() throws Exception {
+        System.out.println("loadForeignClass");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream);
+        objectOutputStream.writeUTF("IrpDatabaseSnapshot");
+        objectOutputStream.writeUTF(Version.version);
+        objectOutputStream.writeUTF(checksum);
+        objectOutputStream.writeObject(new File("covfefe"));
+        objectOutputStream.flush();
+        try {
+            IrpDatabaseSnapshot.load(new ByteArrayInputStream(outputStream.toByteArray()), checksum);
+            fail();
+        } catch (InvalidClassException ex) {
+            assertTrue(ex.getMessage().contains("java.io.File"));
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package org.harctoolbox.irp;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import org.harctoolbox.cmdline.CmdUtils;
 import org.harctoolbox.cmdline.FrequencyParser;
 import org.harctoolbox.cmdline.ProgramExitStatus;
+import org.harctoolbox.ircore.IrCoreUtils;
 import org.harctoolbox.xml.XmlUtils;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
@@ -239,6 +243,17 @@ public class IrpTransmogrifierNGTest {
         assertEquals(result, "RC5: {D=7,F=5}");
     }
 
+    @Test(enabled = true)
+    public void testDecodeMetrics() {
+        System.out.println("decodeMetrics");
+        String args = "decode --strict --metrics -p rc5,rc5x 0000 0073 0000 000B 0020 0020 0040 0020 0020 0020 0020 0040 0020 0020 0020 0020 0040 0020 0020 0020 0020 0040 0040 0040 0020 0CA8";
+        String[] result = execute(args).split(lineSeparator);
+        assertEquals(result[0], "RC5: {D=7,F=5}");
+        assertTrue(result[1].startsWith("protocol "));
+        assertTrue(result[2].startsWith("RC5 ") || result[3].startsWith("RC5 "));
+        assertTrue(result[4].startsWith("decodes: 1,"));
+    }
+
     @Test(enabled = true)
     public void testDecodeRc5x() {
         System.out.println("decodeRc5x");
@@ -735,4 +750,141 @@ public class IrpTransmogrifierNGTest {
         String result = execute(args);
         assertNull(result);
     }
+
+    @Test(enabled = true)
+    public void testServe() {
+        System.out.println("serve");
+        String decode = execute("decode " + NEC1INTRO);
+        String render = execute("render -r -n D=12,F=34 nec1");
+        String requests = "decode " + NEC1INTRO + "\n"
+                + "render -r -n D=12,F=34 nec1\n"
+                + "\n"
+                + "covfefe\n"
+                + "serve\n"
+                + "convert --input foo\n"
+                + "--seed 1 render --random nec1\n"
+                + "--validate list nec1\n"
+                + "decode --debugpattern nec1 " + NEC1INTRO + "\n"
+                + "--irp {38.4k,564}<1,-1|1,-3>(16,-8,D:8,S:8,F:8,~F:8,1,^108m,(16,-4,1,^108m)*)[D:0..255,S:0..255=255-D,F:0..255] render -r -n D=12,F=34\n"
+                + "quit\n"
+                + "version\n";
+        InputStream stdin = System.in;
+        String result;
+        try {
+            System.setIn(new ByteArrayInputStream(requests.getBytes(IrCoreUtils.UTF8)));
+            result = execute("serve --threads 2");
+        } finally {
+            System.setIn(stdin);
+        }
+        String expected = decode + lineSeparator + ".0" + lineSeparator
+                + render + lineSeparator + ".0" + lineSeparator
+                + ".1 Expected a command, got covfefe" + lineSeparator
+                + ".1 Command serve cannot be used within serve." + lineSeparator
+                + ".1 Command convert cannot be used within serve." + lineSeparator
+                + ".1 Option --seed cannot be used within serve." + lineSeparator
+                + ".1 Option --validate cannot be used within serve." + lineSeparator
+                + ".1 Option --debugpattern cannot be used within serve." + lineSeparator
+                + render + lineSeparator + ".0";
+        assertEquals(result, expected);
+
+        // Many more requests than the session capacity; the reading waits for the responses.
+        StringBuilder manyRequests = new StringBuilder(10000);
+        StringBuilder manyExpected = new StringBuilder(10000);
+        for (int i = 0; i < 50; i++) {
+            manyRequests.append("render -r -n D=").append(i).append(",F=34 nec1\n");
+            manyExpected.append(execute("render -r -n D=" + i + ",F=34 nec1")).append(lineSeparator).append(".0").append(lineSeparator);
+        }
+        try {
+            System.setIn(new ByteArrayInputStream(manyRequests.toString().getBytes(IrCoreUtils.UTF8)));
+            result = execute("serve --threads 1");
+        } finally {
+            System.setIn(stdin);
+        }
+        assertEquals(result + lineSeparator, manyExpected.toString());
+    }
+
+    @Test(enabled = true)
+    public void testConvert() throws IOException {
+        System.out.println("convert");
+        File text = File.createTempFile("signals", ".txt");
+        File binary = File.createTempFile("signals", ".irsb");
+        try {
+            Files.write(text.toPath(), (NEC1INTRO + "\n\n" + BIPHASE + "\n").getBytes(IrCoreUtils.UTF8));
+            String result = execute(new String[]{"--output", binary.getPath(), "convert", "-f", "38400", "--input", text.getPath()});
+            assertEquals(result, "");
+            assertTrue(binary.length() > 0);
+            assertEquals(execute("decode --input " + binary.getPath()), execute("decode -f 38400 --input " + text.getPath()));
+            assertEquals(execute("decode --threads 2 --input " + binary.getPath()), execute("decode --input " + binary.getPath()));
+            assertEquals(execute("analyze -f 38400 --input " + binary.getPath()), execute("analyze -f 38400 --input " + text.getPath()));
+            // --frequency overrides the frequency stored in the file
+            assertEquals(execute("decode -f 40000 --input " + binary.getPath()), execute("decode -f 40000 --input " + text.getPath()));
+            assertEquals(execute("analyze -f 40000 --input " + binary.getPath()), execute("analyze -f 40000 --input " + text.getPath()));
+        } finally {
+            text.delete();
+            binary.delete();
+        }
+    }
+
+    @Test(enabled = true)
+    public void testDecodeThreads() throws IOException {
+        System.out.println("decodeThreads");
+        File plain = File.createTempFile("signals", ".txt");
+        File named = File.createTempFile("signals", ".txt");
+        try {
+            String[] signals = new String[]{NEC1INTRO, BIPHASE, GRAHAM_PANASONIC, NEC1DITTO, GRAHAM_SONY15, ACDATA1};
+            StringBuilder plainContent = new StringBuilder(10000);
+            StringBuilder namedContent = new StringBuilder(10000);
+            for (int n = 0; n < 10; n++)
+                for (int i = 0; i < signals.length; i++) {
+                    plainContent.append(signals[i]).append("\n");
+                    namedContent.append(String.format("name_%d_%d%n%s%n%n", n, i, signals[i]));
+                }
+            Files.write(plain.toPath(), plainContent.toString().getBytes(IrCoreUtils.UTF8));
+            Files.write(named.toPath(), namedContent.toString().getBytes(IrCoreUtils.UTF8));
+
+            String expected = execute("decode --input " + plain.getPath());
+            assertTrue(expected.contains("{D=12,S=34,F=56}"));
+            assertEquals(execute("decode --threads 3 --input " + plain.getPath()), expected);
+            assertEquals(execute("decode --threads 1 --input " + plain.getPath()), expected);
+            String expectedNamed = execute("decode --namedinput " + named.getPath());
+            assertTrue(expectedNamed.contains("name_9_0"));
+            assertEquals(execute("decode --threads 4 --namedinput " + named.getPath()), expectedNamed);
+            assertNull(execute("decode --threads 0 --input " + plain.getPath()));
+
+            // The repeat finder dump of each signal precedes its decode.
+            String dumped = execute("decode -r -R --input " + plain.getPath());
+            assertTrue(dumped.startsWith("RepeatReduced: "));
+            String[] lines = dumped.split("\\R", -1);
+            for (int i = 0; i < lines.length; i++)
+                if (lines[i].startsWith("RepeatReduced: ")) {
+                    assertTrue(lines[i + 1].startsWith("RepeatData: "));
+                    assertTrue(i + 2 == lines.length || !lines[i + 2].startsWith("Repeat"));
+                }
+            assertEquals(execute("decode --threads 2 -r -R --input " + plain.getPath()), dumped);
+
+            // With --threads, signals with duplicate names are all decoded, otherwise only the last one.
+            Files.write(named.toPath(), ("name\n" + NEC1INTRO + "\n\nname\n" + BIPHASE + "\n").getBytes(IrCoreUtils.UTF8));
+            assertEquals(execute("decode --threads 2 --namedinput " + named.getPath()).split("\\R").length, 2);
+            assertEquals(execute("decode --namedinput " + named.getPath()).split("\\R").length, 1);
+        } finally {
+            plain.delete();
+            named.delete();
+        }
+    }
+
+    @Test(enabled = true)
+    public void testAnalyzeThreads() throws IOException {
+        System.out.println("analyzeThreads");
+        File file = File.createTempFile("signals", ".txt");
+        try {
+            Files.write(file.toPath(), (NEC1INTRO + "\n" + ACDATA + "\n" + ACDATA1 + "\n" + BIPHASE + "\n").getBytes(IrCoreUtils.UTF8));
+            String expected = execute("analyze --input " + file.getPath());
+            assertTrue(expected.startsWith("#0"));
+            assertEquals(execute("analyze --threads 3 --input " + file.getPath()), expected);
+            assertEquals(execute("analyze --threads 2 --all --input " + file.getPath()), execute("analyze --all --input " + file.getPath()));
+            assertNull(execute("analyze --threads 0 --input " + file.getPath()));
+        } finally {
+            file.delete();
+        }
+    }
 }
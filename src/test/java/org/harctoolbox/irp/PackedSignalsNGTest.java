@@ -0,0 +1,92 @@
+package org.harctoolbox.irp;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import org.harctoolbox.ircore.IrSignal;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class PackedSignalsNGTest {
+
+    private static Map<String, Long> params(long d) {
+        Map<String, Long> params = new HashMap<>(1);
+        params.put("D", d);
+        return params;
+    }
+
+    private static String toString(IrSignal irSignal) {
+        return Arrays.toString(irSignal.getIntroSequence().toInts()) + Arrays.toString(irSignal.getRepeatSequence().toInts())
+                + Arrays.toString(irSignal.getEndingSequence().toInts()) + irSignal.getFrequency();
+    }
+
+    private final IrpDatabase irpDatabase;
+
+    public PackedSignalsNGTest() throws Exception {
+        irpDatabase = new IrpDatabase((String) null);
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * Test of render method, of class PackedSignals.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testRender() throws Exception {
+        System.out.println("render");
+        // RC5 has a memory variable, Grundig16 is not compiled
+        for (String name : new String[]{"NEC1", "RC5", "Grundig16"}) {
+            Protocol protocol = irpDatabase.getProtocol(name);
+            List<Map<String, Long>> parameters = PackedSignals.parameterRange(params(3), "F", 0, 127);
+            PackedSignals result = PackedSignals.render(protocol, parameters, null);
+            assertEquals(result.size(), parameters.size());
+            assertEquals(result.getOffsets().limit(), 3 * parameters.size() + 1);
+            assertEquals(result.getOffsets().get(3 * parameters.size()), result.getDurations().limit());
+            for (int i = 0; i < parameters.size(); i++) {
+                IrSignal expected = protocol.toIrSignal(parameters.get(i), new RenderState());
+                assertEquals(toString(result.getIrSignal(i)), toString(expected), name);
+                assertEquals(result.getLength(i, IrSignal.Pass.repeat), expected.getRepeatLength());
+            }
+
+            PackedSignals parallel = PackedSignals.render(protocol, parameters, new ForkJoinPool(4));
+            assertEquals(parallel.getDurations(), result.getDurations());
+            assertEquals(parallel.getOffsets(), result.getOffsets());
+        }
+    }
+
+    /**
+     * Test of render method, of class PackedSignals, with an invalid parameter.
+     * @throws java.lang.Exception
+     */
+    @Test(expectedExceptions = DomainViolationException.class)
+    public void testRenderDomainViolation() throws Exception {
+        System.out.println("renderDomainViolation");
+        List<Map<String, Long>> parameters = PackedSignals.parameterRange(params(3), "F", 250, 300);
+        PackedSignals.render(irpDatabase.getProtocol("NEC1"), parameters, new ForkJoinPool(2));
+    }
+
+    /**
+     * Test of renderPacked method, of class IrpDatabase.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testIrpDatabaseRenderPacked() throws Exception {
+        System.out.println("irpDatabaseRenderPacked");
+        PackedSignals result = irpDatabase.renderPacked("sony12", PackedSignals.parameterRange(params(1), "F", 0, 9), null);
+        assertEquals(result.size(), 10);
+        assertEquals(result.getFrequency(), 40000.0);
+        assertEquals(toString(result.getIrSignal(7)), toString(irpDatabase.render("Sony12", PackedSignals.parameterRange(params(1), "F", 7, 7).get(0))));
+    }
+}
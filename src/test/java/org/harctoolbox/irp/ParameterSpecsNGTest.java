@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.Map;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -125,4 +126,22 @@ public class ParameterSpecsNGTest {
         assertEquals(params.size(), 2);
         assertEquals(params.get("S").longValue(), 55L);
     }
+
+    /**
+     * Test of bitmasks method, of class ParameterSpecs.
+     * @throws org.harctoolbox.irp.InvalidNameException
+     */
+    @Test
+    public void testBitmasks() throws InvalidNameException {
+        System.out.println("bitmasks");
+        ParameterSpecs instance = new ParameterSpecs("[D:0..31,F:0..127]");
+        Map<String, Long> result = instance.bitmasks();
+        assertEquals(result.get("D").longValue(), 31L);
+        assertEquals(result.get("F").longValue(), 127L);
+        assertSame(instance.bitmasks(), result);
+        instance.tweak("D", 0L, 255L);
+        assertEquals(instance.bitmasks().get("D").longValue(), 255L);
+        instance.replace(nec1);
+        assertEquals(instance.bitmasks(), nec1.bitmasks());
+    }
 }
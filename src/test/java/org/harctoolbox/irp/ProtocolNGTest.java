@@ -1,9 +1,14 @@
 package org.harctoolbox.irp;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.harctoolbox.ircore.IrCoreUtils;
 import org.harctoolbox.ircore.IrSequence;
 import org.harctoolbox.ircore.IrSignal;
@@ -1118,4 +1123,72 @@ public class ProtocolNGTest {
         System.out.println("lineComment");
         Protocol junk = new Protocol("{36k,msb,889}<1,-1|-1,1>((1,~F:1:6,T:1,D:5,F:6,^114m)*,T=1-T)[D:0..31,F:0..127,T@:0..1=0]// Lorem Ipsum\n");
     }
+
+    /**
+     * Test of toIrSignal method, of class Protocol, with a RenderState.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testToIrSignalRenderState() throws Exception {
+        System.out.println("toIrSignalRenderState");
+        Protocol instance = new Protocol(rc5.getIrp());
+        Protocol reference = new Protocol(rc5.getIrp());
+        Map<String, Long> params = new HashMap<>(2);
+        params.put("D", 0L);
+        params.put("F", 1L);
+        RenderState state = new RenderState();
+        RenderState other = new RenderState();
+        IrSignal first = instance.toIrSignal(params, state);
+        assertEquals(first.toString(), reference.toIrSignal(params).toString());
+        assertEquals(state.get("T").longValue(), 1L);
+        assertEquals(params.size(), 2);
+        IrSignal second = instance.toIrSignal(params, state);
+        assertEquals(second.toString(), reference.toIrSignal(params).toString());
+        assertFalse(second.toString().equals(first.toString()));
+        assertEquals(state.get("T").longValue(), 0L);
+        // Other states, and the protocol, are not affected
+        assertEquals(instance.toIrSignal(params, other).toString(), first.toString());
+        assertEquals(instance.getMemoryVariable("T"), 0L);
+        // Explicit parameters override the state
+        params.put("T", 1L);
+        assertEquals(instance.toIrSignal(params, state).toString(), second.toString());
+        state.reset();
+        assertEquals(state.get("T"), null);
+    }
+
+    /**
+     * Test of toIrSignal method, of class Protocol, with RenderStates, used by several threads.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testToIrSignalConcurrent() throws Exception {
+        System.out.println("toIrSignalConcurrent");
+        Protocol instance = new Protocol(rc6.getIrp());
+        Map<String, Long> params = new HashMap<>(2);
+        params.put("D", 12L);
+        params.put("F", 34L);
+        String even = instance.toIrSignal(params, new RenderState()).toString();
+        RenderState toggled = new RenderState();
+        toggled.set("T", 1L);
+        String odd = instance.toIrSignal(params, toggled).toString();
+        int threads = 4;
+        int renders = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    RenderState state = new RenderState();
+                    for (int i = 0; i < renders; i++)
+                        if (!instance.toIrSignal(params, state).toString().equals(i % 2 == 0 ? even : odd))
+                            return false;
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results)
+                assertTrue(result.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
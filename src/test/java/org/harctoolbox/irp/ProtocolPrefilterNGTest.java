@@ -0,0 +1,128 @@
+package org.harctoolbox.irp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.harctoolbox.ircore.IrSequence;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.ModulatedIrSequence;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class ProtocolPrefilterNGTest {
+
+    private final NamedProtocol nec1;
+    private final NamedProtocol rc5;
+    private final NamedProtocol nrc17;
+    private final ProtocolPrefilter instance;
+    private final IrSequence nec1Intro;
+    private final IrSequence nec1Repeat;
+    private final IrSequence rc5Seq;
+
+    public ProtocolPrefilterNGTest() throws Exception {
+        IrpDatabase irpDatabase = new IrpDatabase((String) null);
+        nec1 = irpDatabase.getNamedProtocol("NEC1");
+        rc5 = irpDatabase.getNamedProtocol("RC5");
+        nrc17 = irpDatabase.getNamedProtocol("NRC17");
+        instance = new ProtocolPrefilter(Arrays.asList(nec1, rc5, nrc17));
+        nec1Intro = new IrSequence(new int[]{9024, 4512, 564, 564, 564, 564, 564, 1692, 564, 1692, 564, 564, 564, 564, 564, 564, 564, 564, 564, 1692, 564, 1692, 564, 564, 564, 564, 564, 1692, 564, 1692, 564, 1692, 564, 1692, 564, 564, 564, 564, 564, 564, 564, 1692, 564, 1692, 564, 1692, 564, 564, 564, 564, 564, 1692, 564, 1692, 564, 1692, 564, 564, 564, 564, 564, 564, 564, 1692, 564, 1692, 564, 39756});
+        nec1Repeat = new IrSequence(new int[]{9041, 2267, 573, 96193});
+        rc5Seq = new IrSequence(new int[]{889, 889, 1778, 889, 889, 1778, 889, 889, 1778, 889, 889, 1778, 889, 889, 889, 889, 1778, 889, 889, 889, 889, 90886});
+    }
+
+    private static List<String> names(List<ProtocolPrefilter.Candidate> candidates) {
+        List<String> result = new ArrayList<>(candidates.size());
+        candidates.forEach((candidate) -> {
+            result.add(candidate.getProtocol().getName());
+        });
+        return result;
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * Test of candidates method, of class ProtocolPrefilter.
+     */
+    @Test
+    public void testCandidates_IrSignal() {
+        System.out.println("candidates_IrSignal");
+        Decoder.DecoderParameters params = new Decoder.DecoderParameters();
+        List<ProtocolPrefilter.Candidate> result = instance.select(params).candidates(new IrSignal(nec1Intro, null, null, 38400.0));
+        assertEquals(names(result), Arrays.asList("NEC1", "NRC17")); // RC5: wrong frequency
+
+        result = instance.select(params).candidates(new IrSignal(nec1Intro, null, null, 36000.0));
+        assertEquals(names(result), Arrays.asList("RC5", "NRC17"));
+
+        result = instance.select(params).candidates(new IrSignal(rc5Seq, null, null, 38400.0));
+        assertEquals(names(result), Arrays.asList("NRC17")); // NEC1: 889 is not a NEC1 duration
+
+        params.setFrequencyTolerance(-1.0);
+        result = instance.select(params).candidates(new IrSignal(rc5Seq, null, null, 38400.0));
+        assertEquals(names(result), Arrays.asList("RC5", "NRC17"));
+
+        result = instance.select(params).candidates(new IrSignal());
+        assertEquals(names(result), Arrays.asList("NEC1", "RC5", "NRC17"));
+    }
+
+    /**
+     * Test of candidates method, of class ProtocolPrefilter.
+     */
+    @Test
+    public void testCandidates_ModulatedIrSequence() {
+        System.out.println("candidates_ModulatedIrSequence");
+        Decoder.DecoderParameters params = new Decoder.DecoderParameters();
+        ModulatedIrSequence irSequence = new ModulatedIrSequence(IrSequence.concatenate(rc5Seq, nec1Intro), 38400.0);
+        List<ProtocolPrefilter.Candidate> result = instance.select(params).candidates(irSequence, 0);
+        assertEquals(names(result), Arrays.asList("NRC17"));
+
+        result = instance.select(params).candidates(irSequence, rc5Seq.getLength());
+        assertEquals(names(result), Arrays.asList("NEC1", "NRC17"));
+
+        // gap, not checked
+        result = instance.select(params).candidates(irSequence, 1);
+        assertEquals(names(result), Arrays.asList("NEC1", "NRC17"));
+    }
+
+    /**
+     * Test of select method, of class ProtocolPrefilter.
+     */
+    @Test
+    public void testSelect() {
+        System.out.println("select");
+        Decoder.DecoderParameters params = new Decoder.DecoderParameters();
+        ProtocolPrefilter.Selection selection = instance.select(params);
+        List<ProtocolPrefilter.Candidate> result = selection.candidates(new IrSignal());
+        assertEquals(result.size(), instance.size());
+        result.forEach((candidate) -> {
+            assertNotNull(candidate.getParameters());
+        });
+        assertEquals(names(selection.candidates(new IrSignal())), names(result));
+    }
+
+    /**
+     * The prefilter must not reject signals that the decoder accepts.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testDecoderUnaffected() throws Exception {
+        System.out.println("decoderUnaffected");
+        Decoder decoder = new Decoder("NEC1", "RC5", "NRC17");
+        Decoder.DecoderParameters params = new Decoder.DecoderParameters();
+        Decoder.SimpleDecodesSet decodes = decoder.decodeIrSignal(new IrSignal(rc5Seq, null, null, 36000.0), params);
+        assertEquals(decodes.size(), 1);
+        assertEquals(decodes.first().getName(), "RC5");
+
+        decodes = decoder.decodeIrSignal(new IrSignal(nec1Intro, nec1Repeat, null, 38400.0), params);
+        assertEquals(decodes.size(), 1);
+        assertEquals(decodes.first().getName(), "NEC1");
+    }
+}
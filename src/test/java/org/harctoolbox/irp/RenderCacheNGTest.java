@@ -0,0 +1,116 @@
+package org.harctoolbox.irp;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.harctoolbox.ircore.IrSignal;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class RenderCacheNGTest {
+
+    private static Map<String, Long> params(long d, long f) {
+        Map<String, Long> params = new HashMap<>(2);
+        params.put("D", d);
+        params.put("F", f);
+        return params;
+    }
+
+    private final IrpDatabase irpDatabase;
+
+    public RenderCacheNGTest() throws Exception {
+        irpDatabase = new IrpDatabase((String) null);
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    /**
+     * Test of render method, of class RenderCache.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testRender() throws Exception {
+        System.out.println("render");
+        RenderCache instance = new RenderCache(2);
+        Protocol nec1 = irpDatabase.getProtocol("NEC1");
+        IrSignal expected = nec1.toIrSignal(params(12, 34));
+
+        Map<String, Long> params = params(12, 34);
+        IrSignal first = instance.render(nec1, params);
+        assertEquals(first.toString(), expected.toString());
+        assertEquals(instance.getMisses(), 1L);
+        assertEquals(instance.getHits(), 0L);
+
+        // Changing the caller's map must not affect the cache
+        params.put("F", 56L);
+        IrSignal second = instance.render(nec1, params(12, 34));
+        assertEquals(second.toString(), expected.toString());
+        assertNotSame(second, first);
+        assertEquals(instance.getHits(), 1L);
+
+        instance.render(nec1, params(12, 56));
+        instance.render(nec1, params(12, 34));
+        instance.render(nec1, params(1, 2)); // evicts (12, 56)
+        assertEquals(instance.size(), 2);
+        assertEquals(instance.getEvictions(), 1L);
+        instance.render(nec1, params(12, 34));
+        assertEquals(instance.getHits(), 3L);
+        instance.render(nec1, params(12, 56));
+        assertEquals(instance.getMisses(), 4L);
+
+        instance.resetStatistics();
+        instance.clear();
+        assertEquals(instance.size(), 0);
+        assertEquals(instance.getHits() + instance.getMisses() + instance.getEvictions(), 0L);
+    }
+
+    /**
+     * Test of render method, of class RenderCache, for protocols with memory variables.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testRenderBypass() throws Exception {
+        System.out.println("renderBypass");
+        RenderCache instance = new RenderCache();
+        Protocol rc5 = irpDatabase.getNonRecycledProtocol("RC5");
+        assertTrue(rc5.hasMemoryVariables());
+        IrSignal first = instance.render(rc5, params(0, 0));
+        IrSignal second = instance.render(rc5, params(0, 0));
+        // the toggle changes
+        assertNotEquals(second.toString(), first.toString());
+        assertEquals(instance.getBypasses(), 2L);
+        assertEquals(instance.size(), 0);
+
+        RenderState state = new RenderState();
+        assertEquals(instance.render(rc5, params(0, 0), state).toString(), first.toString());
+        assertEquals(state.get("T").longValue(), 1L);
+        assertEquals(instance.getBypasses(), 3L);
+    }
+
+    /**
+     * Test of render method, of class IrpDatabase, with a RenderCache.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testIrpDatabaseRender() throws Exception {
+        System.out.println("irpDatabaseRender");
+        IrpDatabase db = new IrpDatabase((String) null);
+        RenderCache instance = new RenderCache();
+        db.setRenderCache(instance);
+        IrSignal expected = irpDatabase.render("Sony12", params(1, 2));
+        assertEquals(db.render("Sony12", params(1, 2)).toString(), expected.toString());
+        assertEquals(db.render("sony12", params(1, 2)).toString(), expected.toString());
+        assertEquals(instance.getHits(), 1L);
+        db.setRenderCache(null);
+        assertEquals(db.render("Sony12", params(1, 2)).toString(), expected.toString());
+        assertEquals(instance.getHits(), 1L);
+    }
+}
@@ -0,0 +1,87 @@
+package org.harctoolbox.irp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class SignalRecognitionExceptionNGTest {
+
+    private static final Logger logger = Logger.getLogger(SignalRecognitionException.class.getName());
+
+    public SignalRecognitionExceptionNGTest() {
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+        logger.setLevel(null);
+    }
+
+    /**
+     * Test of getMessage method, of class SignalRecognitionException.
+     */
+    @Test
+    public void testGetMessage() {
+        System.out.println("getMessage");
+        AtomicInteger calls = new AtomicInteger(0);
+        SignalRecognitionException instance = new SignalRecognitionException(() -> {
+            calls.incrementAndGet();
+            return "Duration does not parse";
+        });
+        assertEquals(calls.get(), 0);
+        assertEquals(instance.getMessage(), "Duration does not parse");
+        assertEquals(calls.get(), 1);
+        assertEquals(new SignalRecognitionException("Frequency does not match").getMessage(), "Frequency does not match");
+        assertNull(new SignalRecognitionException().getMessage());
+        NameUnassignedException cause = new NameUnassignedException("X");
+        assertEquals(new SignalRecognitionException(cause).getMessage(), cause.toString());
+        assertEquals(new ParameterInconsistencyException("D", 1L, 2L).getMessage(), "Conflicting assignments of D, new: 1, old: 2");
+        BitwiseParameter expected = new BitwiseParameter(5L, 7L);
+        BitwiseParameter parameter = new BitwiseParameter(3L);
+        ParameterInconsistencyException ex = new ParameterInconsistencyException("F", expected, parameter);
+        expected.assign(0L);
+        assertEquals(ex.getMessage(), "Conflicting assignments of F, expected: 5&111, gotten: " + parameter.toString());
+    }
+
+    /**
+     * Test of the serialization of SignalRecognitionException with lazily computed message.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testSerialization() throws Exception {
+        System.out.println("serialization");
+        SignalRecognitionException instance = new ParameterInconsistencyException("D", 1L, 2L);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(instance);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            SignalRecognitionException result = (SignalRecognitionException) in.readObject();
+            assertEquals(result.getMessage(), "Conflicting assignments of D, new: 1, old: 2");
+        }
+    }
+
+    /**
+     * Test of the stack trace of SignalRecognitionException.
+     */
+    @Test
+    public void testStackTrace() {
+        System.out.println("stackTrace");
+        logger.setLevel(Level.INFO);
+        assertEquals(new SignalRecognitionException("no match").getStackTrace().length, 0);
+        logger.setLevel(Level.FINE);
+        assertTrue(new SignalRecognitionException("no match").getStackTrace().length > 0);
+    }
+}
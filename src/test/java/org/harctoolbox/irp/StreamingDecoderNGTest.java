@@ -0,0 +1,165 @@
+package org.harctoolbox.irp;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.harctoolbox.ircore.IrSignal;
+import org.harctoolbox.ircore.ModulatedIrSequence;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("UseOfSystemOutOrSystemErr")
+public class StreamingDecoderNGTest {
+
+    private static class Recorder implements StreamingDecoder.Listener {
+
+        private final List<String> events = new ArrayList<>(8);
+
+        @Override
+        public void decoded(Decoder.Decode decode) {
+            events.add("decoded " + decode);
+        }
+
+        @Override
+        public void repeated(Decoder.Decode decode) {
+            events.add("repeated " + decode.getNumberOfRepetitions());
+        }
+
+        @Override
+        public void ended(Decoder.Decode decode) {
+            events.add("ended " + decode);
+        }
+    }
+
+    private final IrpDatabase irpDatabase;
+    private final Decoder decoder;
+    private final Decoder.DecoderParameters decoderParameters;
+
+    public StreamingDecoderNGTest() throws Exception {
+        irpDatabase = new IrpDatabase((String) null);
+        decoder = new Decoder(irpDatabase);
+        decoderParameters = new Decoder.DecoderParameters();
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+    }
+
+    private ModulatedIrSequence render(String protocol, String params, int repeats) throws Exception {
+        IrSignal irSignal = irpDatabase.getNamedProtocol(protocol).toIrSignal(new NameEngine(params));
+        return irSignal.toModulatedIrSequence(true, repeats, true);
+    }
+
+    /**
+     * Test of feed method, of class StreamingDecoder.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testFeed() throws Exception {
+        System.out.println("feed");
+        Recorder recorder = new Recorder();
+        StreamingDecoder instance = new StreamingDecoder(decoder, decoderParameters, null, recorder);
+        ModulatedIrSequence irSequence = render("NEC1", "{D=12,S=34,F=56}", 3);
+        instance.feed(irSequence);
+        // The intro alone is a valid NEC signal, NEC1 requires a repeat.
+        assertEquals(recorder.events.get(0), "decoded NEC: {D=12,S=34,F=56}, beg=0, end=67");
+        assertEquals(recorder.events.get(1), "ended NEC: {D=12,S=34,F=56}, beg=0, end=67");
+        assertEquals(recorder.events.get(2), "decoded NEC1: {D=12,S=34,F=56}, beg=0, end=71, reps=1");
+        assertEquals(recorder.events.get(3), "repeated 2");
+        assertEquals(recorder.events.get(4), "repeated 3");
+        assertEquals(recorder.events.size(), 5);
+        assertEquals(instance.getActive().size(), 1);
+        instance.flush();
+        assertEquals(recorder.events.get(5), "ended NEC1: {D=12,S=34,F=56}, beg=0, end=79, reps=3");
+        assertTrue(instance.getActive().isEmpty());
+    }
+
+    /**
+     * Test of feed method, of class StreamingDecoder, for consecutive signals.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testFeedConsecutive() throws Exception {
+        System.out.println("feedConsecutive");
+        Recorder recorder = new Recorder();
+        StreamingDecoder instance = new StreamingDecoder(decoder, decoderParameters, null, recorder);
+        instance.feed(render("NEC1", "{D=12,S=34,F=56}", 0));
+        instance.feed(render("NEC1", "{D=12,S=34,F=57}", 1));
+        assertEquals(recorder.events.size(), 5);
+        assertEquals(recorder.events.get(1), "ended NEC: {D=12,S=34,F=56}, beg=0, end=67");
+        assertEquals(recorder.events.get(2), "decoded NEC: {D=12,S=34,F=57}, beg=0, end=67");
+        assertEquals(recorder.events.get(4), "decoded NEC1: {D=12,S=34,F=57}, beg=0, end=71, reps=1");
+    }
+
+    /**
+     * Test of flush method, of class StreamingDecoder, with a missing final gap.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testFlush() throws Exception {
+        System.out.println("flush");
+        Recorder recorder = new Recorder();
+        StreamingDecoder instance = new StreamingDecoder(decoder, decoderParameters, null, recorder);
+        ModulatedIrSequence irSequence = render("NEC1", "{D=12,S=34,F=56}", 0);
+        for (int i = 0; i < irSequence.getLength() - 1; i++)
+            instance.feed(irSequence.get(i));
+        assertTrue(recorder.events.isEmpty());
+        instance.flush();
+        assertEquals(recorder.events.size(), 2);
+        assertEquals(recorder.events.get(0), "decoded NEC: {D=12,S=34,F=56}, beg=0, end=67");
+        assertEquals(recorder.events.get(1), "ended NEC: {D=12,S=34,F=56}, beg=0, end=67");
+    }
+
+    /**
+     * Test of feed method, of class StreamingDecoder, with garbage before the signal.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testFeedGarbage() throws Exception {
+        System.out.println("feedGarbage");
+        Recorder recorder = new Recorder();
+        StreamingDecoder instance = new StreamingDecoder(decoder, decoderParameters, null, recorder);
+        for (int i = 0; i < 10; i++) {
+            instance.feed(123);
+            instance.feed(50000);
+        }
+        assertTrue(recorder.events.isEmpty());
+        instance.feed(render("RC5", "{D=12,F=34,T=0}", 1));
+        instance.feed(render("RC5", "{D=12,F=34,T=1}", 2));
+        instance.flush();
+        assertEquals(recorder.events.size(), 5);
+        assertEquals(recorder.events.get(0), "decoded RC5: {D=12,F=34}, beg=0, end=19, reps=1");
+        assertEquals(recorder.events.get(1), "ended RC5: {D=12,F=34}, beg=0, end=19, reps=1");
+        assertEquals(recorder.events.get(2), "decoded RC5: {D=12,F=34,T=1}, beg=0, end=19, reps=1");
+        assertEquals(recorder.events.get(3), "repeated 2");
+        assertEquals(recorder.events.get(4), "ended RC5: {D=12,F=34,T=1}, beg=0, end=39, reps=2");
+    }
+    /**
+     * Test of feed method, of class StreamingDecoder, for a long held button.
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testFeedLongRepeat() throws Exception {
+        System.out.println("feedLongRepeat");
+        Recorder recorder = new Recorder();
+        StreamingDecoder instance = new StreamingDecoder(decoder, decoderParameters, null, recorder);
+        IrSignal irSignal = irpDatabase.getNamedProtocol("NEC1").toIrSignal(new NameEngine("{D=12,S=34,F=56}"));
+        instance.feed(irSignal.getIntroSequence());
+        int maxLength = 0;
+        for (int i = 0; i < 1000; i++) {
+            instance.feed(irSignal.getRepeatSequence());
+            maxLength = Math.max(maxLength, instance.getBufferedLength());
+        }
+        // intro and two repeats
+        assertEquals(maxLength, irSignal.getIntroLength() + 2 * irSignal.getRepeatLength());
+        assertEquals(recorder.events.get(recorder.events.size() - 1), "repeated 1000");
+        instance.flush();
+        int end = irSignal.getIntroLength() + 1000 * irSignal.getRepeatLength() - 1;
+        assertEquals(recorder.events.get(recorder.events.size() - 1), "ended NEC1: {D=12,S=34,F=56}, beg=0, end=" + end + ", reps=1000");
+    }
+}